@@ -0,0 +1,113 @@
+package com.sunboat.adminWeb.business.benchmark;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.config.TokenRevocationProperties;
+import com.sunboat.adminWeb.business.security.AuthMetrics;
+import com.sunboat.adminWeb.business.security.LocalBloomFilter;
+import com.sunboat.adminWeb.business.security.TokenRevocationService;
+import com.sunboat.adminWeb.business.security.UserSecurityVersionService;
+import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 认证基准测试公共构件
+ * 不启动Spring容器：被测Bean直接new出来，通过反射注入依赖，Redis相关服务用本地实现替代，
+ * 测得的只是认证链路本身的CPU开销，与网络、连接池无关。
+ */
+public final class AuthBenchmarkSupport {
+
+    public static final String USERNAME = "bench-user";
+
+    private AuthBenchmarkSupport() {
+    }
+
+    /**
+     * 基准测试用的JWT配置（沿用默认密钥）
+     * @param claimsCacheMaxSize 声明缓存容量，0表示关闭缓存
+     */
+    public static JwtProperties jwtProperties(long claimsCacheMaxSize, boolean claimsPrincipalEnabled) {
+        JwtProperties properties = new JwtProperties();
+        properties.setClaimsCacheMaxSize(claimsCacheMaxSize);
+        properties.setClaimsPrincipalEnabled(claimsPrincipalEnabled);
+        return properties;
+    }
+
+    public static AuthMetrics authMetrics() {
+        return new AuthMetrics(new SimpleMeterRegistry());
+    }
+
+    public static JwtTokenUtil jwtTokenUtil(JwtProperties properties, AuthMetrics authMetrics) {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtProperties", properties);
+        jwtTokenUtil.init();
+        jwtTokenUtil.setVerifyListener(authMetrics::recordVerify);
+        return jwtTokenUtil;
+    }
+
+    /**
+     * 拥有指定数量角色的用户
+     */
+    public static UserDetails user(int roleCount) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roleCount);
+        for (int i = 0; i < roleCount; i++) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_BENCH_" + i));
+        }
+        return new User(USERNAME, "", authorities);
+    }
+
+    /**
+     * 额外声明：数量决定令牌中的字段个数，长度决定令牌体积
+     * @param claimCount 声明个数
+     * @param valueLength 每个声明值的字符数
+     */
+    public static Map<String, Object> extraClaims(int claimCount, int valueLength) {
+        char[] chars = new char[valueLength];
+        Arrays.fill(chars, 'x');
+        String value = new String(chars);
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtTokenUtil.CLAIM_SECURITY_VERSION, 0L);
+        for (int i = 0; i < claimCount; i++) {
+            claims.put("c" + i, value);
+        }
+        return claims;
+    }
+
+    /**
+     * 安全版本号服务：版本号固定为0，不访问Redis
+     */
+    public static UserSecurityVersionService securityVersionService() {
+        return new UserSecurityVersionService() {
+            @Override
+            public long currentVersion(String username) {
+                return 0L;
+            }
+        };
+    }
+
+    /**
+     * 吊销服务：保留本地布隆过滤器判定，过滤器为空，所有令牌都走“未吊销”的快速路径
+     */
+    public static TokenRevocationService tokenRevocationService() {
+        TokenRevocationProperties properties = new TokenRevocationProperties();
+        LocalBloomFilter bloomFilter = new LocalBloomFilter(properties.getExpectedInsertions(),
+                properties.getFalsePositiveRate());
+        return new TokenRevocationService() {
+            @Override
+            public boolean isRevoked(String jti) {
+                return jti != null && bloomFilter.mightContain(jti);
+            }
+        };
+    }
+}
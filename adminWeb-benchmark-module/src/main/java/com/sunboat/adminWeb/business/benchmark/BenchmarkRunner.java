@@ -0,0 +1,41 @@
+package com.sunboat.adminWeb.business.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * 基准测试入口（benchmarks.jar 的 Main-Class）
+ * 用法：
+ *   mvn -pl adminWeb-benchmark-module -am package -DskipTests
+ *   java -jar adminWeb-benchmark-module/target/benchmarks.jar [JMH参数，如 JwtTokenUtil -p claimCount=8]
+ * 未指定 -rf/-rff 时结果统一输出为JSON：target/jmh-result-yyyyMMdd-HHmmss.json，
+ * 可直接用 JMH Visualizer 等工具对比两次运行的结果。
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        if (!cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            new File("target").mkdirs();
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            builder.result("target/jmh-result-" + timestamp + ".json");
+        }
+        // 命令行参数优先，其余取上面的默认值
+        Options options = builder.parent(cmd).build();
+        new Runner(options).run();
+    }
+}
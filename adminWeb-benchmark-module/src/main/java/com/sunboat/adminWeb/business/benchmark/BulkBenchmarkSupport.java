@@ -0,0 +1,129 @@
+package com.sunboat.adminWeb.business.benchmark;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.sunboat.adminWeb.business.config.BulkSqlInjector;
+import com.sunboat.adminWeb.business.entity.UserActionLogs;
+import com.sunboat.adminWeb.business.maper.UserActionLogsMapper;
+import com.sunboat.adminWeb.business.utils.bulk.InsertBatchSomeColumnStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.InsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.JdbcBatchInsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.MultiRowValuesInsertStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 批量插入基准测试公共构件
+ * 默认使用内嵌H2（MySQL兼容模式），不启动Spring容器，手工构建MyBatis-Plus会话工厂并注册 UserActionLogsMapper。
+ * 指定 -Dbulk.benchmark.url=jdbc:mysql://... （及 bulk.benchmark.user、bulk.benchmark.password）时改用该数据库，
+ * 表 user_action_logs 不存在时自动创建，每轮测量前会被清空，请勿指向业务库。
+ */
+public final class BulkBenchmarkSupport {
+
+    public static final String STRATEGY_JDBC_BATCH = "jdbc-batch";
+    public static final String STRATEGY_MULTI_ROW_VALUES = "multi-row-values";
+    public static final String STRATEGY_INSERT_BATCH_SOME_COLUMN = "insert-batch-some-column";
+
+    private static final String H2_URL = "jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS user_action_logs ("
+            + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "user_id BIGINT, "
+            + "action VARCHAR(64), "
+            + "detail VARCHAR(4096), "
+            + "ip_address VARCHAR(64), "
+            + "created_at TIMESTAMP)";
+
+    private BulkBenchmarkSupport() {
+    }
+
+    public static HikariDataSource dataSource(int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("bulk.benchmark.url", H2_URL));
+        dataSource.setUsername(System.getProperty("bulk.benchmark.user", "sa"));
+        dataSource.setPassword(System.getProperty("bulk.benchmark.password", ""));
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+    public static void createTable(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    public static void truncate(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("TRUNCATE TABLE user_action_logs");
+    }
+
+    /**
+     * 与应用中相同的MyBatis-Plus配置：下划线转驼峰 + BulkSqlInjector
+     */
+    public static SqlSessionFactory sqlSessionFactory(HikariDataSource dataSource) {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setBanner(false);
+        globalConfig.setSqlInjector(new BulkSqlInjector());
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        configuration.setEnvironment(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        // 注册Mapper时注入SQL并初始化表信息，必须在设置注入器之后
+        configuration.addMapper(UserActionLogsMapper.class);
+        return new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    public static List<String> strategyNames() {
+        return Arrays.asList(STRATEGY_JDBC_BATCH, STRATEGY_MULTI_ROW_VALUES, STRATEGY_INSERT_BATCH_SOME_COLUMN);
+    }
+
+    public static InsertStrategy<UserActionLogs> strategy(String name, SqlSessionFactory sqlSessionFactory,
+                                                          JdbcTemplate jdbcTemplate) {
+        switch (name) {
+            case STRATEGY_JDBC_BATCH:
+                return new JdbcBatchInsertStrategy<>(sqlSessionFactory, UserActionLogsMapper.class, 500);
+            case STRATEGY_MULTI_ROW_VALUES:
+                // H2不支持 @@max_allowed_packet，按MySQL默认的4MB限制
+                return new MultiRowValuesInsertStrategy<>(jdbcTemplate, UserActionLogs.class, false, 4L * 1024 * 1024);
+            case STRATEGY_INSERT_BATCH_SOME_COLUMN:
+                return new InsertBatchSomeColumnStrategy<>(sqlSessionFactory, UserActionLogsMapper.class, 1000);
+            default:
+                throw new IllegalArgumentException("未知的插入方式: " + name);
+        }
+    }
+
+    /**
+     * 生成测试数据
+     * @param count 行数
+     * @param detailLength detail字段长度，控制行宽
+     */
+    public static List<UserActionLogs> rows(int count, int detailLength) {
+        char[] chars = new char[detailLength];
+        Arrays.fill(chars, 'd');
+        String detail = new String(chars);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<UserActionLogs> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i, detail, now));
+        }
+        return rows;
+    }
+
+    public static UserActionLogs row(long i, String detail, LocalDateTime createdAt) {
+        UserActionLogs log = new UserActionLogs();
+        log.setUserId(i % 1000);
+        log.setAction("action-" + (i % 16));
+        log.setDetail(detail);
+        log.setIpAddress("10.0." + (i % 256) + "." + (i % 250 + 1));
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+}
@@ -0,0 +1,305 @@
+package com.sunboat.adminWeb.business.benchmark;
+
+import com.sunboat.adminWeb.business.entity.UserActionLogs;
+import com.sunboat.adminWeb.business.utils.BatchInsertWithMapper;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.InsertStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 批量插入基准测试套件：按 插入方式 × 批大小 × 线程数 × 行宽 的组合，
+ * 用 BatchInsertWithMapper 流式导入固定行数，统计每秒行数、单批耗时P99和内存分配速率。
+ * JMH 只能给出平均耗时，拿不到单批耗时分布，所以这里单独计时；单批写入的微基准见 InsertStrategyBenchmark。
+ * <p>
+ * 用法（默认内嵌H2，-Dbulk.benchmark.url 指定MySQL，见 BulkBenchmarkSupport）：
+ * <pre>
+ *   java -cp adminWeb-benchmark-module/target/benchmarks.jar \
+ *        -Dbulk.benchmark.batchSizes=500,2000 -Dbulk.benchmark.threads=2,4 \
+ *        com.sunboat.adminWeb.business.benchmark.BulkInsertBenchmarkSuite
+ * </pre>
+ * 可选参数（逗号分隔的取值会两两组合）：
+ * <ul>
+ *     <li>bulk.benchmark.strategies：插入方式，默认全部</li>
+ *     <li>bulk.benchmark.batchSizes：批大小，默认 100,500,1000,5000</li>
+ *     <li>bulk.benchmark.threads：线程数，默认 1,2,4,8</li>
+ *     <li>bulk.benchmark.detailLengths：detail字段长度（行宽），默认 32,512,2048</li>
+ *     <li>bulk.benchmark.rows：每轮导入行数，默认 50000</li>
+ *     <li>bulk.benchmark.warmups / bulk.benchmark.repeats：预热轮数（不计入结果）/ 测量轮数，默认 1 / 3</li>
+ * </ul>
+ * 结果打印到控制台，并输出CSV：target/bulk-insert-yyyyMMdd-HHmmss.csv。
+ * 分配速率按 ThreadMXBean 统计导入期间所有存活线程（读取线程 + 写入线程池）的分配字节数。
+ */
+public class BulkInsertBenchmarkSuite {
+
+    private static final String PREFIX = "bulk.benchmark.";
+
+    private final int rows;
+    private final int warmups;
+    private final int repeats;
+    private final com.sun.management.ThreadMXBean threadMXBean;
+
+    private BulkInsertBenchmarkSuite(int rows, int warmups, int repeats) {
+        this.rows = rows;
+        this.warmups = warmups;
+        this.repeats = repeats;
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (threadMXBean.isThreadAllocatedMemorySupported()) {
+            threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> strategies = stringList("strategies", BulkBenchmarkSupport.strategyNames());
+        List<Integer> batchSizes = intList("batchSizes", "100,500,1000,5000");
+        List<Integer> threadCounts = intList("threads", "1,2,4,8");
+        List<Integer> detailLengths = intList("detailLengths", "32,512,2048");
+        BulkInsertBenchmarkSuite suite = new BulkInsertBenchmarkSuite(
+                Integer.getInteger(PREFIX + "rows", 50_000),
+                Integer.getInteger(PREFIX + "warmups", 1),
+                Integer.getInteger(PREFIX + "repeats", 3));
+
+        int maxThreads = threadCounts.stream().mapToInt(Integer::intValue).max().orElse(1);
+        List<Result> results = new ArrayList<>();
+        try (HikariDataSource dataSource = BulkBenchmarkSupport.dataSource(maxThreads + 1)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            BulkBenchmarkSupport.createTable(jdbcTemplate);
+            SqlSessionFactory sqlSessionFactory = BulkBenchmarkSupport.sqlSessionFactory(dataSource);
+
+            System.out.printf("数据库: %s，每轮 %d 行，预热 %d 轮，测量 %d 轮%n",
+                    dataSource.getJdbcUrl(), suite.rows, suite.warmups, suite.repeats);
+            System.out.println(Result.HEADER);
+            for (int detailLength : detailLengths) {
+                // 同一行宽的数据只生成一次，生成数据的开销不计入测量
+                List<UserActionLogs> data = BulkBenchmarkSupport.rows(suite.rows, detailLength);
+                for (String strategyName : strategies) {
+                    InsertStrategy<UserActionLogs> strategy =
+                            BulkBenchmarkSupport.strategy(strategyName, sqlSessionFactory, jdbcTemplate);
+                    for (int batchSize : batchSizes) {
+                        for (int threads : threadCounts) {
+                            Result result = suite.measure(jdbcTemplate, data, strategy, strategyName,
+                                    batchSize, threads, detailLength);
+                            System.out.println(result.toRow());
+                            results.add(result);
+                        }
+                    }
+                }
+            }
+        }
+        writeCsv(results);
+    }
+
+    private Result measure(JdbcTemplate jdbcTemplate, List<UserActionLogs> data, InsertStrategy<UserActionLogs> strategy,
+                           String strategyName, int batchSize, int threads, int detailLength) throws Exception {
+        Result result = new Result(strategyName, batchSize, threads, detailLength);
+        for (int run = 0; run < warmups + repeats; run++) {
+            BulkBenchmarkSupport.truncate(jdbcTemplate);
+            TimedStrategy timed = new TimedStrategy(strategy, (data.size() + batchSize - 1) / batchSize);
+            BatchInsertWithMapper<UserActionLogs> inserter = new BatchInsertWithMapper<>(batchSize, threads);
+            try {
+                // 线程池在统计结束后才关闭，写入线程的分配量不会随线程退出而丢失
+                Map<Long, Long> allocatedBefore = allocatedBytes();
+                long start = System.nanoTime();
+                BulkResult bulkResult = inserter.processBatchInsert(data.iterator(), timed);
+                long elapsedNanos = System.nanoTime() - start;
+                long allocated = allocatedSince(allocatedBefore);
+
+                if (bulkResult.getFirstError() != null) {
+                    throw new IllegalStateException("导入失败: " + result.key(), bulkResult.getFirstError());
+                }
+                Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_action_logs", Long.class);
+                if (count == null || count != data.size()) {
+                    throw new IllegalStateException("写入行数不符: " + result.key() + ", 期望 " + data.size() + ", 实际 " + count);
+                }
+                if (run >= warmups) {
+                    result.add(data.size(), elapsedNanos, allocated, timed.latencies());
+                }
+            } finally {
+                inserter.shutdown();
+            }
+        }
+        return result;
+    }
+
+    // 所有存活线程当前的累计分配字节数
+    private Map<Long, Long> allocatedBytes() {
+        long[] ids = threadMXBean.getAllThreadIds();
+        long[] bytes = threadMXBean.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    // 期间新建的线程从0开始计
+    private long allocatedSince(Map<Long, Long> before) {
+        if (!threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private static void writeCsv(List<Result> results) throws IOException {
+        new File("target").mkdirs();
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File("target/bulk-insert-" + timestamp + ".csv");
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("strategy,batchSize,threads,detailLength,rowsPerSecond,p50BatchMillis,p99BatchMillis,"
+                    + "allocMBPerSecond,allocBytesPerRow");
+            for (Result result : results) {
+                out.println(result.toCsv());
+            }
+        }
+        System.out.println("结果已写入: " + file.getPath());
+    }
+
+    private static List<String> stringList(String name, List<String> defaults) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaults;
+        }
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+    }
+
+    private static List<Integer> intList(String name, String defaults) {
+        return stringList(name, Arrays.asList(defaults.split(","))).stream()
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 记录每次写入耗时的包装，写入本身委托给被测的插入方式
+     */
+    private static final class TimedStrategy implements InsertStrategy<UserActionLogs> {
+        private final InsertStrategy<UserActionLogs> delegate;
+        private long[] latencies;
+        private int size;
+
+        private TimedStrategy(InsertStrategy<UserActionLogs> delegate, int expectedBatches) {
+            this.delegate = delegate;
+            this.latencies = new long[Math.max(16, expectedBatches)];
+        }
+
+        @Override
+        public int write(List<UserActionLogs> batch) throws Exception {
+            long start = System.nanoTime();
+            int written = delegate.write(batch);
+            record(System.nanoTime() - start);
+            return written;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        private synchronized void record(long nanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+        }
+
+        private synchronized long[] latencies() {
+            return Arrays.copyOf(latencies, size);
+        }
+    }
+
+    /**
+     * 一个参数组合在全部测量轮次上的汇总
+     */
+    private static final class Result {
+        private static final String HEADER = String.format("%-26s %8s %7s %7s %12s %10s %10s %12s %10s",
+                "strategy", "batch", "threads", "width", "rows/s", "p50(ms)", "p99(ms)", "alloc(MB/s)", "B/row");
+
+        private final String strategy;
+        private final int batchSize;
+        private final int threads;
+        private final int detailLength;
+        private long rows;
+        private long elapsedNanos;
+        private long allocatedBytes;
+        private long[] latencies = new long[0];
+
+        private Result(String strategy, int batchSize, int threads, int detailLength) {
+            this.strategy = strategy;
+            this.batchSize = batchSize;
+            this.threads = threads;
+            this.detailLength = detailLength;
+        }
+
+        private void add(long runRows, long runNanos, long runAllocated, long[] runLatencies) {
+            rows += runRows;
+            elapsedNanos += runNanos;
+            allocatedBytes = runAllocated < 0 || allocatedBytes < 0 ? -1 : allocatedBytes + runAllocated;
+            long[] merged = Arrays.copyOf(latencies, latencies.length + runLatencies.length);
+            System.arraycopy(runLatencies, 0, merged, latencies.length, runLatencies.length);
+            latencies = merged;
+        }
+
+        private double rowsPerSecond() {
+            return elapsedNanos > 0 ? rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        // 分配不可统计时为-1
+        private double allocMBPerSecond() {
+            if (allocatedBytes < 0 || elapsedNanos <= 0) {
+                return -1;
+            }
+            return allocatedBytes / (1024.0 * 1024) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
+
+        private long allocBytesPerRow() {
+            return allocatedBytes < 0 || rows == 0 ? -1 : allocatedBytes / rows;
+        }
+
+        private String key() {
+            return strategy + "/batch=" + batchSize + "/threads=" + threads + "/width=" + detailLength;
+        }
+
+        private String toRow() {
+            return String.format("%-26s %8d %7d %7d %12.0f %10.2f %10.2f %12.1f %10d",
+                    strategy, batchSize, threads, detailLength, rowsPerSecond(),
+                    percentileMillis(50), percentileMillis(99), allocMBPerSecond(), allocBytesPerRow());
+        }
+
+        private String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.0f,%.3f,%.3f,%.1f,%d",
+                    strategy, batchSize, threads, detailLength, rowsPerSecond(),
+                    percentileMillis(50), percentileMillis(99), allocMBPerSecond(), allocBytesPerRow());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.sunboat.adminWeb.business.benchmark.AuthBenchmarkSupport;
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter 单个请求的完整认证开销（解析、吊销检查、安全版本、构建认证信息）
+ * 与过滤器同包，直接调用 doFilterInternal，绕开 OncePerRequestFilter 的重复过滤判断
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"0", "32"})
+    private int claimCount;
+
+    @Param({"16", "256"})
+    private int claimLength;
+
+    @Param({"1", "8"})
+    private int roleCount;
+
+    @Param({"0", "10000"})
+    private long claimsCacheMaxSize;
+
+    // false：每个请求加载用户；true：直接使用令牌中的角色
+    @Param({"false", "true"})
+    private boolean claimsPrincipalEnabled;
+
+    private JwtAuthenticationFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProperties properties = AuthBenchmarkSupport.jwtProperties(claimsCacheMaxSize, claimsPrincipalEnabled);
+        AuthMetrics authMetrics = AuthBenchmarkSupport.authMetrics();
+        JwtTokenUtil jwtTokenUtil = AuthBenchmarkSupport.jwtTokenUtil(properties, authMetrics);
+        UserDetails user = AuthBenchmarkSupport.user(roleCount);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtTokenUtil);
+        // 模拟本地缓存命中：与CustomUserDetailsService一样每次返回新的UserDetails
+        CustomUserDetailsService userDetailsService = new CustomUserDetailsService() {
+            @Override
+            public UserDetails loadCachedUser(String username) {
+                return AuthBenchmarkSupport.user(roleCount);
+            }
+        };
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "securityVersionService", AuthBenchmarkSupport.securityVersionService());
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", AuthBenchmarkSupport.tokenRevocationService());
+        ReflectionTestUtils.setField(filter, "jwtProperties", properties);
+        ReflectionTestUtils.setField(filter, "authMetrics", authMetrics);
+
+        String token = jwtTokenUtil.generateToken(user, AuthBenchmarkSupport.extraClaims(claimCount, claimLength));
+        request = new MockHttpServletRequest("GET", "/api/test/user");
+        request.setRemoteAddr("127.0.0.1");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Authentication doFilterInternal() throws ServletException, IOException {
+        // 每次调用都是一个新请求：清空上一次设置的认证信息
+        SecurityContextHolder.clearContext();
+        filter.doFilterInternal(request, response, new MockFilterChain());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new IllegalStateException("基准测试令牌未通过认证");
+        }
+        return authentication;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sunboat.adminWeb.business.utils;
+
+import com.sunboat.adminWeb.business.benchmark.AuthBenchmarkSupport;
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtTokenUtil 签发、校验令牌的基准测试
+ * claimCount、claimLength 控制令牌中的声明个数和体积；claimsCacheMaxSize=0 为不使用声明缓存的基线
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenUtilBenchmark {
+
+    @Param({"0", "8", "32"})
+    private int claimCount;
+
+    @Param({"16", "256"})
+    private int claimLength;
+
+    @Param({"1", "8"})
+    private int roleCount;
+
+    @Param({"0", "10000"})
+    private long claimsCacheMaxSize;
+
+    private JwtTokenUtil jwtTokenUtil;
+
+    private UserDetails user;
+
+    private Map<String, Object> extraClaims;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JwtProperties properties = AuthBenchmarkSupport.jwtProperties(claimsCacheMaxSize, false);
+        jwtTokenUtil = AuthBenchmarkSupport.jwtTokenUtil(properties, AuthBenchmarkSupport.authMetrics());
+        user = AuthBenchmarkSupport.user(roleCount);
+        extraClaims = AuthBenchmarkSupport.extraClaims(claimCount, claimLength);
+        token = jwtTokenUtil.generateToken(user, extraClaims);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenUtil.generateToken(user, extraClaims);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenUtil.validateToken(token, user);
+    }
+}
@@ -0,0 +1,77 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.sunboat.adminWeb.business.benchmark.BulkBenchmarkSupport;
+import com.sunboat.adminWeb.business.entity.UserActionLogs;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 三种内置插入方式写入一批 user_action_logs 的耗时对比（单线程，内嵌H2）
+ * 每秒行数 = batchSize / 单批耗时；并发、行宽等多维度对比见批量插入基准测试套件
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertStrategyBenchmark {
+
+    @Param({BulkBenchmarkSupport.STRATEGY_JDBC_BATCH,
+            BulkBenchmarkSupport.STRATEGY_MULTI_ROW_VALUES,
+            BulkBenchmarkSupport.STRATEGY_INSERT_BATCH_SOME_COLUMN})
+    private String strategy;
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private HikariDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private InsertStrategy<UserActionLogs> insertStrategy;
+
+    private List<UserActionLogs> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = BulkBenchmarkSupport.dataSource(4);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        BulkBenchmarkSupport.createTable(jdbcTemplate);
+        insertStrategy = BulkBenchmarkSupport.strategy(strategy,
+                BulkBenchmarkSupport.sqlSessionFactory(dataSource), jdbcTemplate);
+        batch = BulkBenchmarkSupport.rows(batchSize, 64);
+    }
+
+    // 每轮清空表，避免表越来越大影响后面的测量
+    @Setup(Level.Iteration)
+    public void truncate() {
+        BulkBenchmarkSupport.truncate(jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int insertBatch() throws Exception {
+        return insertStrategy.write(batch);
+    }
+}
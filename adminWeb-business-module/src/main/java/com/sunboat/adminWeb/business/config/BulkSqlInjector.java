@@ -0,0 +1,23 @@
+package com.sunboat.adminWeb.business.config;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.injector.DefaultSqlInjector;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.extension.injector.methods.InsertBatchSomeColumn;
+
+import java.util.List;
+
+/**
+ * 在MyBatis-Plus默认方法之外注入 insertBatchSomeColumn（见 BulkInsertMapper）
+ */
+public class BulkSqlInjector extends DefaultSqlInjector {
+
+    @Override
+    public List<AbstractMethod> getMethodList(Class<?> mapperClass, TableInfo tableInfo) {
+        List<AbstractMethod> methodList = super.getMethodList(mapperClass, tableInfo);
+        // 只在更新时填充的字段不参与插入
+        methodList.add(new InsertBatchSomeColumn(field -> field.getFieldFill() != FieldFill.UPDATE));
+        return methodList;
+    }
+}
@@ -0,0 +1,27 @@
+package com.sunboat.adminWeb.business.config;
+
+import com.sunboat.adminWeb.business.utils.bulk.BulkWriteExecutor;
+import com.sunboat.adminWeb.business.utils.bulk.ConnectionPoolStats;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class BulkWriteConfig {
+
+    // 全应用共用的批量写入线程池，各导入通过 openLease 按公平份额使用
+    @Bean(destroyMethod = "shutdown")
+    public BulkWriteExecutor bulkWriteExecutor(DataSource dataSource, BulkWriteProperties properties,
+                                               MeterRegistry meterRegistry) throws SQLException {
+        ConnectionPoolStats poolStats = dataSource.isWrapperFor(HikariDataSource.class)
+                ? ConnectionPoolStats.hikari(dataSource.unwrap(HikariDataSource.class))
+                : ConnectionPoolStats.fixed(properties.getFallbackPoolSize());
+        BulkWriteExecutor executor = new BulkWriteExecutor(poolStats, properties.getReservedConnections(),
+                properties.getMaxPoolFraction(), properties.getMaxThreads(), properties.getRefreshMillis());
+        return executor.bindTo(meterRegistry);
+    }
+}
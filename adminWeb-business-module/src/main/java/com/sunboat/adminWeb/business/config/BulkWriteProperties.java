@@ -0,0 +1,63 @@
+package com.sunboat.adminWeb.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 批量写入共享线程池配置：导入并发度按连接池实时状态计算，始终为普通请求保留连接
+ */
+@Component
+@ConfigurationProperties(prefix = "bulk.write")
+public class BulkWriteProperties {
+    // 为普通请求保留的连接数，导入不会占用
+    private int reservedConnections = 2;
+    // 导入最多占用连接池的比例
+    private double maxPoolFraction = 0.5;
+    // 线程池最大线程数，0表示取连接池最大连接数
+    private int maxThreads = 0;
+    // 重新读取连接池状态的间隔（单位：毫秒）
+    private long refreshMillis = 200;
+    // 数据源不是Hikari、无法读取连接池状态时假定的连接池大小
+    private int fallbackPoolSize = 10;
+
+    // Getter和Setter
+    public int getReservedConnections() {
+        return reservedConnections;
+    }
+
+    public void setReservedConnections(int reservedConnections) {
+        this.reservedConnections = reservedConnections;
+    }
+
+    public double getMaxPoolFraction() {
+        return maxPoolFraction;
+    }
+
+    public void setMaxPoolFraction(double maxPoolFraction) {
+        this.maxPoolFraction = maxPoolFraction;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    public long getRefreshMillis() {
+        return refreshMillis;
+    }
+
+    public void setRefreshMillis(long refreshMillis) {
+        this.refreshMillis = refreshMillis;
+    }
+
+    public int getFallbackPoolSize() {
+        return fallbackPoolSize;
+    }
+
+    public void setFallbackPoolSize(int fallbackPoolSize) {
+        this.fallbackPoolSize = fallbackPoolSize;
+    }
+}
@@ -1,18 +1,38 @@
 package com.sunboat.adminWeb.business.config;
 
+import com.alibaba.nacos.api.config.ConfigType;
+import com.alibaba.nacos.api.config.annotation.NacosConfigurationProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * JWT配置属性，通过application.yml注入
+ * 同时绑定Nacos配置并开启自动刷新，密钥轮换后由JwtTokenUtil重建密钥环，无需重启
  */
 @Component
 @ConfigurationProperties(prefix = "jwt")
+@NacosConfigurationProperties(prefix = "jwt", dataId = "${nacos.config.data-id}",
+        groupId = "${nacos.config.group}", type = ConfigType.YAML, autoRefreshed = true)
 public class JwtProperties {
-    // 签名密钥（生产环境需使用更复杂的密钥）
-    private String secret = "dev-secret-key-123456";
+    // 签名密钥（生产环境需使用更复杂的密钥，HS256要求至少32字节），对应密钥ID "default"
+    private String secret = "dev-secret-key-123456-change-me-in-prod";
+    // 额外的签名密钥（kid -> 密钥），轮换期间新旧密钥同时保留用于验签
+    private Map<String, String> keys = new LinkedHashMap<>();
+    // 当前用于签发令牌的密钥ID
+    private String activeKid = "default";
     // 令牌过期时间（单位：秒）
     private long expiration = 3600; // 默认1小时
+    // 刷新令牌过期时间（单位：秒）
+    private long refreshExpiration = 7 * 24 * 3600; // 默认7天
+    // 已验签声明缓存的最大条目数（<=0 表示关闭缓存）
+    private long claimsCacheMaxSize = 10000;
+    // 是否直接根据令牌声明构建认证信息（不再每个请求加载用户）
+    private boolean claimsPrincipalEnabled = false;
+    // 用户安全版本号本地缓存时间（单位：秒），决定其他节点感知用户变更的最大延迟
+    private long securityVersionCacheSeconds = 30;
 
     // Getter和Setter
     public String getSecret() {
@@ -23,6 +43,22 @@ public class JwtProperties {
         this.secret = secret;
     }
 
+    public Map<String, String> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(Map<String, String> keys) {
+        this.keys = keys;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public void setActiveKid(String activeKid) {
+        this.activeKid = activeKid;
+    }
+
     public long getExpiration() {
         return expiration;
     }
@@ -30,5 +66,37 @@ public class JwtProperties {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    public void setRefreshExpiration(long refreshExpiration) {
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    public long getClaimsCacheMaxSize() {
+        return claimsCacheMaxSize;
+    }
+
+    public void setClaimsCacheMaxSize(long claimsCacheMaxSize) {
+        this.claimsCacheMaxSize = claimsCacheMaxSize;
+    }
+
+    public boolean isClaimsPrincipalEnabled() {
+        return claimsPrincipalEnabled;
+    }
+
+    public void setClaimsPrincipalEnabled(boolean claimsPrincipalEnabled) {
+        this.claimsPrincipalEnabled = claimsPrincipalEnabled;
+    }
+
+    public long getSecurityVersionCacheSeconds() {
+        return securityVersionCacheSeconds;
+    }
+
+    public void setSecurityVersionCacheSeconds(long securityVersionCacheSeconds) {
+        this.securityVersionCacheSeconds = securityVersionCacheSeconds;
+    }
 }
     
\ No newline at end of file
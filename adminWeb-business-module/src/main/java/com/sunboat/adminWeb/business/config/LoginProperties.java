@@ -0,0 +1,54 @@
+package com.sunboat.adminWeb.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 登录配置：密码哈希线程池与BCrypt强度
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.login")
+public class LoginProperties {
+    // 密码哈希线程数（<=0 时使用CPU核心数）
+    private int hashThreads = 0;
+    // 等待哈希的登录请求队列长度，队列满时直接返回429
+    private int queueCapacity = 64;
+    // BCrypt强度（log2轮数），调整后旧密码在下次登录成功时自动重新哈希
+    private int bcryptStrength = 10;
+    // 启动时给没有 {id} 前缀的旧密码补上 {bcrypt} / {noop} 前缀
+    // 一次性数据迁移，默认关闭：只在一个节点上开启并启动一次，完成后关闭
+    private boolean migrateLegacyPasswords = false;
+
+    // Getter和Setter
+    public int getHashThreads() {
+        return hashThreads;
+    }
+
+    public void setHashThreads(int hashThreads) {
+        this.hashThreads = hashThreads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public boolean isMigrateLegacyPasswords() {
+        return migrateLegacyPasswords;
+    }
+
+    public void setMigrateLegacyPasswords(boolean migrateLegacyPasswords) {
+        this.migrateLegacyPasswords = migrateLegacyPasswords;
+    }
+}
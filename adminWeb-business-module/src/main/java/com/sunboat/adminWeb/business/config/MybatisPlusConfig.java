@@ -0,0 +1,15 @@
+package com.sunboat.adminWeb.business.config;
+
+import com.baomidou.mybatisplus.core.injector.ISqlInjector;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MybatisPlusConfig {
+
+    // 自定义SQL注入器：MybatisPlusAutoConfiguration 检测到该Bean后替换默认注入器
+    @Bean
+    public ISqlInjector sqlInjector() {
+        return new BulkSqlInjector();
+    }
+}
@@ -0,0 +1,43 @@
+package com.sunboat.adminWeb.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 令牌吊销配置：Redis吊销列表 + 本地布隆过滤器
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.revocation")
+public class TokenRevocationProperties {
+    // 本地布隆过滤器全量重建间隔（单位：秒），实时吊销通过Redis广播同步
+    private long refreshIntervalSeconds = 60;
+    // 布隆过滤器预计容纳的吊销令牌数
+    private long expectedInsertions = 100000;
+    // 布隆过滤器误判率，误判时才会访问Redis
+    private double falsePositiveRate = 0.001;
+
+    // Getter和Setter
+    public long getRefreshIntervalSeconds() {
+        return refreshIntervalSeconds;
+    }
+
+    public void setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+        this.refreshIntervalSeconds = refreshIntervalSeconds;
+    }
+
+    public long getExpectedInsertions() {
+        return expectedInsertions;
+    }
+
+    public void setExpectedInsertions(long expectedInsertions) {
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sunboat.adminWeb.business.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户信息缓存配置：本地一级缓存 + Redis二级缓存
+ */
+@Component
+@ConfigurationProperties(prefix = "auth.user-cache")
+public class UserCacheProperties {
+    // 本地缓存最大用户数
+    private long localMaxSize = 10000;
+    // 本地缓存过期时间（单位：秒），跨节点失效依赖Redis广播，这里只是兜底
+    private long localTtlSeconds = 300;
+    // Redis缓存过期时间（单位：秒）
+    private long redisTtlSeconds = 1800;
+
+    // Getter和Setter
+    public long getLocalMaxSize() {
+        return localMaxSize;
+    }
+
+    public void setLocalMaxSize(long localMaxSize) {
+        this.localMaxSize = localMaxSize;
+    }
+
+    public long getLocalTtlSeconds() {
+        return localTtlSeconds;
+    }
+
+    public void setLocalTtlSeconds(long localTtlSeconds) {
+        this.localTtlSeconds = localTtlSeconds;
+    }
+
+    public long getRedisTtlSeconds() {
+        return redisTtlSeconds;
+    }
+
+    public void setRedisTtlSeconds(long redisTtlSeconds) {
+        this.redisTtlSeconds = redisTtlSeconds;
+    }
+}
@@ -1,20 +1,34 @@
 package com.sunboat.adminWeb.business.controller;
 
+import com.sunboat.adminWeb.business.security.CustomUserDetailsService;
+import com.sunboat.adminWeb.business.security.PasswordHashingExecutor;
+import com.sunboat.adminWeb.business.security.RefreshTokenService;
+import com.sunboat.adminWeb.business.security.TokenRevocationService;
+import com.sunboat.adminWeb.business.security.UserSecurityVersionService;
 import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
 import com.sunboat.common.core.result.RtnResult;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 认证控制器：处理登录请求
@@ -29,6 +43,21 @@ public class AuthController {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
 
+    @Autowired
+    private UserSecurityVersionService securityVersionService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     // 登录请求参数
     static class LoginRequest {
         private String username;
@@ -41,28 +70,51 @@ public class AuthController {
         public void setPassword(String password) { this.password = password; }
     }
 
+    // 刷新令牌请求参数
+    static class RefreshRequest {
+        private String refreshToken;
+
+        // Getter和Setter
+        public String getRefreshToken() { return refreshToken; }
+        public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+    }
+
     // 登录响应
     static class LoginResponse {
         private String token;
         private String type = "Bearer";
+        private String refreshToken;
         private String username;
 
-        public LoginResponse(String token, String username) {
+        public LoginResponse(String token, String refreshToken, String username) {
             this.token = token;
+            this.refreshToken = refreshToken;
             this.username = username;
         }
 
         // Getter
         public String getToken() { return token; }
         public String getType() { return type; }
+        public String getRefreshToken() { return refreshToken; }
         public String getUsername() { return username; }
     }
 
     /**
      * 登录接口：验证用户名密码，生成JWT令牌
+     * 密码校验在哈希专用线程池中异步执行，不占用请求线程；哈希队列已满时直接返回429
      */
     @PostMapping("/login")
-    public LoginResponse login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@RequestBody LoginRequest loginRequest) {
+        try {
+            return passwordHashingExecutor.submit(() -> ResponseEntity.ok(authenticate(loginRequest)));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build());
+        }
+    }
+
+    private LoginResponse authenticate(LoginRequest loginRequest) {
         // 1. 验证用户名密码
         Authentication authentication = authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(
@@ -71,12 +123,57 @@ public class AuthController {
             )
         );
 
-        // 2. 生成JWT令牌
+        // 2. 生成并返回令牌
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String jwtToken = jwtTokenUtil.generateToken(userDetails);
+        return issueTokens(userDetails);
+    }
+
+    /**
+     * 刷新接口：用刷新令牌换取新的JWT令牌和刷新令牌，不校验密码
+     * 刷新令牌一次有效，使用后立即作废
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@RequestBody RefreshRequest refreshRequest) {
+        String username = refreshTokenService.consume(refreshRequest.getRefreshToken());
+        if (username == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // 用户信息走本地缓存，角色变更后新令牌携带最新角色
+        UserDetails userDetails;
+        try {
+            userDetails = userDetailsService.loadCachedUser(username);
+        } catch (UsernameNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(issueTokens(userDetails));
+    }
+
+    /**
+     * 注销接口：吊销当前请求携带的JWT令牌，同时作废请求体中的刷新令牌（可选）
+     */
+    @PostMapping("/logout")
+    public RtnResult<Void> logout(@RequestHeader("Authorization") String header,
+                                  @RequestBody(required = false) RefreshRequest refreshRequest) {
+        // 请求已通过JWT过滤器认证，这里的解析会命中声明缓存
+        Claims claims = jwtTokenUtil.getAllClaimsFromToken(header.substring(7));
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        if (refreshRequest != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
+        return RtnResult.success();
+    }
 
-        // 3. 返回令牌
-        return new LoginResponse(jwtToken, userDetails.getUsername());
+    // 签发JWT令牌（写入用户当前的安全版本号）和新的刷新令牌
+    private LoginResponse issueTokens(UserDetails userDetails) {
+        long securityVersion = securityVersionService.currentVersion(userDetails.getUsername());
+        String jwtToken = jwtTokenUtil.generateToken(userDetails,
+                Collections.singletonMap(JwtTokenUtil.CLAIM_SECURITY_VERSION, securityVersion));
+        String refreshToken = refreshTokenService.issue(userDetails.getUsername(), securityVersion);
+        return new LoginResponse(jwtToken, refreshToken, userDetails.getUsername());
     }
 
 //    @PostMapping("/register")
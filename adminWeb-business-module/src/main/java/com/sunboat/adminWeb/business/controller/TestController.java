@@ -98,5 +98,12 @@ public class TestController {
         return "这是ADMIN角色可访问的接口";
     }
 
+    // 拥有 system:admin 权限的角色可访问（权限位图判断，见 BitsetPermissionEvaluator）
+    @GetMapping("/permission")
+    @PreAuthorize("hasPermission(null, 'system:admin')")
+    public String permissionApi() {
+        return "这是拥有system:admin权限可访问的接口";
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.sunboat.adminWeb.business.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 用户操作日志表
+ * </p>
+ *
+ * @author Sunboat
+ * @since 2025-04-10
+ */
+@Getter
+@Setter
+@TableName("user_action_logs")
+public class UserActionLogs implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 日志唯一标识，自增主键
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 操作用户ID
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 操作类型
+     */
+    @TableField("action")
+    private String action;
+
+    /**
+     * 操作详情
+     */
+    @TableField("detail")
+    private String detail;
+
+    /**
+     * 操作IP
+     */
+    @TableField("ip_address")
+    private String ipAddress;
+
+    /**
+     * 操作时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,63 @@
+package com.sunboat.adminWeb.business.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * <p>
+ * 用户表，保存后台用户的登录信息
+ * </p>
+ *
+ * @author Sunboat
+ * @since 2025-04-10
+ */
+@Getter
+@Setter
+@TableName("users")
+public class Users implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户唯一标识，自增主键
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 登录用户名
+     */
+    @TableField("username")
+    private String username;
+
+    /**
+     * 密码（编码后的值，如 {bcrypt}...）
+     */
+    @TableField("password")
+    private String password;
+
+    /**
+     * 状态：1 正常，0 禁用
+     */
+    @TableField("status")
+    private Integer status;
+
+    /**
+     * 创建时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.sunboat.adminWeb.business.maper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 支持批量插入的通用 Mapper，insertBatchSomeColumn 由 BulkSqlInjector 注入
+ * 生成单条 INSERT ... VALUES (...),(...) 语句（仅 MySQL 等支持多行VALUES的数据库可用）
+ * </p>
+ */
+public interface BulkInsertMapper<T> extends BaseMapper<T> {
+
+    /**
+     * 批量插入（不包含只在更新时填充的字段）
+     * @param entityList 实体列表，调用方需控制单次条数，避免超过 max_allowed_packet
+     * @return 插入行数
+     */
+    int insertBatchSomeColumn(List<T> entityList);
+}
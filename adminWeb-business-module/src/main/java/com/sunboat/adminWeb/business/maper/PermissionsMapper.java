@@ -0,0 +1,30 @@
+package com.sunboat.adminWeb.business.maper;
+
+import com.sunboat.adminWeb.business.security.RolePermission;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 权限表 Mapper 接口（只读，供权限位图加载使用）
+ * </p>
+ */
+@Mapper
+public interface PermissionsMapper {
+
+    /**
+     * 查询全部权限名称，按主键排序（顺序即位图中的位序号）
+     */
+    @Select("SELECT permission_name FROM permissions ORDER BY id")
+    List<String> selectPermissionNames();
+
+    /**
+     * 查询全部角色拥有的权限
+     */
+    @Select("SELECT r.role_name AS roleName, p.permission_name AS permissionName FROM roles r "
+            + "JOIN role_permissions rp ON rp.role_id = r.id "
+            + "JOIN permissions p ON p.id = rp.permission_id")
+    List<RolePermission> selectRolePermissions();
+}
@@ -0,0 +1,17 @@
+package com.sunboat.adminWeb.business.maper;
+
+import com.sunboat.adminWeb.business.entity.UserActionLogs;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * <p>
+ * 用户操作日志表 Mapper 接口
+ * </p>
+ *
+ * @author Sunboat
+ * @since 2025-04-10
+ */
+@Mapper
+public interface UserActionLogsMapper extends BulkInsertMapper<UserActionLogs> {
+
+}
@@ -0,0 +1,40 @@
+package com.sunboat.adminWeb.business.maper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.sunboat.adminWeb.business.entity.Users;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * <p>
+ * 用户表 Mapper 接口
+ * </p>
+ *
+ * @author Sunboat
+ * @since 2025-04-10
+ */
+@Mapper
+public interface UsersMapper extends BaseMapper<Users> {
+
+    /**
+     * 查询用户拥有的角色名称
+     */
+    @Select("SELECT r.role_name FROM roles r JOIN user_roles ur ON ur.role_id = r.id WHERE ur.user_id = #{userId}")
+    List<String> selectRoleNamesByUserId(@Param("userId") Long userId);
+
+    /**
+     * 给没有编码前缀的旧密码补上前缀：完整BCrypt格式的哈希补 {bcrypt}，其余视为明文补 {noop}
+     * 只跳过已是 {bcrypt} / {noop} 开头的行，可重复执行；形如 {x}... 的明文也会补上 {noop}
+     * （明文本身以 {bcrypt} / {noop} 开头的无法与已迁移的数据区分，不做处理）
+     * 正则只用方括号，不依赖反斜杠转义，MySQL与H2结果一致
+     * @return 更新的行数
+     */
+    @Update("UPDATE users SET password = CONCAT(CASE WHEN password REGEXP '^[$]2[aby]?[$][0-9]{2}[$][./0-9A-Za-z]{53}$' "
+            + "THEN '{bcrypt}' ELSE '{noop}' END, password) "
+            + "WHERE password IS NOT NULL AND password NOT LIKE '{bcrypt}%' AND password NOT LIKE '{noop}%'")
+    int prefixLegacyPasswords();
+}
@@ -0,0 +1,124 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证链路指标：JWT过滤器各阶段耗时、解析失败原因、缓存命中率
+ * 通过 /actuator/metrics/auth.filter.stage?tag=stage:xxx 查看
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String STAGE_TIMER = "auth.filter.stage";
+    public static final String PARSE_FAILURE_COUNTER = "auth.jwt.parse.failures";
+
+    private final MeterRegistry registry;
+
+    // 读取声明（含缓存查找）
+    private final Timer claimsTimer;
+    // 缓存未命中时的解析与验签
+    private final Timer verifyTimer;
+    private final Timer revocationTimer;
+    private final Timer securityVersionTimer;
+    private final Timer userLoadTimer;
+    private final Timer detailsTimer;
+
+    private final Counter expiredFailures;
+    private final Counter signatureFailures;
+    private final Counter malformedFailures;
+    private final Counter unsupportedFailures;
+    private final Counter emptyFailures;
+    private final Counter otherFailures;
+
+    public AuthMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.claimsTimer = stageTimer("claims");
+        this.verifyTimer = stageTimer("verify");
+        this.revocationTimer = stageTimer("revocation");
+        this.securityVersionTimer = stageTimer("security_version");
+        this.userLoadTimer = stageTimer("user_load");
+        this.detailsTimer = stageTimer("details");
+        this.expiredFailures = failureCounter("expired");
+        this.signatureFailures = failureCounter("signature");
+        this.malformedFailures = failureCounter("malformed");
+        this.unsupportedFailures = failureCounter("unsupported");
+        this.emptyFailures = failureCounter("empty");
+        this.otherFailures = failureCounter("other");
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("JWT认证过滤器各阶段耗时")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private Counter failureCounter(String cause) {
+        return Counter.builder(PARSE_FAILURE_COUNTER)
+                .description("JWT令牌解析失败次数")
+                .tag("cause", cause)
+                .register(registry);
+    }
+
+    public void recordClaims(long nanos) {
+        claimsTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordVerify(long nanos) {
+        verifyTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRevocation(long nanos) {
+        revocationTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSecurityVersion(long nanos) {
+        securityVersionTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUserLoad(long nanos) {
+        userLoadTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDetails(long nanos) {
+        detailsTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 按异常类型统计解析失败原因
+     */
+    public void recordParseFailure(Exception e) {
+        if (e instanceof ExpiredJwtException) {
+            expiredFailures.increment();
+        } else if (e instanceof SecurityException) {
+            signatureFailures.increment();
+        } else if (e instanceof MalformedJwtException) {
+            malformedFailures.increment();
+        } else if (e instanceof UnsupportedJwtException) {
+            unsupportedFailures.increment();
+        } else if (e instanceof IllegalArgumentException) {
+            emptyFailures.increment();
+        } else {
+            otherFailures.increment();
+        }
+    }
+
+    /**
+     * 注册Caffeine缓存的命中率、大小、驱逐等指标（缓存需开启recordStats）
+     */
+    public void monitorCache(Cache<?, ?> cache, String cacheName) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+}
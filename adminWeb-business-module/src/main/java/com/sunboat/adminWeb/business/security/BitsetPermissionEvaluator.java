@@ -0,0 +1,47 @@
+package com.sunboat.adminWeb.business.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+
+/**
+ * 基于角色权限位图的PermissionEvaluator
+ * 容器中只有一个PermissionEvaluator时，@EnableGlobalMethodSecurity 的表达式处理器会自动使用它：
+ * 接口上写 @PreAuthorize("hasPermission(null, 'user:delete')") 即可，权限码为 permissions.permission_name。
+ * 权限码不区分资源类型，targetDomainObject / targetId / targetType 均被忽略。
+ * 主体为RolePrincipal（JWT过滤器构建的用户）时直接使用其角色组合key，不再每次拼接。
+ */
+@Component
+public class BitsetPermissionEvaluator implements PermissionEvaluator {
+
+    @Autowired
+    private PermissionBitsetRegistry permissionBitsetRegistry;
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return check(authentication, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType,
+                                 Object permission) {
+        return check(authentication, permission);
+    }
+
+    private boolean check(Authentication authentication, Object permission) {
+        if (authentication == null || !authentication.isAuthenticated() || permission == null) {
+            return false;
+        }
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof RolePrincipal) {
+            // 角色组合key在构建用户时已算好，与用户自身的角色一一对应
+            RolePrincipal rolePrincipal = (RolePrincipal) principal;
+            return permissionBitsetRegistry.hasPermission(rolePrincipal.getRoleSetKey(),
+                    rolePrincipal.getAuthorities(), permission.toString());
+        }
+        return permissionBitsetRegistry.hasPermission(authentication.getAuthorities(), permission.toString());
+    }
+}
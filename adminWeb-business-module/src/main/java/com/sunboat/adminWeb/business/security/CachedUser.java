@@ -0,0 +1,53 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 缓存中的用户信息（本地缓存和Redis共用，Redis中以JSON保存）
+ * 不包含密码哈希：Redis是多个服务共用的，密码哈希只在登录时从数据库读取
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true) // 兼容旧版本写入的带password字段的条目
+public class CachedUser implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+    private String username;
+    private boolean enabled;
+    // 权限字符串，如 ROLE_ADMIN
+    private List<String> authorities;
+
+    // 角色组合key，首次使用时由authorities计算，之后随本地缓存条目复用（不写入Redis）
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile String roleSetKey;
+
+    public void setAuthorities(List<String> authorities) {
+        this.authorities = authorities;
+        this.roleSetKey = null;
+    }
+
+    @JsonIgnore
+    public String getRoleSetKey() {
+        String key = roleSetKey;
+        if (key == null) {
+            key = RolePrincipal.roleSetKeyOf(authorities);
+            roleSetKey = key;
+        }
+        return key;
+    }
+}
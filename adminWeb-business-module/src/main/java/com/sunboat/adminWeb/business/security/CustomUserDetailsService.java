@@ -1,41 +1,208 @@
 package com.sunboat.adminWeb.business.security;
 
-import org.springframework.security.core.userdetails.User;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.sunboat.adminWeb.business.config.UserCacheProperties;
+import com.sunboat.adminWeb.business.entity.Users;
+import com.sunboat.adminWeb.business.maper.UsersMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * 自定义用户服务：从数据源加载用户信息（示例用内存用户，实际项目替换为数据库查询）
+ * 自定义用户服务：从数据库加载用户信息
+ * 查询顺序为 本地缓存(L1) -> Redis(L2) -> MySQL；用户或角色变更时通过Redis发布订阅通知所有节点清除本地缓存
+ * 缓存中不保存密码哈希：loadUserByUsername（登录认证）每次从数据库读取密码，其余场景用 loadCachedUser
+ * 同时实现UserDetailsPasswordService：密码哈希算法或强度变更后，登录成功时自动回写新的哈希
+ * 修改用户角色（user_roles）的代码须在提交后调用 onUserRolesChanged，否则已签发的令牌仍按旧角色生效
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
+    // 用户缓存失效广播频道，消息内容为用户名
+    public static final String USER_INVALIDATE_CHANNEL = "auth:user:invalidate";
+
+    private static final String CACHE_KEY_PREFIX = "auth:user:";
+
+    private static final int STATUS_ENABLED = 1;
+
+    @Autowired
+    private UsersMapper usersMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private UserSecurityVersionService securityVersionService;
+
+    @Autowired
+    private UserCacheProperties cacheProperties;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 一级缓存：用户名 -> 用户信息（用户不存在时不缓存）
+    private LoadingCache<String, CachedUser> localCache;
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getLocalMaxSize())
+                .expireAfterWrite(cacheProperties.getLocalTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build(this::loadFromRedisOrDatabase);
+        authMetrics.monitorCache(localCache, "auth.users");
+        listenerContainer.addMessageListener(this::onInvalidateMessage, new ChannelTopic(USER_INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 登录认证使用：缓存的用户信息加上从数据库读取的密码哈希
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // 实际项目中应从数据库查询用户信息
-        if ("user".equals(username)) {
-            // 用户"user"拥有USER角色
-            UserDetails user = User.builder()
-                    .username("user")
-                    .password("{noop}password") // {noop}表示不加密（测试用，生产环境需用BCrypt）
-                    .authorities(Collections.singletonList(() -> "ROLE_USER"))
-                    .build();
-            return user;
-        } else if ("admin".equals(username)) {
-            // 用户"admin"拥有ADMIN角色
-            UserDetails admin = User.builder()
-                    .username("admin")
-                    .password("{noop}admin")
-                    .authorities(Collections.singletonList(() -> "ROLE_ADMIN"))
-                    .build();
-            return admin;
-        } else {
+        CachedUser cachedUser = getCachedUser(username);
+        Users users = usersMapper.selectOne(new LambdaQueryWrapper<Users>()
+                .select(Users::getPassword)
+                .eq(Users::getUsername, username));
+        if (users == null) {
             throw new UsernameNotFoundException("用户不存在: " + username);
         }
+        return toUserDetails(cachedUser, users.getPassword());
+    }
+
+    /**
+     * 不需要校验密码的场景（JWT过滤器、刷新令牌）使用：只读缓存，返回的UserDetails密码为空
+     */
+    public UserDetails loadCachedUser(String username) throws UsernameNotFoundException {
+        return toUserDetails(getCachedUser(username), "");
+    }
+
+    private CachedUser getCachedUser(String username) {
+        CachedUser cachedUser = localCache.get(username);
+        if (cachedUser == null) {
+            throw new UsernameNotFoundException("用户不存在: " + username);
+        }
+        return cachedUser;
+    }
+
+    // 每次返回新的UserDetails：认证成功后Spring Security会擦除其中的密码，不能复用缓存中的对象
+    // 角色组合key取自缓存条目，只在条目加载后计算一次
+    private static UserDetails toUserDetails(CachedUser cachedUser, String password) {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>(cachedUser.getAuthorities().size());
+        for (String authority : cachedUser.getAuthorities()) {
+            authorities.add(new SimpleGrantedAuthority(authority));
+        }
+        return new RolePrincipal(cachedUser.getUsername(), password, cachedUser.isEnabled(), authorities,
+                cachedUser.getRoleSetKey());
+    }
+
+    /**
+     * 登录成功且密码哈希需要升级时由DaoAuthenticationProvider调用
+     * 返回值会作为认证主体，因此仍返回带角色组合key的RolePrincipal
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usersMapper.update(null, new LambdaUpdateWrapper<Users>()
+                .set(Users::getPassword, newPassword)
+                .eq(Users::getUsername, user.getUsername()));
+        evictUser(user.getUsername());
+        String roleSetKey = user instanceof RolePrincipal
+                ? ((RolePrincipal) user).getRoleSetKey()
+                : RolePrincipal.roleSetKey(user.getAuthorities());
+        return new RolePrincipal(user.getUsername(), newPassword, user.isEnabled(), user.getAuthorities(), roleSetKey);
+    }
+
+    /**
+     * 用户信息变更（如修改密码、禁用）后调用：清除各级缓存并通知其他节点
+     */
+    public void evictUser(String username) {
+        try {
+            redisTemplate.delete(CACHE_KEY_PREFIX + username);
+            redisTemplate.convertAndSend(USER_INVALIDATE_CHANNEL, username);
+        } finally {
+            localCache.invalidate(username);
+        }
+    }
+
+    /**
+     * 用户角色变更后调用：除清除缓存外，递增安全版本号使已签发的令牌失效
+     * 本模块中没有修改用户角色的代码，角色由其他服务或管理后台维护；修改 user_roles 的一方须在事务提交后调用本方法
+     * （只向 USER_INVALIDATE_CHANNEL 发布用户名只会清除缓存，不会使令牌失效）
+     */
+    public void onUserRolesChanged(String username) {
+        securityVersionService.bumpVersion(username);
+        evictUser(username);
+    }
+
+    // 收到其他节点（包括本节点）的失效广播
+    private void onInvalidateMessage(Message message, byte[] pattern) {
+        Object username = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (username != null) {
+            localCache.invalidate(username.toString());
+            securityVersionService.evictLocal(username.toString());
+        }
+    }
+
+    private CachedUser loadFromRedisOrDatabase(String username) {
+        String cacheKey = CACHE_KEY_PREFIX + username;
+        try {
+            Object cached = redisTemplate.opsForValue().get(cacheKey);
+            if (cached instanceof CachedUser) {
+                return (CachedUser) cached;
+            }
+        } catch (Exception e) {
+            // Redis不可用时直接查库，不影响登录
+            log.warn("读取Redis用户缓存失败: {}", e.getMessage());
+        }
+
+        CachedUser user = loadFromDatabase(username);
+        if (user != null) {
+            try {
+                redisTemplate.opsForValue().set(cacheKey, user, cacheProperties.getRedisTtlSeconds(), TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("写入Redis用户缓存失败: {}", e.getMessage());
+            }
+        }
+        return user;
+    }
+
+    private CachedUser loadFromDatabase(String username) {
+        Users users = usersMapper.selectOne(new LambdaQueryWrapper<Users>().eq(Users::getUsername, username));
+        if (users == null) {
+            return null;
+        }
+        List<String> authorities = new ArrayList<>();
+        for (String roleName : usersMapper.selectRoleNamesByUserId(users.getId())) {
+            authorities.add(roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName);
+        }
+
+        CachedUser user = new CachedUser();
+        user.setId(users.getId());
+        user.setUsername(users.getUsername());
+        user.setEnabled(users.getStatus() == null || users.getStatus() == STATUS_ENABLED);
+        user.setAuthorities(authorities);
+        return user;
     }
 }
-    
\ No newline at end of file
@@ -1,16 +1,18 @@
 package com.sunboat.adminWeb.business.security;
 
-
+import com.github.benmanes.caffeine.cache.Cache;
+import com.sunboat.adminWeb.business.config.JwtProperties;
 import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -19,6 +21,7 @@ import java.io.IOException;
 
 /**
  * JWT认证过滤器：拦截请求，验证JWT令牌并设置认证信息
+ * 开启 jwt.claims-principal-enabled 后直接根据令牌中的角色构建认证信息，不再每个请求加载用户
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,44 +30,131 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserSecurityVersionService securityVersionService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 无状态，所有请求共用
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
+
+    /**
+     * 把JwtTokenUtil的验签耗时和声明缓存接入认证指标
+     */
+    @PostConstruct
+    public void bindJwtMetrics() {
+        jwtTokenUtil.setVerifyListener(authMetrics::recordVerify);
+        Cache<String, ?> claimsCache = jwtTokenUtil.getClaimsCache();
+        if (claimsCache != null) {
+            authMetrics.monitorCache(claimsCache, "jwt.claims");
+        }
+    }
 
     @Override
-    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         // 1. 从请求头中获取令牌（格式：Bearer <token>）
         String header = request.getHeader("Authorization");
         String username = null;
         String jwtToken = null;
+        Claims claims = null;
 
         if (header != null && header.startsWith("Bearer ")) {
             jwtToken = header.substring(7); // 截取"Bearer "后面的令牌
+            long start = System.nanoTime();
             try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken); // 解析用户名
+                claims = jwtTokenUtil.getAllClaimsFromToken(jwtToken); // 解析并验签（命中缓存时不再验签）
+                username = claims.getSubject();
             } catch (Exception e) {
                 // 令牌解析失败（如无效、过期），不设置认证信息
+                authMetrics.recordParseFailure(e);
                 logger.error("JWT令牌解析失败: " + e.getMessage());
+            } finally {
+                authMetrics.recordClaims(System.nanoTime() - start);
             }
         }
 
         // 2. 验证令牌并设置认证信息
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            // 验证令牌有效性
-            if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
-                // 创建认证令牌并设置到上下文
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (isRevoked(claims)) {
+                // 令牌已注销或被强制吊销（本地布隆过滤器未命中时不访问Redis）
+                logger.warn("JWT令牌已被吊销: " + username);
+            } else {
+                Boolean versionCurrent = isSecurityVersionCurrent(username, claims);
+                if (versionCurrent == null) {
+                    // 无法确认安全版本时不放行（失败即拒绝），返回503让客户端稍后重试，不必丢弃令牌重新登录
+                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    response.setHeader("Retry-After", "1");
+                    return;
+                }
+                if (!versionCurrent) {
+                    // 用户已被吊销或角色已变更，令牌作废
+                    logger.warn("JWT令牌安全版本已失效: " + username);
+                } else if (jwtProperties.isClaimsPrincipalEnabled()) {
+                    // 根据令牌声明构建用户，不访问用户数据源
+                    if (!jwtTokenUtil.isTokenExpired(claims)) {
+                        UserDetails principal = new RolePrincipal(username, jwtTokenUtil.getAuthoritiesFromClaims(claims));
+                        setAuthentication(request, principal);
+                    }
+                } else {
+                    long start = System.nanoTime();
+                    UserDetails userDetails = this.userDetailsService.loadCachedUser(username);
+                    authMetrics.recordUserLoad(System.nanoTime() - start);
+
+                    // 验证令牌有效性
+                    if (jwtTokenUtil.validateToken(jwtToken, userDetails)) {
+                        setAuthentication(request, userDetails);
+                    }
+                }
             }
         }
 
         // 3. 继续执行过滤器链
         filterChain.doFilter(request, response);
     }
+
+    private boolean isRevoked(Claims claims) {
+        long start = System.nanoTime();
+        try {
+            return tokenRevocationService.isRevoked(claims.getId());
+        } finally {
+            authMetrics.recordRevocation(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return 令牌版本是否为用户当前版本；本地缓存未命中且Redis不可用、无法确认时返回null
+     */
+    private Boolean isSecurityVersionCurrent(String username, Claims claims) {
+        long start = System.nanoTime();
+        try {
+            return securityVersionService.isCurrent(username, jwtTokenUtil.getSecurityVersion(claims));
+        } catch (RuntimeException e) {
+            logger.error("查询JWT安全版本失败: " + username + ", " + e.getMessage());
+            return null;
+        } finally {
+            authMetrics.recordSecurityVersion(System.nanoTime() - start);
+        }
+    }
+
+    // 创建认证令牌并设置到上下文
+    private void setAuthentication(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        long start = System.nanoTime();
+        authentication.setDetails(detailsSource.buildDetails(request));
+        authMetrics.recordDetails(System.nanoTime() - start);
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 }
-    
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.sunboat.adminWeb.business.config.LoginProperties;
+import com.sunboat.adminWeb.business.maper.UsersMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 一次性迁移旧密码数据：没有 {id} 前缀的密码补上 {bcrypt} 或 {noop} 前缀
+ * 迁移后DelegatingPasswordEncoder按前缀选择编码器，登录成功时再统一升级为当前强度的BCrypt。
+ * 默认关闭（auth.login.migrate-legacy-passwords）：需要迁移时只在一个节点上开启并启动一次，完成后关闭；
+ * 不迁移时 LegacyPasswordEncoder 仍能校验旧数据。开启后迁移失败则启动失败，不会在迁移未完成时静默运行。
+ */
+@Component
+public class LegacyPasswordMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyPasswordMigration.class);
+
+    @Autowired
+    private UsersMapper usersMapper;
+
+    @Autowired
+    private LoginProperties loginProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!loginProperties.isMigrateLegacyPasswords()) {
+            return;
+        }
+        int migrated;
+        try {
+            migrated = usersMapper.prefixLegacyPasswords();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("迁移旧密码数据失败", e);
+        }
+        log.info("已为 {} 个旧密码补上编码前缀，迁移完成后请关闭 auth.login.migrate-legacy-passwords", migrated);
+    }
+}
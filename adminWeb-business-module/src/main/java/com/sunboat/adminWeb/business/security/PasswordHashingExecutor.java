@@ -0,0 +1,73 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.sunboat.adminWeb.business.config.LoginProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 密码哈希专用线程池
+ * 线程数与CPU核心数一致，等待队列有界；队列满时立即拒绝，由调用方快速返回429，
+ * 登录高峰不会占满Tomcat请求线程而拖垮其他接口
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    @Autowired
+    private LoginProperties loginProperties;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = loginProperties.getHashThreads() > 0
+                ? loginProperties.getHashThreads()
+                : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(loginProperties.getQueueCapacity()),
+                new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger(1);
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "password-hash-thread-" + counter.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.AbortPolicy() // 队列满时直接拒绝，不让请求线程代为执行
+        );
+    }
+
+    /**
+     * 提交需要哈希密码的任务
+     * @throws RejectedExecutionException 等待队列已满
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * 当前排队等待哈希的任务数
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,194 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sunboat.adminWeb.business.maper.PermissionsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 角色权限位图
+ * 启动时把 roles / permissions / role_permissions 预编译为位图：每个权限对应一个位序号，每个角色对应一个long[]。
+ * 用户的有效权限为其所有角色位图的按位或，按角色组合缓存；权限判断只是一次数组读取和位运算。
+ * 权限数据变更后调用 publishReload()，各节点通过Redis频道收到通知后重新加载。
+ */
+@Component
+public class PermissionBitsetRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionBitsetRegistry.class);
+
+    // 权限数据变更广播频道
+    public static final String PERMISSION_RELOAD_CHANNEL = "auth:permission:reload";
+
+    // 不同角色组合的数量远小于用户数，缓存上限足够覆盖
+    private static final int EFFECTIVE_CACHE_MAX_SIZE = 10_000;
+
+    @Autowired
+    private PermissionsMapper permissionsMapper;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 当前快照，重新加载时整体替换
+    private volatile Snapshot snapshot;
+
+    // 有效权限缓存：角色组合key（RolePrincipal.roleSetKey）-> 有效权限位图
+    private Cache<String, EffectiveBits> effectiveCache;
+
+    @PostConstruct
+    public void init() {
+        effectiveCache = Caffeine.newBuilder()
+                .maximumSize(EFFECTIVE_CACHE_MAX_SIZE)
+                .recordStats()
+                .build();
+        authMetrics.monitorCache(effectiveCache, "auth.permission.effective");
+        reload();
+        listenerContainer.addMessageListener(this::onReloadMessage, new ChannelTopic(PERMISSION_RELOAD_CHANNEL));
+    }
+
+    /**
+     * 从数据库重新加载角色权限并原子切换
+     */
+    public void reload() {
+        List<String> permissionNames = permissionsMapper.selectPermissionNames();
+        Map<String, Integer> permissionIndex = new HashMap<>(permissionNames.size() * 2);
+        for (String name : permissionNames) {
+            permissionIndex.putIfAbsent(name, permissionIndex.size());
+        }
+
+        int words = wordCount(permissionIndex.size());
+        Map<String, long[]> roleBits = new HashMap<>();
+        for (RolePermission rolePermission : permissionsMapper.selectRolePermissions()) {
+            Integer index = permissionIndex.get(rolePermission.getPermissionName());
+            if (index == null) {
+                continue;
+            }
+            long[] bits = roleBits.computeIfAbsent(authorityOf(rolePermission.getRoleName()), k -> new long[words]);
+            bits[index >>> 6] |= 1L << index;
+        }
+
+        snapshot = new Snapshot(permissionIndex, roleBits, words);
+        // 旧快照计算的条目即使在清空之后写入，读取时也会因快照不一致而重算
+        effectiveCache.invalidateAll();
+        log.info("角色权限位图已加载：{} 个权限，{} 个角色", permissionIndex.size(), roleBits.size());
+    }
+
+    /**
+     * 通知所有节点（包括本节点）重新加载角色权限
+     */
+    public void publishReload() {
+        redisTemplate.convertAndSend(PERMISSION_RELOAD_CHANNEL, "reload");
+    }
+
+    /**
+     * 判断权限集合（用户的角色）是否拥有指定权限；未知权限一律拒绝
+     * 每次调用都要计算角色组合key，已有RolePrincipal时使用带key的重载
+     */
+    public boolean hasPermission(Collection<? extends GrantedAuthority> authorities, String permission) {
+        return hasPermission(RolePrincipal.roleSetKey(authorities), authorities, permission);
+    }
+
+    /**
+     * 判断权限集合是否拥有指定权限，角色组合key由调用方预先计算
+     * @param roleSetKey authorities对应的角色组合key（RolePrincipal.getRoleSetKey），只在缓存未命中时才用到authorities
+     */
+    public boolean hasPermission(String roleSetKey, Collection<? extends GrantedAuthority> authorities,
+                                 String permission) {
+        Snapshot current = snapshot;
+        Integer index = current.permissionIndex.get(permission);
+        if (index == null) {
+            return false;
+        }
+        long[] bits = effectiveBits(current, roleSetKey, authorities);
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private long[] effectiveBits(Snapshot current, String key, Collection<? extends GrantedAuthority> authorities) {
+        EffectiveBits effective = effectiveCache.get(key, k -> new EffectiveBits(current.union(authorities), current));
+        if (effective.snapshot != current) {
+            // 重新加载前计算的条目，按当前快照重算
+            effective = new EffectiveBits(current.union(authorities), current);
+            effectiveCache.put(key, effective);
+        }
+        return effective.bits;
+    }
+
+    private void onReloadMessage(Message message, byte[] pattern) {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("重新加载角色权限失败，继续使用当前位图: {}", e.getMessage());
+        }
+    }
+
+    // 与CustomUserDetailsService一致：角色名统一带 ROLE_ 前缀
+    private static String authorityOf(String roleName) {
+        return roleName.startsWith("ROLE_") ? roleName : "ROLE_" + roleName;
+    }
+
+    private static int wordCount(int bitCount) {
+        return Math.max(1, (bitCount + 63) >>> 6);
+    }
+
+    /**
+     * 不可变的位图快照
+     */
+    private static final class Snapshot {
+        private final Map<String, Integer> permissionIndex;
+        private final Map<String, long[]> roleBits;
+        private final int words;
+
+        private Snapshot(Map<String, Integer> permissionIndex, Map<String, long[]> roleBits, int words) {
+            this.permissionIndex = permissionIndex;
+            this.roleBits = roleBits;
+            this.words = words;
+        }
+
+        // 所有角色位图的按位或
+        private long[] union(Collection<? extends GrantedAuthority> authorities) {
+            long[] result = new long[words];
+            for (GrantedAuthority authority : authorities) {
+                long[] bits = roleBits.get(authority.getAuthority());
+                if (bits == null) {
+                    continue;
+                }
+                for (int i = 0; i < words; i++) {
+                    result[i] |= bits[i];
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 缓存值：有效权限位图及计算时使用的快照
+     */
+    private static final class EffectiveBits {
+        private final long[] bits;
+        private final Snapshot snapshot;
+
+        private EffectiveBits(long[] bits, Snapshot snapshot) {
+            this.bits = bits;
+            this.snapshot = snapshot;
+        }
+    }
+}
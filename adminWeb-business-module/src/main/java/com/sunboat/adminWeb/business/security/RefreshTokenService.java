@@ -0,0 +1,133 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.utils.TokenDigest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新令牌服务
+ * 刷新令牌是不透明的随机串，Redis中按其SHA-256摘要保存为Hash（用户名、签发时间、安全版本号），每次使用后立即作废并签发新令牌。
+ * 刷新时不校验密码，避免定时重新登录带来的密码哈希开销；但签发时的安全版本号必须仍是用户当前版本，
+ * 用户被吊销、角色变更后已签发的刷新令牌与JWT一起失效，不能再换出新令牌。
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final String TOKEN_KEY_PREFIX = "auth:refresh:token:";
+    // 用户名 -> 该用户所有有效刷新令牌摘要，用于强制下线
+    private static final String USER_INDEX_PREFIX = "auth:refresh:user:";
+
+    private static final String FIELD_USERNAME = "username";
+    private static final String FIELD_ISSUED_AT = "issuedAt";
+    private static final String FIELD_SECURITY_VERSION = "securityVersion";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Autowired
+    private UserSecurityVersionService securityVersionService;
+
+    /**
+     * 为用户签发新的刷新令牌
+     * @param securityVersion 签发时用户的安全版本号，与同时签发的JWT一致
+     */
+    public String issue(String username, long securityVersion) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        String digest = TokenDigest.sha256Hex(refreshToken);
+        String tokenKey = TOKEN_KEY_PREFIX + digest;
+        String indexKey = USER_INDEX_PREFIX + username;
+        long ttl = jwtProperties.getRefreshExpiration();
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(FIELD_USERNAME, username);
+        fields.put(FIELD_ISSUED_AT, System.currentTimeMillis());
+        fields.put(FIELD_SECURITY_VERSION, securityVersion);
+        // 写入与设置过期时间放在同一个事务（MULTI/EXEC）中提交，中途失败不会留下没有过期时间的key
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.multi();
+                ops.opsForHash().putAll(tokenKey, fields);
+                ops.expire(tokenKey, ttl, TimeUnit.SECONDS);
+                ops.opsForSet().add(indexKey, digest);
+                ops.expire(indexKey, ttl, TimeUnit.SECONDS);
+                return ops.exec();
+            }
+        });
+        return refreshToken;
+    }
+
+    /**
+     * 使用刷新令牌：令牌有效时立即作废并返回所属用户名
+     * 同一令牌并发使用时只有删除成功的一方能拿到用户名
+     * 签发后用户安全版本号已递增（被吊销、角色变更）的令牌同样作废，返回null
+     * @return 用户名；令牌不存在、已过期、已被使用或安全版本号已失效时返回null
+     */
+    public String consume(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return null;
+        }
+        String digest = TokenDigest.sha256Hex(refreshToken);
+        String tokenKey = TOKEN_KEY_PREFIX + digest;
+        List<Object> values = redisTemplate.opsForHash().multiGet(tokenKey,
+                Arrays.<Object>asList(FIELD_USERNAME, FIELD_SECURITY_VERSION));
+        Object username = values.get(0);
+        if (username == null || !Boolean.TRUE.equals(redisTemplate.delete(tokenKey))) {
+            return null;
+        }
+        redisTemplate.opsForSet().remove(USER_INDEX_PREFIX + username, digest);
+        // 没有版本号字段的旧令牌视为版本0，与JWT的处理一致
+        Object version = values.get(1);
+        long tokenVersion = version instanceof Number ? ((Number) version).longValue() : 0L;
+        if (!securityVersionService.isCurrent(username.toString(), tokenVersion)) {
+            return null;
+        }
+        return username.toString();
+    }
+
+    /**
+     * 作废单个刷新令牌（注销时调用）
+     */
+    public void revoke(String refreshToken) {
+        consume(refreshToken);
+    }
+
+    /**
+     * 作废用户的所有刷新令牌（强制下线时调用）
+     */
+    public void revokeAll(String username) {
+        String indexKey = USER_INDEX_PREFIX + username;
+        Set<Object> digests = redisTemplate.opsForSet().members(indexKey);
+        if (digests != null) {
+            for (Object digest : digests) {
+                redisTemplate.delete(TOKEN_KEY_PREFIX + digest);
+            }
+        }
+        redisTemplate.delete(indexKey);
+    }
+}
@@ -0,0 +1,15 @@
+package com.sunboat.adminWeb.business.security;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 角色与权限的对应关系（roles / role_permissions / permissions 联表查询结果）
+ */
+@Data
+@NoArgsConstructor
+public class RolePermission {
+
+    private String roleName;
+    private String permissionName;
+}
@@ -0,0 +1,55 @@
+package com.sunboat.adminWeb.business.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * 携带角色组合key的用户
+ * key在构建用户时计算一次（或直接取CachedUser中已算好的），BitsetPermissionEvaluator用它查有效权限缓存，
+ * 同一请求内多次权限判断不再重新拼接角色字符串。
+ */
+public class RolePrincipal extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String roleSetKey;
+
+    /**
+     * @param roleSetKey 与authorities对应的角色组合key，见 {@link #roleSetKeyOf(Collection)}
+     */
+    public RolePrincipal(String username, String password, boolean enabled,
+                         Collection<? extends GrantedAuthority> authorities, String roleSetKey) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.roleSetKey = roleSetKey;
+    }
+
+    /**
+     * 不带密码的用户（如根据JWT声明构建），角色组合key由authorities计算
+     */
+    public RolePrincipal(String username, Collection<? extends GrantedAuthority> authorities) {
+        super(username, "", authorities);
+        this.roleSetKey = roleSetKey(getAuthorities());
+    }
+
+    public String getRoleSetKey() {
+        return roleSetKey;
+    }
+
+    /**
+     * 角色组合key：权限字符串去重、排序后用逗号拼接，与角色顺序无关
+     */
+    public static String roleSetKey(Collection<? extends GrantedAuthority> authorities) {
+        TreeSet<String> names = new TreeSet<>();
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return String.join(",", names);
+    }
+
+    public static String roleSetKeyOf(Collection<String> authorities) {
+        return String.join(",", new TreeSet<>(authorities));
+    }
+}
@@ -1,5 +1,6 @@
 package com.sunboat.adminWeb.business.security;
 
+import com.sunboat.adminWeb.business.config.LoginProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -10,10 +11,18 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
 /**
  * Spring Security配置：定义安全规则、过滤器链
  */
@@ -28,10 +37,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    // 配置认证管理器
+    @Autowired
+    private LoginProperties loginProperties;
+
+    // 配置认证管理器（userDetailsService实现了UserDetailsPasswordService，哈希需要升级时自动回写新密码）
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService);
+        auth.userDetailsService(userDetailsService)
+                .passwordEncoder(passwordEncoder());
     }
 
     // 配置HTTP安全规则
@@ -46,9 +59,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .antMatchers
                         (
                         "/api/auth/login",
+                                    "/api/auth/refresh",
                                     "api/auth/register"
                         )
-                .permitAll() // 登录接口放行
+                .permitAll() // 登录、刷新令牌接口放行
                 .anyRequest().authenticated(); // 其他接口需要认证
 
         // 在用户名密码过滤器前添加JWT认证过滤器
@@ -62,10 +76,48 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         return super.authenticationManagerBean();
     }
 
-    // 密码编码器（测试用不加密，生产环境替换为BCryptPasswordEncoder）
+    // 密码编码器：新密码使用BCrypt；{noop} 明文密码仍可校验，登录成功后自动升级为当前强度的BCrypt
+    // 没有前缀的旧数据按 LegacyPasswordEncoder 校验，可用 LegacyPasswordMigration 一次性补上前缀
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return NoOpPasswordEncoder.getInstance(); // 生产环境使用：new BCryptPasswordEncoder()
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(loginProperties.getBcryptStrength());
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("noop", NoOpPasswordEncoder.getInstance());
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new LegacyPasswordEncoder(bcrypt));
+        return passwordEncoder;
+    }
+
+    /**
+     * 没有 {id} 前缀的旧密码：BCrypt格式的按BCrypt校验，其余按明文校验
+     * 不能把所有无前缀的值都当明文，否则提交数据库中的BCrypt哈希本身就能登录
+     */
+    static final class LegacyPasswordEncoder implements PasswordEncoder {
+        private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./0-9A-Za-z]{53}$");
+
+        private final PasswordEncoder bcrypt;
+
+        LegacyPasswordEncoder(PasswordEncoder bcrypt) {
+            this.bcrypt = bcrypt;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("旧格式密码只用于校验，新密码使用 {bcrypt}");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            if (rawPassword == null || encodedPassword == null) {
+                return false;
+            }
+            if (BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+                return bcrypt.matches(rawPassword, encodedPassword);
+            }
+            // 明文比较使用定长时间比较
+            return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
     }
 }
-    
\ No newline at end of file
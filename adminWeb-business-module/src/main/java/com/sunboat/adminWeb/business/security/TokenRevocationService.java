@@ -0,0 +1,148 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.sunboat.adminWeb.business.config.TokenRevocationProperties;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌吊销服务
+ * 吊销列表保存在Redisson有序集合中（成员为jti，分值为令牌过期时间），每个节点维护一份本地布隆过滤器：
+ * 过滤器判定不存在时直接放行，只有可能命中时才访问Redis确认，正常请求不产生网络调用。
+ * 新的吊销通过Redis主题实时广播到各节点，定时任务负责全量重建并清理已过期的记录。
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final String REVOKED_SET = "auth:revoked:jti";
+    private static final String REVOKED_TOPIC = "auth:revoked:topic";
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Autowired
+    private TokenRevocationProperties properties;
+
+    private volatile LocalBloomFilter bloomFilter;
+
+    // 重建期间收到的吊销，重建完成后补充到新过滤器中，避免切换时丢失
+    private volatile Set<String> revokedDuringRebuild;
+
+    private RScoredSortedSet<String> revokedSet;
+
+    private RTopic revokedTopic;
+
+    private ScheduledExecutorService rebuildExecutor;
+
+    @PostConstruct
+    public void init() {
+        bloomFilter = newBloomFilter(0);
+        revokedSet = redissonClient.getScoredSortedSet(REVOKED_SET, StringCodec.INSTANCE);
+        revokedTopic = redissonClient.getTopic(REVOKED_TOPIC, StringCodec.INSTANCE);
+        revokedTopic.addListener(String.class, (channel, jti) -> markLocal(jti));
+
+        rebuildExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocation-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuildExecutor.scheduleWithFixedDelay(this::rebuildQuietly,
+                0, properties.getRefreshIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * 吊销令牌，记录保留到令牌过期为止
+     * @param jti 令牌ID
+     * @param expiration 令牌过期时间
+     */
+    public void revoke(String jti, Date expiration) {
+        if (jti == null) {
+            return;
+        }
+        revokedSet.add(expiration.getTime(), jti);
+        markLocal(jti);
+        revokedTopic.publish(jti);
+    }
+
+    /**
+     * 令牌是否已被吊销
+     * 本地过滤器判定不存在时直接返回false；可能命中时查询Redis，Redis不可用时按已吊销处理
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return revokedSet.getScore(jti) != null;
+        } catch (Exception e) {
+            log.warn("查询令牌吊销状态失败，按已吊销处理: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void markLocal(String jti) {
+        bloomFilter.put(jti);
+        Set<String> pending = revokedDuringRebuild;
+        if (pending != null) {
+            pending.add(jti);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("重建令牌吊销过滤器失败，继续使用当前过滤器: {}", e.getMessage());
+        }
+    }
+
+    // 清理已过期的吊销记录并按Redis中的全量数据重建本地过滤器
+    private void rebuild() {
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        revokedDuringRebuild = pending;
+        try {
+            revokedSet.removeRangeByScore(0, true, System.currentTimeMillis(), true);
+            Collection<String> revoked = revokedSet.readAll();
+
+            LocalBloomFilter rebuilt = newBloomFilter(revoked.size());
+            for (String jti : revoked) {
+                rebuilt.put(jti);
+            }
+            bloomFilter = rebuilt;
+            // 切换之后到达的吊销直接写入新过滤器，切换之前到达的在这里补上
+            for (String jti : pending) {
+                rebuilt.put(jti);
+            }
+        } finally {
+            revokedDuringRebuild = null;
+        }
+    }
+
+    private LocalBloomFilter newBloomFilter(int currentSize) {
+        // 吊销数量超过预期时按两倍扩容，保持误判率
+        long expected = Math.max(properties.getExpectedInsertions(), currentSize * 2L);
+        return new LocalBloomFilter(expected, properties.getFalsePositiveRate());
+    }
+}
@@ -0,0 +1,81 @@
+package com.sunboat.adminWeb.business.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户安全版本号服务
+ * 版本号保存在Redis中，用户被吊销、角色变更时递增；令牌签发时写入当时的版本号，
+ * 过滤器比对令牌版本号与当前版本号，不一致即拒绝。本地缓存保证每个请求不访问Redis。
+ */
+@Service
+public class UserSecurityVersionService {
+
+    private static final String KEY_PREFIX = "auth:sv:";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
+    // 用户名 -> 当前安全版本号
+    private LoadingCache<String, Long> versionCache;
+
+    @PostConstruct
+    public void init() {
+        versionCache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(jwtProperties.getSecurityVersionCacheSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build(this::loadVersion);
+        authMetrics.monitorCache(versionCache, "auth.security-version");
+    }
+
+    /**
+     * 获取用户当前的安全版本号（从未变更过的用户为0）
+     */
+    public long currentVersion(String username) {
+        return versionCache.get(username);
+    }
+
+    /**
+     * 令牌中的版本号是否仍是用户当前版本
+     * 本地缓存未命中且Redis不可用时抛出异常，由调用方决定拒绝请求，不会把无法确认的令牌当作有效
+     */
+    public boolean isCurrent(String username, long tokenVersion) {
+        return currentVersion(username) == tokenVersion;
+    }
+
+    /**
+     * 递增用户的安全版本号，该用户此前签发的所有令牌失效
+     * @return 新的版本号
+     */
+    public long bumpVersion(String username) {
+        Long version = redisTemplate.opsForValue().increment(KEY_PREFIX + username);
+        versionCache.invalidate(username);
+        return version != null ? version : 0L;
+    }
+
+    /**
+     * 丢弃本地缓存的版本号，下次访问时从Redis重新读取
+     */
+    public void evictLocal(String username) {
+        versionCache.invalidate(username);
+    }
+
+    private Long loadVersion(String username) {
+        Object version = redisTemplate.opsForValue().get(KEY_PREFIX + username);
+        return version instanceof Number ? ((Number) version).longValue() : 0L;
+    }
+}
@@ -1,20 +1,41 @@
 package com.sunboat.adminWeb.business.utils;
 
+import com.sunboat.adminWeb.business.utils.bulk.BatchListener;
+import com.sunboat.adminWeb.business.utils.bulk.BatchOutcome;
+import com.sunboat.adminWeb.business.utils.bulk.BatchSizer;
+import com.sunboat.adminWeb.business.utils.bulk.BatchWriter;
+import com.sunboat.adminWeb.business.utils.bulk.BulkFuture;
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.BulkWriteExecutor;
+import com.sunboat.adminWeb.business.utils.bulk.KeyPartitioner;
+import com.sunboat.adminWeb.business.utils.bulk.ProgressListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * 多线程分批插入处理器
  * 用于将大量数据分成多个批次，通过多线程并行插入
  */
 public class BatchInsertProcessor<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchInsertProcessor.class);
     
-    // 线程池
+    // 私有线程池，使用共享的 BulkWriteExecutor 时为null
     private final ExecutorService executorService;
-    // 每批处理的数据量
-    private final int batchSize;
+    // 共享的批量写入线程池，并发度跟随连接池状态；使用私有线程池时为null
+    private final BulkWriteExecutor bulkWriteExecutor;
+    // 每批处理的数据量（固定或自适应）
+    private final BatchSizer batchSizer;
+    // 流式导入引擎：按需切分批次，在途批次数受限（使用共享线程池时每次导入单独创建）
+    private final BulkLoadEngine engine;
     
     /**
      * 构造函数
@@ -30,14 +51,24 @@ public class BatchInsertProcessor<T> {
      * @param threadCount 线程数量
      */
     public BatchInsertProcessor(int batchSize, int threadCount) {
-        if (batchSize <= 0) {
-            throw new IllegalArgumentException("批次大小必须大于0");
+        this(BatchSizer.fixed(batchSize), threadCount);
+    }
+    
+    /**
+     * 构造函数
+     * @param batchSizer 批次大小策略，如 AdaptiveBatchSizer 按批次耗时自动调整
+     * @param threadCount 线程数量
+     */
+    public BatchInsertProcessor(BatchSizer batchSizer, int threadCount) {
+        if (batchSizer == null) {
+            throw new IllegalArgumentException("批次大小策略不能为空");
         }
         if (threadCount <= 0) {
             throw new IllegalArgumentException("线程数量必须大于0");
         }
         
-        this.batchSize = batchSize;
+        this.batchSizer = batchSizer;
+        this.bulkWriteExecutor = null;
         // 创建线程池
         this.executorService = new ThreadPoolExecutor(
                 threadCount,
@@ -53,30 +84,41 @@ public class BatchInsertProcessor<T> {
                 },
                 new ThreadPoolExecutor.CallerRunsPolicy() // 当线程池满时，让提交任务的线程执行任务
         );
+        // 在途批次上限为线程数的2倍：线程池队列不再无限增长
+        this.engine = BulkLoadEngine.builder()
+                .batchSizer(batchSizer)
+                .maxInFlightBatches(threadCount * 2)
+                .executor(executorService)
+                .build();
     }
     
     /**
-     * 获取推荐的线程数量（基于CPU核心数）
+     * 构造函数（推荐在Spring环境中使用）：不创建私有线程池，并发度由共享的 BulkWriteExecutor 按连接池状态分配，
+     * 多个导入同时进行时平分，始终为普通请求保留连接
+     * @param batchSizer 批次大小策略
+     * @param bulkWriteExecutor 共享的批量写入线程池（Spring Bean）
      */
-    private static int getRecommendedThreadCount() {
-        int cpuCount = Runtime.getRuntime().availableProcessors();
-        // 插入操作通常是IO密集型，推荐CPU核心数 * 5
-        return Math.max(cpuCount * 5, 4); // 至少4个线程
+    public BatchInsertProcessor(BatchSizer batchSizer, BulkWriteExecutor bulkWriteExecutor) {
+        if (batchSizer == null) {
+            throw new IllegalArgumentException("批次大小策略不能为空");
+        }
+        if (bulkWriteExecutor == null) {
+            throw new IllegalArgumentException("批量写入线程池不能为空");
+        }
+        
+        this.batchSizer = batchSizer;
+        this.bulkWriteExecutor = bulkWriteExecutor;
+        this.executorService = null;
+        this.engine = null;
     }
     
     /**
-     * 将大List分成多个批次
+     * 获取推荐的线程数量（基于CPU核心数，仅用于私有线程池；线程数通常超过连接池大小，多出的线程只会等待连接）
      */
-    private List<List<T>> splitIntoBatches(List<T> dataList) {
-        List<List<T>> batches = new ArrayList<>();
-        
-        for (int i = 0; i < dataList.size(); i += batchSize) {
-            int endIndex = Math.min(i + batchSize, dataList.size());
-            List<T> batch = dataList.subList(i, endIndex);
-            batches.add(batch);
-        }
-        
-        return batches;
+    private static int getRecommendedThreadCount() {
+        int cpuCount = Runtime.getRuntime().availableProcessors();
+        // 插入操作通常是IO密集型，推荐CPU核心数 * 5
+        return Math.max(cpuCount * 5, 4); // 至少4个线程
     }
     
     /**
@@ -94,29 +136,100 @@ public class BatchInsertProcessor<T> {
             return new ArrayList<>();
         }
         
-        // 分成多个批次
-        List<List<T>> batches = splitIntoBatches(dataList);
-        System.out.printf("将 %d 条数据分成 %d 批处理，每批 %d 条%n", 
-                dataList.size(), batches.size(), batchSize);
-        
-        // 提交所有批次任务
-        List<Future<Boolean>> futures = batches.stream()
-                .map(batch -> executorService.submit(() -> insertHandler.insert(batch)))
-                .collect(Collectors.toList());
+        if (log.isDebugEnabled()) {
+            log.debug("将 {} 条数据分批处理，当前每批 {} 条", dataList.size(), batchSizer.nextBatchSize());
+        }
         
-        // 等待所有任务完成并收集结果
-        List<Boolean> results = new ArrayList<>(futures.size());
-        for (Future<Boolean> future : futures) {
-            results.add(future.get()); // 阻塞等待结果
+        // 按批次序号记录结果（批次完成顺序不确定，自适应模式下批次数事先未知）
+        Map<Long, Boolean> results = new ConcurrentSkipListMap<>();
+        BulkResult result = load(dataList.iterator(), toWriter(insertHandler), new BatchListener() {
+            @Override
+            public void onBatchSuccess(BatchOutcome outcome) {
+                results.put(outcome.getSequence(), outcome.getWritten() > 0);
+            }
+        });
+        if (result.getFirstError() != null) {
+            throw new ExecutionException(result.getFirstError());
         }
         
-        return results;
+        return new ArrayList<>(results.values());
     }
     
     /**
-     * 关闭线程池
+     * 流式分批插入：边读取边插入，不需要事先把全部数据放进List
+     * 在途批次达到上限时阻塞读取，内存占用与数据总量无关
+     * @param source 数据源（如分页查询、文件逐行解析得到的Iterator）
+     * @param insertHandler 实际执行插入的处理器
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     * @throws InterruptedException 线程中断异常
+     */
+    public BulkResult processBatchInsert(Iterator<? extends T> source, InsertHandler<T> insertHandler)
+            throws InterruptedException {
+        return load(source, toWriter(insertHandler), BatchListener.NONE);
+    }
+    
+    /**
+     * 异步流式插入：立即返回，数据源在后台读取线程中读取，调用线程（如Web请求线程）不必等待导入结束
+     * 批次完成时累计结果并按间隔回调进度；cancel(true) 停止读取并中断正在执行的批次
+     * @param source 数据源，只在后台读取线程中访问
+     * @param insertHandler 实际执行插入的处理器
+     * @param expectedRows 预计总行数，用于计算完成百分比和剩余时间；未知时传-1
+     * @param progressListener 进度回调，在批次执行线程中调用，不要执行耗时操作
+     * @return 导入结束时完成，结果为汇总的 BulkResult
+     */
+    public BulkFuture processBatchInsertAsync(Iterator<? extends T> source, InsertHandler<T> insertHandler,
+                                              long expectedRows, ProgressListener progressListener) {
+        BatchWriter<T> writer = toWriter(insertHandler);
+        return withEngineAsync(e -> e.loadAsync(source, writer, expectedRows, progressListener));
+    }
+    
+    /**
+     * 按键分区的流式插入：同一分区的批次按顺序串行写入，不同分区并行，并发批次落在互不相交的键空间上，
+     * 减少对同一段二级索引页和自增锁的争用。分区数一般取线程数，如 KeyPartitioner.hash(User::getId, threadCount)
+     * @param source 数据源
+     * @param partitioner 键分区规则（哈希或范围）
+     * @param insertHandler 实际执行插入的处理器，同一分区不会并发调用
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     */
+    public BulkResult processPartitionedInsert(Iterator<? extends T> source, KeyPartitioner<? super T> partitioner,
+                                               InsertHandler<T> insertHandler) throws InterruptedException {
+        BatchWriter<T> writer = toWriter(insertHandler);
+        return withEngine(e -> e.loadPartitioned(source, partitioner, writer));
+    }
+    
+    private BulkResult load(Iterator<? extends T> source, BatchWriter<T> writer, BatchListener listener)
+            throws InterruptedException {
+        return withEngine(e -> e.load(source, writer, listener));
+    }
+    
+    // 使用私有线程池时直接交给引擎；使用共享线程池时每次导入申请一个租约，导入结束即让出份额
+    private BulkResult withEngine(BulkWriteExecutor.EngineCall call) throws InterruptedException {
+        if (bulkWriteExecutor == null) {
+            return call.load(engine);
+        }
+        return bulkWriteExecutor.withLease("batch-insert-processor", batchSizer, call);
+    }
+    
+    // 异步导入的租约在读取线程退出、在途批次全部结束后归还
+    private BulkFuture withEngineAsync(Function<BulkLoadEngine, BulkFuture> call) {
+        if (bulkWriteExecutor == null) {
+            return call.apply(engine);
+        }
+        return bulkWriteExecutor.withLeaseAsync("batch-insert-processor-async", batchSizer, call);
+    }
+    
+    // 插入成功时按整批计数，失败时计0行
+    private static <T> BatchWriter<T> toWriter(InsertHandler<T> insertHandler) {
+        return batch -> insertHandler.insert(batch) ? batch.size() : 0;
+    }
+    
+    /**
+     * 关闭私有线程池（共享的 BulkWriteExecutor 由Spring管理，不在这里关闭）
      */
     public void shutdown() {
+        if (executorService == null) {
+            return;
+        }
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
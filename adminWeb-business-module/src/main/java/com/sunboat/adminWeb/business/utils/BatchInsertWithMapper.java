@@ -1,19 +1,41 @@
 package com.sunboat.adminWeb.business.utils;
 
+import com.sunboat.adminWeb.business.utils.bulk.BatchListener;
+import com.sunboat.adminWeb.business.utils.bulk.BatchOutcome;
+import com.sunboat.adminWeb.business.utils.bulk.BatchSizer;
+import com.sunboat.adminWeb.business.utils.bulk.BatchWriter;
+import com.sunboat.adminWeb.business.utils.bulk.BulkFuture;
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.BulkWriteExecutor;
+import com.sunboat.adminWeb.business.utils.bulk.InsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.KeyPartitioner;
+import com.sunboat.adminWeb.business.utils.bulk.ProgressListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * 适配MyBatis Mapper的多线程分批插入工具类
  */
 public class BatchInsertWithMapper<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchInsertWithMapper.class);
     
-    // 线程池
+    // 私有线程池，使用共享的 BulkWriteExecutor 时为null
     private final ExecutorService executorService;
-    // 每批处理的数据量
-    private final int batchSize;
+    // 共享的批量写入线程池，并发度跟随连接池状态；使用私有线程池时为null
+    private final BulkWriteExecutor bulkWriteExecutor;
+    // 每批处理的数据量（固定或自适应）
+    private final BatchSizer batchSizer;
+    // 流式导入引擎：按需切分批次，在途批次数受限（使用共享线程池时每次导入单独创建）
+    private final BulkLoadEngine engine;
     
     /**
      * 构造函数
@@ -29,14 +51,24 @@ public class BatchInsertWithMapper<T> {
      * @param threadCount 线程数量
      */
     public BatchInsertWithMapper(int batchSize, int threadCount) {
-        if (batchSize <= 0) {
-            throw new IllegalArgumentException("批次大小必须大于0");
+        this(BatchSizer.fixed(batchSize), threadCount);
+    }
+    
+    /**
+     * 构造函数
+     * @param batchSizer 批次大小策略，如 AdaptiveBatchSizer 按批次耗时自动调整
+     * @param threadCount 线程数量
+     */
+    public BatchInsertWithMapper(BatchSizer batchSizer, int threadCount) {
+        if (batchSizer == null) {
+            throw new IllegalArgumentException("批次大小策略不能为空");
         }
         if (threadCount <= 0) {
             throw new IllegalArgumentException("线程数量必须大于0");
         }
         
-        this.batchSize = batchSize;
+        this.batchSizer = batchSizer;
+        this.bulkWriteExecutor = null;
         // 创建线程池
         this.executorService = new ThreadPoolExecutor(
                 threadCount,
@@ -52,30 +84,41 @@ public class BatchInsertWithMapper<T> {
                 },
                 new ThreadPoolExecutor.CallerRunsPolicy()
         );
+        // 在途批次上限为线程数的2倍：线程池队列不再无限增长
+        this.engine = BulkLoadEngine.builder()
+                .batchSizer(batchSizer)
+                .maxInFlightBatches(threadCount * 2)
+                .executor(executorService)
+                .build();
     }
     
     /**
-     * 获取推荐的线程数量（基于CPU核心数）
+     * 构造函数（推荐在Spring环境中使用）：不创建私有线程池，并发度由共享的 BulkWriteExecutor 按连接池状态分配，
+     * 多个导入同时进行时平分，始终为普通请求保留连接
+     * @param batchSizer 批次大小策略
+     * @param bulkWriteExecutor 共享的批量写入线程池（Spring Bean）
      */
-    private static int getRecommendedThreadCount() {
-        int cpuCount = Runtime.getRuntime().availableProcessors();
-        // 数据库操作是IO密集型，推荐CPU核心数 * 5
-        return Math.max(cpuCount * 5, 4);
+    public BatchInsertWithMapper(BatchSizer batchSizer, BulkWriteExecutor bulkWriteExecutor) {
+        if (batchSizer == null) {
+            throw new IllegalArgumentException("批次大小策略不能为空");
+        }
+        if (bulkWriteExecutor == null) {
+            throw new IllegalArgumentException("批量写入线程池不能为空");
+        }
+        
+        this.batchSizer = batchSizer;
+        this.bulkWriteExecutor = bulkWriteExecutor;
+        this.executorService = null;
+        this.engine = null;
     }
     
     /**
-     * 将大List分成多个批次
+     * 获取推荐的线程数量（基于CPU核心数，仅用于私有线程池；线程数通常超过连接池大小，多出的线程只会等待连接）
      */
-    private List<List<T>> splitIntoBatches(List<T> dataList) {
-        List<List<T>> batches = new ArrayList<>();
-        
-        for (int i = 0; i < dataList.size(); i += batchSize) {
-            int endIndex = Math.min(i + batchSize, dataList.size());
-            List<T> batch = dataList.subList(i, endIndex);
-            batches.add(new ArrayList<>(batch)); // 转为新的ArrayList，避免subList的视图问题
-        }
-        
-        return batches;
+    private static int getRecommendedThreadCount() {
+        int cpuCount = Runtime.getRuntime().availableProcessors();
+        // 数据库操作是IO密集型，推荐CPU核心数 * 5
+        return Math.max(cpuCount * 5, 4);
     }
     
     /**
@@ -89,37 +132,153 @@ public class BatchInsertWithMapper<T> {
             List<T> dataList, 
             Object mapper,
             InsertAction<T> insertAction) throws InterruptedException, ExecutionException {
+        return insertAll(dataList, batch -> insertAction.insert(mapper, batch));
+    }
+    
+    /**
+     * 执行分批插入（使用内置插入方式，如 JdbcBatchInsertStrategy、MultiRowValuesInsertStrategy）
+     * @param dataList 要插入的全部数据
+     * @param strategy 插入方式，每次调用可以不同
+     * @return 所有批次的插入结果
+     */
+    public List<Integer> processBatchInsert(List<T> dataList, InsertStrategy<T> strategy)
+            throws InterruptedException, ExecutionException {
+        return insertAll(dataList, strategy);
+    }
+    
+    private List<Integer> insertAll(List<T> dataList, BatchWriter<T> writer)
+            throws InterruptedException, ExecutionException {
         
         if (dataList == null || dataList.isEmpty()) {
             return new ArrayList<>();
         }
         
-        // 分成多个批次
-        List<List<T>> batches = splitIntoBatches(dataList);
-        System.out.printf("将 %d 条数据分成 %d 批处理，每批 %d 条%n", 
-                dataList.size(), batches.size(), batchSize);
-        
-        // 提交所有批次任务
-        List<Future<Integer>> futures = batches.stream()
-                .map(batch -> executorService.submit(() -> {
-                    // 调用传入的Mapper插入方法
-                    return insertAction.insert(mapper, batch);
-                }))
-                .collect(Collectors.toList());
+        if (log.isDebugEnabled()) {
+            log.debug("将 {} 条数据分批处理，当前每批 {} 条", dataList.size(), batchSizer.nextBatchSize());
+        }
         
-        // 等待所有任务完成并收集结果
-        List<Integer> results = new ArrayList<>(futures.size());
-        for (Future<Integer> future : futures) {
-            results.add(future.get()); // 阻塞等待结果，获取插入成功的数量
+        // 按批次序号记录插入数量（批次完成顺序不确定，自适应模式下批次数事先未知）
+        Map<Long, Integer> results = new ConcurrentSkipListMap<>();
+        BulkResult result = load(dataList.iterator(), writer, new BatchListener() {
+            @Override
+            public void onBatchSuccess(BatchOutcome outcome) {
+                results.put(outcome.getSequence(), outcome.getWritten());
+            }
+        });
+        if (result.getFirstError() != null) {
+            throw new ExecutionException(result.getFirstError());
         }
         
-        return results;
+        return new ArrayList<>(results.values());
     }
     
     /**
-     * 关闭线程池
+     * 流式分批插入（适配MyBatis Mapper）：边读取边插入，不需要事先把全部数据放进List
+     * @param source 数据源（如游标查询、文件逐行解析得到的Iterator）
+     * @param mapper 你的Mapper接口实例
+     * @param insertAction 调用Mapper的插入方法
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     */
+    public BulkResult processBatchInsert(Iterator<? extends T> source, Object mapper, InsertAction<T> insertAction)
+            throws InterruptedException {
+        return load(source, batch -> insertAction.insert(mapper, batch), BatchListener.NONE);
+    }
+    
+    /**
+     * 流式分批插入（使用内置插入方式）
+     * @param source 数据源
+     * @param strategy 插入方式
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     */
+    public BulkResult processBatchInsert(Iterator<? extends T> source, InsertStrategy<T> strategy)
+            throws InterruptedException {
+        return load(source, strategy, BatchListener.NONE);
+    }
+    
+    /**
+     * 异步流式插入（适配MyBatis Mapper）：立即返回，数据源在后台读取线程中读取，适合在Controller中直接返回
+     * 批次完成时累计结果并按间隔回调进度；cancel(true) 停止读取并中断正在写入的批次
+     * @param source 数据源，只在后台读取线程中访问
+     * @param mapper 你的Mapper接口实例
+     * @param insertAction 调用Mapper的插入方法
+     * @param expectedRows 预计总行数，用于计算完成百分比和剩余时间；未知时传-1
+     * @param progressListener 进度回调，在批次写入线程中调用，不要执行耗时操作
+     * @return 导入结束时完成，结果为汇总的 BulkResult
+     */
+    public BulkFuture processBatchInsertAsync(Iterator<? extends T> source, Object mapper, InsertAction<T> insertAction,
+                                              long expectedRows, ProgressListener progressListener) {
+        BatchWriter<T> writer = batch -> insertAction.insert(mapper, batch);
+        return withEngineAsync(e -> e.loadAsync(source, writer, expectedRows, progressListener));
+    }
+    
+    /**
+     * 异步流式插入（使用内置插入方式）
+     * @param source 数据源
+     * @param strategy 插入方式
+     * @param expectedRows 预计总行数，未知时传-1
+     * @param progressListener 进度回调
+     * @return 导入结束时完成，结果为汇总的 BulkResult
+     */
+    public BulkFuture processBatchInsertAsync(Iterator<? extends T> source, InsertStrategy<T> strategy,
+                                              long expectedRows, ProgressListener progressListener) {
+        return withEngineAsync(e -> e.loadAsync(source, strategy, expectedRows, progressListener));
+    }
+    
+    /**
+     * 按键分区的流式插入（适配MyBatis Mapper）：同一分区的批次按顺序串行写入，不同分区并行，
+     * 并发批次落在互不相交的键空间上，减少对同一段二级索引页和自增锁的争用
+     * @param source 数据源
+     * @param partitioner 键分区规则，如 KeyPartitioner.hash(User::getId, threadCount)
+     * @param mapper 你的Mapper接口实例
+     * @param insertAction 调用Mapper的插入方法，同一分区不会并发调用
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     */
+    public BulkResult processPartitionedInsert(Iterator<? extends T> source, KeyPartitioner<? super T> partitioner,
+                                               Object mapper, InsertAction<T> insertAction) throws InterruptedException {
+        BatchWriter<T> writer = batch -> insertAction.insert(mapper, batch);
+        return withEngine(e -> e.loadPartitioned(source, partitioner, writer));
+    }
+    
+    /**
+     * 按键分区的流式插入（使用内置插入方式）
+     * @param source 数据源
+     * @param partitioner 键分区规则
+     * @param strategy 插入方式
+     * @return 汇总结果，失败批次通过 BulkResult.getFirstError() 返回
+     */
+    public BulkResult processPartitionedInsert(Iterator<? extends T> source, KeyPartitioner<? super T> partitioner,
+                                               InsertStrategy<T> strategy) throws InterruptedException {
+        return withEngine(e -> e.loadPartitioned(source, partitioner, strategy));
+    }
+    
+    private BulkResult load(Iterator<? extends T> source, BatchWriter<T> writer, BatchListener listener)
+            throws InterruptedException {
+        return withEngine(e -> e.load(source, writer, listener));
+    }
+    
+    // 使用私有线程池时直接交给引擎；使用共享线程池时每次导入申请一个租约，导入结束即让出份额
+    private BulkResult withEngine(BulkWriteExecutor.EngineCall call) throws InterruptedException {
+        if (bulkWriteExecutor == null) {
+            return call.load(engine);
+        }
+        return bulkWriteExecutor.withLease("batch-insert-with-mapper", batchSizer, call);
+    }
+    
+    // 异步导入的租约在读取线程退出、在途批次全部结束后归还
+    private BulkFuture withEngineAsync(Function<BulkLoadEngine, BulkFuture> call) {
+        if (bulkWriteExecutor == null) {
+            return call.apply(engine);
+        }
+        return bulkWriteExecutor.withLeaseAsync("batch-insert-with-mapper-async", batchSizer, call);
+    }
+    
+    /**
+     * 关闭私有线程池（共享的 BulkWriteExecutor 由Spring管理，不在这里关闭）
      */
     public void shutdown() {
+        if (executorService == null) {
+            return;
+        }
         executorService.shutdown();
         try {
             if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
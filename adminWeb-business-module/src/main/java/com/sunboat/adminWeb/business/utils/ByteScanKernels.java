@@ -0,0 +1,136 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 字节扫描内核：计数、直方图、查找首个位置
+ * 每次用 getLong 读 8 个字节，按 SWAR（寄存器内并行）位运算一次比较 8 个字节，尾部不足 8 字节时逐字节处理。
+ * 循环是以 int 计数的简单循环，getLong 在堆内、直接内存和内存映射缓冲区上都会被JIT内联为一次内存读取，
+ * 比逐字节 get() 少得多的边界检查和分支。所有方法只读 [position, limit)，不改变缓冲区的 position。
+ */
+public final class ByteScanKernels {
+
+    private static final long LOW_7_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long ONES = 0x0101010101010101L;
+
+    private ByteScanKernels() {
+    }
+
+    /**
+     * 统计 target 出现的次数
+     */
+    public static long count(ByteBuffer buffer, byte target) {
+        int index = buffer.position();
+        int limit = buffer.limit();
+        long pattern = broadcast(target);
+        long count = 0;
+        for (int end = limit - 7; index < end; index += Long.BYTES) {
+            // 每个相等的字节在 mask 中对应一个置位的最高位
+            count += Long.bitCount(equalMask(buffer.getLong(index), pattern));
+        }
+        for (; index < limit; index++) {
+            if (buffer.get(index) == target) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static long count(byte[] bytes, int from, int to, byte target) {
+        return count(slice(bytes, from, to), target);
+    }
+
+    /**
+     * 统计每个字节值出现的次数，累加到 counts[值 & 0xFF]
+     * @param counts 长度至少256
+     */
+    public static void histogram(ByteBuffer buffer, long[] counts) {
+        if (counts.length < 256) {
+            throw new IllegalArgumentException("直方图数组长度至少为256");
+        }
+        int index = buffer.position();
+        int limit = buffer.limit();
+        // 相邻字节交替累加到4张表，避免连续相同字节时对同一计数器的写后读依赖
+        int[] h0 = new int[256];
+        int[] h1 = new int[256];
+        int[] h2 = new int[256];
+        int[] h3 = new int[256];
+        for (int end = limit - 7; index < end; index += Long.BYTES) {
+            long word = buffer.getLong(index);
+            h0[(int) word & 0xFF]++;
+            h1[(int) (word >>> 8) & 0xFF]++;
+            h2[(int) (word >>> 16) & 0xFF]++;
+            h3[(int) (word >>> 24) & 0xFF]++;
+            h0[(int) (word >>> 32) & 0xFF]++;
+            h1[(int) (word >>> 40) & 0xFF]++;
+            h2[(int) (word >>> 48) & 0xFF]++;
+            h3[(int) (word >>> 56) & 0xFF]++;
+        }
+        for (; index < limit; index++) {
+            h0[buffer.get(index) & 0xFF]++;
+        }
+        for (int i = 0; i < 256; i++) {
+            counts[i] += (long) h0[i] + h1[i] + h2[i] + h3[i];
+        }
+    }
+
+    public static void histogram(byte[] bytes, int from, int to, long[] counts) {
+        histogram(slice(bytes, from, to), counts);
+    }
+
+    /**
+     * target 第一次出现的位置（缓冲区中的绝对下标），找不到时返回-1
+     */
+    public static int indexOf(ByteBuffer buffer, byte target) {
+        int index = buffer.position();
+        int limit = buffer.limit();
+        long pattern = broadcast(target);
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        for (int end = limit - 7; index < end; index += Long.BYTES) {
+            long mask = equalMask(buffer.getLong(index), pattern);
+            if (mask != 0) {
+                // 大端时内存中的第一个字节是最高字节
+                int zeros = bigEndian ? Long.numberOfLeadingZeros(mask) : Long.numberOfTrailingZeros(mask);
+                return index + (zeros >>> 3);
+            }
+        }
+        for (; index < limit; index++) {
+            if (buffer.get(index) == target) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return target 在 [from, to) 中第一次出现的下标，找不到时返回-1
+     */
+    public static int indexOf(byte[] bytes, int from, int to, byte target) {
+        return indexOf(slice(bytes, from, to), target);
+    }
+
+    private static ByteBuffer slice(byte[] bytes, int from, int to) {
+        if (from < 0 || to > bytes.length || from > to) {
+            throw new IndexOutOfBoundsException("范围无效: [" + from + ", " + to + "), 长度 " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.limit(to);
+        buffer.position(from);
+        return buffer;
+    }
+
+    private static long broadcast(byte value) {
+        return (value & 0xFFL) * ONES;
+    }
+
+    /**
+     * 与 pattern 相等的字节，其最高位在结果中置1，其余位为0
+     * 先异或使相等字节变为0，再用不跨字节进位的方式检测零字节，结果精确，没有误报
+     */
+    private static long equalMask(long word, long pattern) {
+        long x = word ^ pattern;
+        long t = (x & LOW_7_BITS) + LOW_7_BITS;
+        return ~(t | x | LOW_7_BITS);
+    }
+}
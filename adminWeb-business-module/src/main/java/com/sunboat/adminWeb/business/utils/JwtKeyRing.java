@@ -0,0 +1,104 @@
+package com.sunboat.adminWeb.business.utils;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT签名密钥环（不可变）
+ * 启动或配置刷新时一次性派生所有密钥并构建可复用的解析器，请求路径上不再创建Key和Parser
+ * 签名使用activeKid对应的密钥并写入kid头；验签按kid头选择密钥，没有kid的旧令牌使用默认密钥
+ */
+public final class JwtKeyRing {
+
+    // jwt.secret 对应的密钥ID
+    public static final String DEFAULT_KID = "default";
+
+    private final Map<String, Key> keys;
+    private final String activeKid;
+    private final Key activeKey;
+    private final JwtParser parser;
+
+    private JwtKeyRing(Map<String, Key> keys, String activeKid) {
+        this.keys = Collections.unmodifiableMap(keys);
+        this.activeKid = activeKid;
+        this.activeKey = keys.get(activeKid);
+        // JwtParser构建后不可变且线程安全，整个密钥环生命周期内复用
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 根据配置构建密钥环，密钥长度不足或activeKid不存在时抛出IllegalStateException
+     */
+    public static JwtKeyRing from(JwtProperties properties) {
+        Map<String, Key> keys = new LinkedHashMap<>();
+        if (properties.getSecret() != null) {
+            keys.put(DEFAULT_KID, deriveKey(DEFAULT_KID, properties.getSecret()));
+        }
+        if (properties.getKeys() != null) {
+            for (Map.Entry<String, String> entry : properties.getKeys().entrySet()) {
+                keys.put(entry.getKey(), deriveKey(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        String activeKid = properties.getActiveKid() != null ? properties.getActiveKid() : DEFAULT_KID;
+        if (!keys.containsKey(activeKid)) {
+            throw new IllegalStateException("JWT签名密钥不存在: kid=" + activeKid);
+        }
+        return new JwtKeyRing(keys, activeKid);
+    }
+
+    private static Key deriveKey(String kid, String secret) {
+        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        // HS256需要至少256位密钥
+        if (keyBytes.length < 32) {
+            throw new IllegalStateException("JWT密钥长度不足256位: kid=" + kid);
+        }
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    private Key resolveKey(String kid) {
+        Key key = keys.get(kid != null ? kid : DEFAULT_KID);
+        if (key == null) {
+            throw new SignatureException("未知的JWT密钥ID: " + kid);
+        }
+        return key;
+    }
+
+    public JwtParser getParser() {
+        return parser;
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public Key getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * 密钥集合与当前签名密钥是否与另一个密钥环一致（用于判断配置刷新后是否需要切换）
+     */
+    public boolean sameKeysAs(JwtKeyRing other) {
+        return other != null && activeKid.equals(other.activeKid) && keys.equals(other.keys);
+    }
+}
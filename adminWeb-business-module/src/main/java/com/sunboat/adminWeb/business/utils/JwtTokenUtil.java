@@ -1,29 +1,131 @@
 package com.sunboat.adminWeb.business.utils;
 
+import com.alibaba.nacos.spring.context.event.config.NacosConfigurationPropertiesBeanBoundEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.sunboat.adminWeb.business.config.JwtProperties;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 
 /**
  * JWT工具类：生成令牌、解析令牌、验证令牌
+ * 已验签的声明按令牌摘要缓存，过期时间与令牌exp一致，同一令牌只解析、验签一次
+ * 签名密钥和解析器由JwtKeyRing在启动时构建，Nacos配置刷新后原子切换
+ * 验签耗时和缓存指标由认证层通过 setVerifyListener、getClaimsCache 接入，工具类不依赖security包
  */
 @Component
 public class JwtTokenUtil {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenUtil.class);
+
+    // 角色声明：权限字符串列表，如 ["ROLE_ADMIN"]
+    public static final String CLAIM_ROLES = "roles";
+    // 用户安全版本号声明，用户被吊销或角色变更后版本号递增，旧令牌随之失效
+    public static final String CLAIM_SECURITY_VERSION = "sv";
+
     @Autowired
     private JwtProperties jwtProperties;
 
+    // 验签耗时回调（纳秒），默认不记录
+    private volatile LongConsumer verifyListener = nanos -> {
+    };
+
+    // 当前密钥环，配置刷新时整体替换
+    private volatile JwtKeyRing keyRing;
+
+    // 已验签声明缓存：key为令牌的SHA-256摘要（不保存令牌原文），条目在令牌exp时过期（未开启时为null）
+    private Cache<String, VerifiedClaims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        // 密钥配置错误时启动失败，而不是等到第一个请求才暴露
+        keyRing = JwtKeyRing.from(jwtProperties);
+        initClaimsCache();
+    }
+
+    /**
+     * JwtProperties经Nacos自动刷新重新绑定后，重建密钥环
+     */
+    @EventListener
+    public void onPropertiesRebound(NacosConfigurationPropertiesBeanBoundEvent event) {
+        if (event.getBean() instanceof JwtProperties) {
+            reloadKeyRing();
+        }
+    }
+
+    /**
+     * 按当前配置重建密钥环并原子切换；新配置无效时保留旧密钥环
+     */
+    public void reloadKeyRing() {
+        JwtKeyRing newRing;
+        try {
+            newRing = JwtKeyRing.from(jwtProperties);
+        } catch (RuntimeException e) {
+            log.error("JWT密钥配置无效，继续使用当前密钥环: {}", e.getMessage());
+            return;
+        }
+        if (newRing.sameKeysAs(keyRing)) {
+            return;
+        }
+        keyRing = newRing;
+        // 被移除的密钥签发的令牌不能再命中缓存
+        if (claimsCache != null) {
+            claimsCache.invalidateAll();
+        }
+        log.info("JWT密钥环已切换，当前签名密钥: {}", newRing.getActiveKid());
+    }
+
+    private void initClaimsCache() {
+        long maxSize = jwtProperties.getClaimsCacheMaxSize();
+        if (maxSize <= 0) {
+            claimsCache = null;
+            return;
+        }
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 注册验签耗时回调：每次缓存未命中、实际解析验签后调用，参数为耗时纳秒
+     */
+    public void setVerifyListener(LongConsumer verifyListener) {
+        this.verifyListener = verifyListener != null ? verifyListener : nanos -> {
+        };
+    }
+
+    /**
+     * 已验签声明缓存（已开启recordStats），用于注册命中率等指标；未开启缓存时返回null
+     */
+    public Cache<String, ?> getClaimsCache() {
+        return claimsCache;
+    }
+
     // 从令牌中获取用户名
     public String getUsernameFromToken(String token) {
         return getClaimFromToken(token, Claims::getSubject);
@@ -40,27 +142,77 @@ public class JwtTokenUtil {
         return claimsResolver.apply(claims);
     }
 
-    // 解析令牌中的所有声明（需要密钥）
-    private Claims getAllClaimsFromToken(String token) {
-        // 使用HS256算法和密钥解析令牌（兼容JDK8）
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    // 获取令牌中的所有声明（优先命中缓存，未命中时解析并验签）
+    public Claims getAllClaimsFromToken(String token) {
+        final JwtKeyRing ring = keyRing;
+        if (claimsCache == null) {
+            return parseClaims(ring, token);
+        }
+        // 解析失败（签名错误、过期等）时异常直接抛出，不会写入缓存
+        String key = TokenDigest.sha256Hex(token);
+        VerifiedClaims verified = claimsCache.get(key, k -> new VerifiedClaims(parseClaims(ring, token), ring));
+        if (verified.ring != ring) {
+            // 密钥环切换前验签的条目，按新密钥环重新验签
+            verified = new VerifiedClaims(parseClaims(ring, token), ring);
+            claimsCache.put(key, verified);
+        }
+        return verified.claims;
+    }
+
+    // 解析令牌中的所有声明（按kid头选择密钥验签）
+    private Claims parseClaims(JwtKeyRing ring, String token) {
+        long start = System.nanoTime();
+        try {
+            return ring.getParser()
+                    .parseClaimsJws(token)
+                    .getBody();
+        } finally {
+            verifyListener.accept(System.nanoTime() - start);
+        }
+    }
+
+    // 从声明中还原权限列表（兼容旧令牌中 {"authority": "ROLE_XXX"} 形式的角色）
+    public List<GrantedAuthority> getAuthoritiesFromClaims(Claims claims) {
+        Object roles = claims.get(CLAIM_ROLES);
+        if (!(roles instanceof Collection)) {
+            return Collections.emptyList();
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(((Collection<?>) roles).size());
+        for (Object role : (Collection<?>) roles) {
+            Object authority = role instanceof Map ? ((Map<?, ?>) role).get("authority") : role;
+            if (authority != null) {
+                authorities.add(new SimpleGrantedAuthority(authority.toString()));
+            }
+        }
+        return authorities;
+    }
+
+    // 从声明中获取安全版本号（没有该声明的旧令牌视为版本0）
+    public long getSecurityVersion(Claims claims) {
+        Object version = claims.get(CLAIM_SECURITY_VERSION);
+        return version instanceof Number ? ((Number) version).longValue() : 0L;
     }
 
-    // 检查令牌是否过期
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    // 检查令牌是否过期（缓存条目可能比exp多存活一个清理周期，这里仍按当前时间判断）
+    public Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     // 生成令牌（基于用户信息）
     public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        // 可以添加自定义声明（如角色、权限）
-        claims.put("roles", userDetails.getAuthorities());
+        return generateToken(userDetails, Collections.emptyMap());
+    }
+
+    // 生成令牌（基于用户信息和额外声明，如安全版本号）
+    public String generateToken(UserDetails userDetails, Map<String, Object> extraClaims) {
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        // 角色只写入权限字符串，过滤器可直接据此还原认证信息
+        List<String> roles = new ArrayList<>(userDetails.getAuthorities().size());
+        for (GrantedAuthority authority : userDetails.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+        claims.put(CLAIM_ROLES, roles);
         return doGenerateToken(claims, userDetails.getUsername());
     }
 
@@ -68,27 +220,60 @@ public class JwtTokenUtil {
     private String doGenerateToken(Map<String, Object> claims, String subject) {
         Date createdDate = new Date();
         Date expirationDate = new Date(createdDate.getTime() + jwtProperties.getExpiration() * 1000);
+        JwtKeyRing ring = keyRing;
 
         return Jwts.builder()
+                .setHeaderParam("kid", ring.getActiveKid())
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString()) // jti，用于吊销单个令牌
                 .setIssuedAt(createdDate)
                 .setExpiration(expirationDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256) // 使用HS256签名
+                .signWith(ring.getActiveKey(), SignatureAlgorithm.HS256) // 使用HS256签名
                 .compact();
     }
 
-    // 验证令牌是否有效（用户名匹配且未过期）
+    // 验证令牌是否有效（用户名匹配且未过期），整个过程只读取一次声明
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = getAllClaimsFromToken(token);
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
-    // 获取签名密钥（确保密钥长度符合HS256要求）
-    private Key getSigningKey() {
-        // 处理密钥长度不足的问题（HS256需要至少256位密钥）
-        byte[] keyBytes = jwtProperties.getSecret().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * 缓存值：已验签的声明及验签时使用的密钥环
+     */
+    private static final class VerifiedClaims {
+        private final Claims claims;
+        private final JwtKeyRing ring;
+
+        private VerifiedClaims(Claims claims, JwtKeyRing ring) {
+            this.claims = claims;
+            this.ring = ring;
+        }
+    }
+
+    /**
+     * 缓存过期策略：条目在令牌的exp时刻过期，读取不会延长有效期
+     */
+    private class ClaimsExpiry implements Expiry<String, VerifiedClaims> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedClaims verified, long currentTime) {
+            Date expiration = verified.claims.getExpiration();
+            long ttlMillis = expiration != null
+                    ? expiration.getTime() - System.currentTimeMillis()
+                    : jwtProperties.getExpiration() * 1000; // 没有exp的令牌按默认有效期缓存
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedClaims verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedClaims verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
-    
\ No newline at end of file
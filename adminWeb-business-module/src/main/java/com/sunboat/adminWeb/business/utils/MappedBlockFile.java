@@ -0,0 +1,104 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 只读内存映射的大文件，按块切出只读视图交给各个块任务
+ * 文件只打开一次；MappedByteBuffer 按 int 寻址，文件按区域分段映射（区域大小是块大小的整数倍，块不会跨区域），
+ * 首次访问某个区域时才映射。切出的视图共享映射内存，不复制数据，每块只分配两个很小的 ByteBuffer 对象。
+ * 关闭只关闭通道，已切出的视图在被回收前仍然有效。
+ */
+public final class MappedBlockFile implements AutoCloseable {
+
+    // 单个映射区域默认上限 1GB
+    public static final int MAX_REGION_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int regionSize;
+    private final AtomicReferenceArray<MappedByteBuffer> regions;
+
+    private MappedBlockFile(FileChannel channel, long size, int blockSize, int maxRegionSize) {
+        this.channel = channel;
+        this.size = size;
+        this.regionSize = maxRegionSize / blockSize * blockSize;
+        this.regions = new AtomicReferenceArray<>((int) ((size + regionSize - 1) / regionSize));
+    }
+
+    /**
+     * @param blockSize 块大小，slice 的起始位置须是它的整数倍
+     */
+    public static MappedBlockFile open(File file, int blockSize) throws IOException {
+        return open(file, blockSize, MAX_REGION_SIZE);
+    }
+
+    /**
+     * @param blockSize 块大小，slice 的起始位置须是它的整数倍
+     * @param maxRegionSize 单个映射区域上限，实际区域大小向下取整到块大小的整数倍
+     */
+    public static MappedBlockFile open(File file, int blockSize, int maxRegionSize) throws IOException {
+        if (maxRegionSize <= 0 || maxRegionSize > MAX_REGION_SIZE) {
+            throw new IllegalArgumentException("映射区域大小无效: " + maxRegionSize);
+        }
+        if (blockSize <= 0 || blockSize > maxRegionSize) {
+            throw new IllegalArgumentException("块大小无效: " + blockSize);
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new MappedBlockFile(channel, channel.size(), blockSize, maxRegionSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 文件 [position, position + length) 的只读视图，position 从0开始
+     */
+    public ByteBuffer slice(long position, int length) {
+        int offset = (int) (position % regionSize);
+        if (position < 0 || length < 0 || position + length > size || offset + length > regionSize) {
+            throw new IndexOutOfBoundsException("块超出文件或跨映射区域: " + position + "+" + length);
+        }
+        ByteBuffer view = region((int) (position / regionSize)).duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+        return view.slice();
+    }
+
+    private MappedByteBuffer region(int index) {
+        MappedByteBuffer region = regions.get(index);
+        if (region != null) {
+            return region;
+        }
+        synchronized (regions) {
+            region = regions.get(index);
+            if (region == null) {
+                long start = (long) index * regionSize;
+                try {
+                    region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("映射文件区域失败: " + start, e);
+                }
+                regions.set(index, region);
+            }
+            return region;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
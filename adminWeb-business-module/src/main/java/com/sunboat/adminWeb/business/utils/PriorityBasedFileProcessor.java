@@ -1,229 +1,251 @@
 package com.sunboat.adminWeb.business.utils;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.regex.Pattern;
 
+/**
+ * 按 类文件夹 → 文件 → 文件块 三层拆分处理二进制文件
+ * 运行在 ForkJoinPool 上：父任务 fork 子任务后 join，join 时当前线程会去执行自己队列里或窃取别的线程的任务，
+ * 不会像固定线程池里的 future.get() 那样占着线程干等，文件夹再多也不会出现所有线程都在等子任务的饥饿。
+ * 调度顺序由工作窃取决定：线程优先处理自己刚拆出的文件块（先把已开始的文件做完），
+ * 空闲线程从别的线程队列头部窃取较早提交的外层任务（文件夹、文件），相当于原来外层任务优先的效果。
+ * 每个文件只打开一次：大文件内存映射后按块切出只读视图，小文件整块读入复用的直接内存缓冲区，块处理时不再分配和复制数据。
+ * 块内扫描使用 ByteScanKernels，每次读取8个字节。
+ */
 public class PriorityBasedFileProcessor {
-    // 线程池核心大小，根据CPU核心数调整
-    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors() * 3;
     
-    // 单线程池，使用优先级队列
-    private static final ExecutorService executor = new ThreadPoolExecutor(
-        POOL_SIZE,
-        POOL_SIZE,
-        0L, TimeUnit.MILLISECONDS,
-        new PriorityBlockingQueue<>(100, new TaskPriorityComparator()),
-        new ThreadPoolExecutor.CallerRunsPolicy() // 任务满时让提交者执行，避免任务丢失
-    );
+    private static final Logger log = LoggerFactory.getLogger(PriorityBasedFileProcessor.class);
+    
+    // 并行度，根据CPU核心数调整
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    
+    // 工作窃取线程池，父任务等待子任务时不阻塞线程
+    private static final ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+    
+    // 块大小设置为1MB，可根据实际情况调整
+    public static final int BLOCK_SIZE = 1024 * 1024;
+    
+    // 小于该大小的文件不拆分、不映射，整块读入缓冲区
+    public static final int SMALL_FILE_SIZE = BLOCK_SIZE * 2;
     
-    // 任务优先级定义：数值越小优先级越高
+    // 小文件读取缓冲区，每个线程同时最多用一个
+    private static final DirectBufferPool bufferPool = new DirectBufferPool(SMALL_FILE_SIZE, PARALLELISM);
+    
+    // 示例：统计特定字节出现次数，换行符仅作示例
+    public static final int TARGET_BYTE = 0x0A;
+    
+    // 任务优先级定义：数值越小优先级越高（保留兼容，调度改由工作窃取决定）
     public static final int PRIORITY_HIGH = 1;   // 外层文件夹处理任务
     public static final int PRIORITY_LOW = 2;    // 内层文件块处理任务
     
     /**
-     * 带优先级的任务包装类
+     * 处理所有类文件夹下的二进制文件
+     * @return 目标字节在所有文件中的出现次数（处理出错的文件不计入）
      */
-    static class PriorityTask implements Runnable, Comparable<PriorityTask> {
-        private final Runnable task;
-        private final int priority;
-        private final String description; // 任务描述，用于调试
-        
-        public PriorityTask(Runnable task, int priority, String description) {
-            this.task = task;
-            this.priority = priority;
-            this.description = description;
+    public static long processBinaryFiles(String rootDirPath) throws InterruptedException, ExecutionException {
+        File rootDir = new File(rootDirPath);
+        if (!rootDir.exists() || !rootDir.isDirectory()) {
+            throw new IllegalArgumentException("根目录不存在或不是目录: " + rootDirPath);
         }
         
-        @Override
-        public void run() {
-            try {
-                task.run();
-            } catch (Exception e) {
-                System.err.printf("任务 [%s] 执行失败: %s%n", description, e.getMessage());
-            }
+        File[] classDirectories = rootDir.listFiles(File::isDirectory);
+        if (classDirectories == null || classDirectories.length == 0) {
+            System.out.println("没有找到类文件夹");
+            return 0;
         }
         
-        @Override
-        public int compareTo(PriorityTask other) {
-            // 优先级数值小的先执行
-            return Integer.compare(this.priority, other.priority);
-        }
+        // 调用线程不是池中的线程，在这里等待整棵任务树完成
+        long total = pool.submit(new RootTask(classDirectories)).get();
         
-        public String getDescription() {
-            return description;
-        }
+        System.out.printf("所有文件处理完成，0x%02X 共出现 %d 次%n", TARGET_BYTE, total);
+        return total;
     }
     
     /**
-     * 任务优先级比较器
+     * 根任务：每个类文件夹一个子任务
      */
-    static class TaskPriorityComparator implements Comparator<Runnable> {
+    static class RootTask extends RecursiveTask<Long> {
+        private final File[] classDirectories;
+        
+        RootTask(File[] classDirectories) {
+            this.classDirectories = classDirectories;
+        }
+        
         @Override
-        public int compare(Runnable o1, Runnable o2) {
-            return ((PriorityTask) o1).compareTo((PriorityTask) o2);
+        protected Long compute() {
+            List<ClassFolderTask> tasks = new ArrayList<>();
+            for (File classDir : classDirectories) {
+                String className = classDir.getName();
+                File[] binaryFiles = classDir.listFiles(f -> f.isFile() && isBinaryFile(f.getName(), className));
+                if (binaryFiles != null && binaryFiles.length > 0) {
+                    tasks.add(new ClassFolderTask(className, binaryFiles));
+                }
+            }
+            return sum(ForkJoinTask.invokeAll(tasks));
         }
     }
     
     /**
-     * 处理所有类文件夹下的二进制文件
+     * 处理某个类的所有二进制文件
      */
-    public static void processBinaryFiles(String rootDirPath) throws InterruptedException, ExecutionException {
-        File rootDir = new File(rootDirPath);
-        if (!rootDir.exists() || !rootDir.isDirectory()) {
-            throw new IllegalArgumentException("根目录不存在或不是目录: " + rootDirPath);
-        }
+    static class ClassFolderTask extends RecursiveTask<Long> {
+        private final String className;
+        private final File[] binaryFiles;
         
-        File[] classDirectories = rootDir.listFiles(File::isDirectory);
-        if (classDirectories == null || classDirectories.length == 0) {
-            System.out.println("没有找到类文件夹");
-            return;
+        ClassFolderTask(String className, File[] binaryFiles) {
+            this.className = className;
+            this.binaryFiles = binaryFiles;
         }
         
-        List<Future<?>> futures = new ArrayList<>();
-        
-        // 提交外层高优先级任务
-        for (File classDir : classDirectories) {
-            String className = classDir.getName();
-            File[] binaryFiles = classDir.listFiles(f -> f.isFile() && isBinaryFile(f.getName(), className));
+        @Override
+        protected Long compute() {
+            System.out.printf("线程 %s 开始处理类 %s 的 %d 个文件%n",
+                    Thread.currentThread().getName(),
+                    className,
+                    binaryFiles.length);
             
-            if (binaryFiles != null && binaryFiles.length > 0) {
-                // 包装成高优先级任务
-                PriorityTask task = new PriorityTask(() -> {
-                    try {
-                        processClassFiles(className, binaryFiles);
-                    } catch (Exception e) {
-                        throw new RuntimeException("处理类文件夹 [" + className + "] 出错", e);
-                    }
-                }, PRIORITY_HIGH, "处理类文件夹: " + className);
-                
-                Future<?> future = executor.submit(task);
-                futures.add(future);
+            List<FileTask> tasks = new ArrayList<>(binaryFiles.length);
+            for (File file : binaryFiles) {
+                tasks.add(new FileTask(className, file));
             }
+            long count = sum(ForkJoinTask.invokeAll(tasks));
+            
+            System.out.printf("线程 %s 完成处理类 %s%n",
+                    Thread.currentThread().getName(),
+                    className);
+            return count;
         }
-        
-        // 等待所有外层任务完成
-        for (Future<?> future : futures) {
-            future.get();
-        }
-        
-        System.out.println("所有文件处理完成");
     }
     
     /**
-     * 处理某个类的所有二进制文件
+     * 处理单个二进制文件：小文件直接处理，大文件按块拆分
+     * 单个文件出错只记录，不影响其他文件
      */
-    private static void processClassFiles(String className, File[] binaryFiles) throws InterruptedException, ExecutionException {
-        System.out.printf("线程 %s 开始处理类 %s 的 %d 个文件%n",
-                Thread.currentThread().getName(),
-                className,
-                binaryFiles.length);
-        
-        List<Future<?>> fileFutures = new ArrayList<>();
+    static class FileTask extends RecursiveTask<Long> {
+        private final String className;
+        private final File file;
         
-        for (File file : binaryFiles) {
-            // 为每个文件创建处理任务（仍为高优先级，因为是文件夹任务的子任务）
-            PriorityTask fileTask = new PriorityTask(() -> {
-                try {
-                    processSingleBinaryFile(className, file);
-                } catch (Exception e) {
-                    throw new RuntimeException("处理文件 [" + file.getName() + "] 出错", e);
-                }
-            }, PRIORITY_HIGH, "处理文件: " + file.getName());
-            
-            Future<?> future = executor.submit(fileTask);
-            fileFutures.add(future);
+        FileTask(String className, File file) {
+            this.className = className;
+            this.file = file;
         }
         
-        // 等待当前类的所有文件处理完成
-        for (Future<?> future : fileFutures) {
-            future.get();
+        @Override
+        protected Long compute() {
+            long fileSize = file.length();
+            System.out.printf("开始处理文件: %s (大小: %d bytes)%n", file.getName(), fileSize);
+            try {
+                long count;
+                if (fileSize < SMALL_FILE_SIZE) {
+                    // 小文件直接处理，不拆分
+                    count = processSmallFile(className, file);
+                } else {
+                    // 子任务全部完成后才关闭通道
+                    try (MappedBlockFile mapped = MappedBlockFile.open(file, BLOCK_SIZE)) {
+                        long blocks = (mapped.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                        count = new BlockRangeTask(className, file, mapped, 0, blocks).compute();
+                    }
+                }
+                System.out.printf("完成处理文件: %s%n", file.getName());
+                return count;
+            } catch (IOException | RuntimeException e) {
+                System.err.printf("处理文件 [%s] 出错: %s%n", file.getName(), e.getMessage());
+                return 0L;
+            }
         }
-        
-        System.out.printf("线程 %s 完成处理类 %s%n",
-                Thread.currentThread().getName(),
-                className);
     }
     
     /**
-     * 处理单个二进制文件（内部提交低优先级子任务）
+     * 处理文件中 [fromBlock, toBlock) 范围的块：多于一块时对半拆分，两半并行
      */
-    private static void processSingleBinaryFile(String className, File file) throws InterruptedException, ExecutionException, IOException {
-        System.out.printf("开始处理文件: %s (大小: %d bytes)%n",
-                file.getName(), file.length());
+    static class BlockRangeTask extends RecursiveTask<Long> {
+        private final String className;
+        private final File file;
+        private final MappedBlockFile mapped;
+        private final long fromBlock;
+        private final long toBlock;
         
-        // 块大小设置为1MB，可根据实际情况调整
-        final int BLOCK_SIZE = 1024 * 1024;
-        
-        // 小文件直接处理，不拆分
-        if (file.length() < BLOCK_SIZE * 2) {
-            processFileBlock(className, file, 0, file.length());
-            return;
+        BlockRangeTask(String className, File file, MappedBlockFile mapped, long fromBlock, long toBlock) {
+            this.className = className;
+            this.file = file;
+            this.mapped = mapped;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
         }
         
-        // 大文件拆分成多个块，提交低优先级任务
-        List<Future<?>> blockFutures = new ArrayList<>();
-        long fileSize = file.length();
-        long position = 0;
-        
-        while (position < fileSize) {
-            long blockLength = Math.min(BLOCK_SIZE, fileSize - position);
-            final long currentPosition = position;
-            final long currentLength = blockLength;
-            
-            // 提交低优先级的文件块处理任务
-            PriorityTask blockTask = new PriorityTask(() -> {
-                try {
-                    processFileBlock(className, file, currentPosition, currentLength);
-                } catch (IOException e) {
-                    throw new RuntimeException("处理文件块 [" + file.getName() + ":" + currentPosition + "] 出错", e);
-                }
-            }, PRIORITY_LOW, "处理文件块: " + file.getName() + "[" + currentPosition + "-" + (currentPosition + currentLength) + "]");
-            
-            Future<?> future = executor.submit(blockTask);
-            blockFutures.add(future);
-            position += blockLength;
+        @Override
+        protected Long compute() {
+            if (toBlock - fromBlock == 1) {
+                long position = fromBlock * BLOCK_SIZE;
+                int length = (int) Math.min(BLOCK_SIZE, mapped.size() - position);
+                return processFileBlock(className, file, position, mapped.slice(position, length));
+            }
+            long middle = (fromBlock + toBlock) >>> 1;
+            BlockRangeTask left = new BlockRangeTask(className, file, mapped, fromBlock, middle);
+            BlockRangeTask right = new BlockRangeTask(className, file, mapped, middle, toBlock);
+            // 右半交给别的线程窃取，左半在当前线程执行，join 时不会空等
+            right.fork();
+            long count = left.compute();
+            return count + right.join();
         }
-        
-        // 等待所有文件块处理完成
-        for (Future<?> future : blockFutures) {
-            future.get();
+    }
+    
+    private static long sum(Collection<? extends RecursiveTask<Long>> tasks) {
+        long total = 0;
+        for (RecursiveTask<Long> task : tasks) {
+            total += task.join();
+        }
+        return total;
+    }
+    
+    /**
+     * 小文件整块读入池中的直接内存缓冲区后处理
+     */
+    private static long processSmallFile(String className, File file) throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // 读到文件末尾或缓冲区满（文件可能在列目录之后变大）；缓冲区已读字节数即下次读取的文件位置
+            int read;
+            do {
+                read = channel.read(buffer, buffer.position());
+            } while (read > 0 && buffer.hasRemaining());
+            buffer.flip();
+            return processFileBlock(className, file, 0, buffer);
+        } finally {
+            bufferPool.release(buffer);
         }
-        
-        System.out.printf("完成处理文件: %s%n", file.getName());
     }
     
     /**
      * 处理文件的一个块
+     * @param position 块在文件中的起始位置
+     * @param block 块内容（只读视图，position 到 limit），处理完后不再持有
+     * @return 目标字节出现次数
      */
-    private static void processFileBlock(String className, File file, long position, long length) throws IOException {
-        try (FileChannel channel = new FileInputStream(file).getChannel()) {
-            ByteBuffer buffer = ByteBuffer.allocate((int) length);
-            int bytesRead = channel.read(buffer, position);
-            
-            if (bytesRead > 0) {
-                buffer.flip();
-                
-                // 这里是二进制数据的具体处理逻辑
-                // 示例：简单统计特定字节出现次数
-                int targetByte = 0x0A; // 换行符，仅作示例
-                int count = 0;
-                while (buffer.hasRemaining()) {
-                    if (buffer.get() == targetByte) {
-                        count++;
-                    }
-                }
-                
-                System.out.printf("线程 %s 处理 %s 的块 [%d-%d], 0x%02X 出现次数: %d%n",
-                        Thread.currentThread().getName(),
-                        file.getName(),
-                        position, position + length - 1,
-                        targetByte, count);
-            }
+    private static long processFileBlock(String className, File file, long position, ByteBuffer block) {
+        int length = block.remaining();
+        if (length == 0) {
+            return 0;
         }
+        
+        // 这里是二进制数据的具体处理逻辑：每次比较8个字节
+        long count = ByteScanKernels.count(block, (byte) TARGET_BYTE);
+        
+        // 每块一行，只在调试时输出，避免同步写控制台拖慢块处理
+        if (log.isDebugEnabled()) {
+            log.debug("线程 {} 处理 {} 的块 [{}-{}], 0x{} 出现次数: {}",
+                    Thread.currentThread().getName(), file.getName(),
+                    position, position + length - 1, String.format("%02X", TARGET_BYTE), count);
+        }
+        return count;
     }
     
     /**
@@ -234,7 +256,7 @@ public class PriorityBasedFileProcessor {
     }
     
     public static void main(String[] args) {
-        String extractDir = "path/to/extracted/files"; // 替换为实际解压目录
+        String extractDir = args.length > 0 ? args[0] : "path/to/extracted/files"; // 替换为实际解压目录
         
         try {
             System.out.println("开始处理二进制文件...");
@@ -244,27 +266,26 @@ public class PriorityBasedFileProcessor {
             
             long processTime = System.currentTimeMillis() - startTime;
             System.out.printf("所有文件处理完成，总耗时: %d ms%n", processTime);
-            
+        
         } catch (Exception e) {
             System.err.println("处理过程中发生错误: " + e.getMessage());
             e.printStackTrace();
         } finally {
             // 优雅关闭线程池
-            executor.shutdown();
+            pool.shutdown();
             try {
                 // 等待现有任务完成
-                if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
                     // 强制关闭
-                    executor.shutdownNow();
+                    pool.shutdownNow();
                     // 等待强制关闭完成
-                    if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                    if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
                         System.err.println("线程池未能正常关闭");
                     }
                 }
             } catch (InterruptedException e) {
-                executor.shutdownNow();
+                pool.shutdownNow();
             }
         }
     }
 }
-    
\ No newline at end of file
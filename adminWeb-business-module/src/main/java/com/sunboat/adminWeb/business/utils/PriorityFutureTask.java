@@ -0,0 +1,92 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可比较的优先级任务，PriorityThreadPoolExecutor 的队列中只存放这种任务
+ * 排序键 rank = 入队时间 + 优先级 × 老化步长：入队后不再变化，队列的排序始终有效，
+ * 而等待时间每增加一个步长，就能排到晚一个步长入队、高一级的任务前面（老化，低优先级不会饿死）。
+ * rank 相同时按提交序号先进先出。
+ */
+class PriorityFutureTask<V> extends FutureTask<V> implements Comparable<PriorityFutureTask<?>> {
+
+    // 提交序号，同优先级同时刻提交时按序号先进先出
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final int priority;
+    private final String description;
+    private final long sequence;
+    private final long rank;
+    private final PriorityThreadPoolExecutor owner;
+    private final CompletableFuture<V> promise = new CompletableFuture<>();
+
+    PriorityFutureTask(Callable<V> callable, int priority, String description, PriorityThreadPoolExecutor owner) {
+        super(callable);
+        this.priority = priority;
+        this.description = description;
+        this.sequence = SEQUENCE.getAndIncrement();
+        this.rank = System.nanoTime() + priority * owner.getAgingNanosPerLevel();
+        this.owner = owner;
+        // 调用方取消 CompletableFuture 时同步取消任务：未执行的不再执行，执行中的被中断
+        promise.whenComplete((result, error) -> {
+            if (promise.isCancelled()) {
+                cancel(true);
+            }
+        });
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    CompletableFuture<V> getPromise() {
+        return promise;
+    }
+
+    /**
+     * 拒绝任务：Future 以 RejectedExecutionException 完成，任务不再执行
+     */
+    void reject(RejectedExecutionException e) {
+        promise.completeExceptionally(e);
+        cancel(false);
+    }
+
+    @Override
+    protected void done() {
+        if (isCancelled()) {
+            promise.cancel(false);
+            // 排队中被取消的任务立即出队，不再占用队列容量
+            owner.getQueue().remove(this);
+            return;
+        }
+        try {
+            promise.complete(get());
+        } catch (ExecutionException e) {
+            promise.completeExceptionally(e.getCause());
+        } catch (InterruptedException | CancellationException e) {
+            promise.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public int compareTo(PriorityFutureTask<?> other) {
+        // rank 越小越先执行；用差值比较，System.nanoTime 溢出时也正确
+        long diff = this.rank - other.rank;
+        if (diff != 0) {
+            return diff < 0 ? -1 : 1;
+        }
+        return Long.compare(this.sequence, other.sequence);
+    }
+
+    @Override
+    public String toString() {
+        return "PriorityFutureTask{priority=" + priority + ", sequence=" + sequence
+                + ", description='" + description + "'}";
+    }
+}
@@ -0,0 +1,303 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PriorityThreadPoolExecutor 的任务队列：有界、按优先级出队，各优先级可单独限制排队数
+ * offer 在没有空闲线程且线程数未到上限时返回false，让 ThreadPoolExecutor 先扩容线程再排队；
+ * 线程数已到上限时由拒绝策略调用 force 入队。队列满时挤掉排在最后的（优先级最低的）任务，
+ * 新任务本身排在最后时拒绝新任务。
+ */
+class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    // 比较结果包含提交序号，不会有两个任务相等
+    private final TreeSet<PriorityFutureTask<?>> tasks = new TreeSet<>();
+    private final Map<Integer, Integer> queuedPerPriority = new HashMap<>();
+    private final int capacity;
+    private final Map<Integer, Integer> priorityCapacities;
+    // 阻塞在 take/poll 上的空闲线程数
+    private int idleWorkers;
+    private volatile PriorityThreadPoolExecutor executor;
+
+    PriorityTaskQueue(int capacity, Map<Integer, Integer> priorityCapacities) {
+        this.capacity = capacity;
+        this.priorityCapacities = new HashMap<>(priorityCapacities);
+    }
+
+    void setExecutor(PriorityThreadPoolExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 排队任务已够所有空闲线程领取、且线程数未到上限时返回false，由线程池新建线程执行
+     */
+    @Override
+    public boolean offer(Runnable runnable) {
+        PriorityFutureTask<?> task = (PriorityFutureTask<?>) runnable;
+        PriorityThreadPoolExecutor pool = executor;
+        if (pool != null && pool.getPoolSize() < pool.getMaximumPoolSize()) {
+            // 线程数在队列锁外读取：shutdownNow 持有线程池的锁调用 drainTo，锁顺序相反会死锁
+            lock.lock();
+            try {
+                if (tasks.size() >= idleWorkers) {
+                    return false;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return force(task);
+    }
+
+    /**
+     * 不再尝试扩容，直接入队；受队列容量和优先级上限限制
+     * @return 未能入队（新任务被拒绝）时返回false
+     */
+    boolean force(PriorityFutureTask<?> task) {
+        PriorityFutureTask<?> evicted = null;
+        lock.lock();
+        try {
+            Integer priorityCapacity = priorityCapacities.get(task.getPriority());
+            if (priorityCapacity != null && queuedPerPriority.getOrDefault(task.getPriority(), 0) >= priorityCapacity) {
+                return false;
+            }
+            if (tasks.size() >= capacity) {
+                PriorityFutureTask<?> last = tasks.last();
+                if (last.compareTo(task) < 0) {
+                    return false;
+                }
+                evicted = last;
+                removeTask(last);
+            }
+            tasks.add(task);
+            queuedPerPriority.merge(task.getPriority(), 1, Integer::sum);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (evicted != null) {
+            // 在锁外完成被挤掉任务的Future，回调不会阻塞队列
+            PriorityThreadPoolExecutor pool = executor;
+            if (pool != null) {
+                pool.onEvicted();
+            }
+            evicted.reject(new RejectedExecutionException("队列已满，任务被更高优先级的任务挤出: " + evicted));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) {
+        return offer(runnable);
+    }
+
+    /**
+     * 线程池不会调用 put；容量不足时抛出 RejectedExecutionException 而不是阻塞
+     */
+    @Override
+    public void put(Runnable runnable) {
+        if (!force((PriorityFutureTask<?>) runnable)) {
+            throw new RejectedExecutionException("队列已满: " + runnable);
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            idleWorkers++;
+            try {
+                while (tasks.isEmpty()) {
+                    notEmpty.await();
+                }
+            } finally {
+                idleWorkers--;
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            idleWorkers++;
+            try {
+                while (tasks.isEmpty()) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+            } finally {
+                idleWorkers--;
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return tasks.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            return tasks.isEmpty() ? null : tasks.first();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof PriorityFutureTask)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return removeTask((PriorityFutureTask<?>) o);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return capacity - tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 某个优先级当前排队的任务数
+     */
+    int queuedCount(int priority) {
+        lock.lock();
+        try {
+            return queuedPerPriority.getOrDefault(priority, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        lock.lock();
+        try {
+            int n = 0;
+            while (n < maxElements && !tasks.isEmpty()) {
+                c.add(dequeue());
+                n++;
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 快照迭代器（按出队顺序），remove 删除队列中对应的任务
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(tasks);
+        } finally {
+            lock.unlock();
+        }
+        return new Iterator<Runnable>() {
+            private int next;
+            private Runnable current;
+
+            @Override
+            public boolean hasNext() {
+                return next < snapshot.size();
+            }
+
+            @Override
+            public Runnable next() {
+                if (next >= snapshot.size()) {
+                    throw new NoSuchElementException();
+                }
+                current = snapshot.get(next++);
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityTaskQueue.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    // 以下方法须持有锁
+    private PriorityFutureTask<?> dequeue() {
+        PriorityFutureTask<?> task = tasks.pollFirst();
+        decrement(task.getPriority());
+        return task;
+    }
+
+    private boolean removeTask(PriorityFutureTask<?> task) {
+        if (!tasks.remove(task)) {
+            return false;
+        }
+        decrement(task.getPriority());
+        return true;
+    }
+
+    private void decrement(int priority) {
+        queuedPerPriority.computeIfPresent(priority, (key, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -1,7 +1,5 @@
 package com.sunboat.adminWeb.business.utils;
 
-import lombok.Data;
-
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
@@ -10,6 +8,9 @@ import java.util.function.Supplier;
 /**
  * 优先级任务处理工具类
  * 支持提交不同优先级的任务，并等待所有任务完成
+ * 任务先按优先级、同优先级按提交顺序（FIFO）执行；等待越久排序越靠前（老化），低优先级任务不会被持续到来的高优先级任务饿死。
+ * 返回的 CompletableFuture 被取消时，排队中的任务从队列移除，执行中的任务被中断。
+ * 排队任务超过上限时，优先级最低的任务被丢弃，其 Future 以 RejectedExecutionException 完成。
  */
 public class PriorityTaskUtils {
     
@@ -20,61 +21,26 @@ public class PriorityTaskUtils {
     public static final int PRIORITY_LOW = 4;
     public static final int PRIORITY_LOWEST = 5;
     
-    // 单例线程池，使用支持优先级的线程池
-    private static final ExecutorService priorityExecutor = new ThreadPoolExecutor(
-            Runtime.getRuntime().availableProcessors(),
-            Runtime.getRuntime().availableProcessors() * 2,
-            60L, TimeUnit.SECONDS,
-            new PriorityBlockingQueue<>(),
-            new ThreadFactory() {
-                private int counter = 0;
-                @Override
-                public Thread newThread(Runnable r) {
-                    Thread thread = new Thread(r, "priority-task-thread-" + counter++);
-                    thread.setDaemon(true);
-                    return thread;
-                }
-            }
-    );
-    
-    /**
-     * 优先级任务包装类
-     */
-    @Data
-    private static class PriorityTask implements Runnable, Comparable<PriorityTask> {
-        private final Runnable task;
-        private final int priority;
-        private final String description;
-        
-//        public PriorityTask(Runnable task, int priority, String description) {
-//            this.task = task;
-//            this.priority = priority;
-//            this.description = description;
-//        }
-        
-        @Override
-        public void run() {
-            task.run();
-        }
-        
-        @Override
-        public int compareTo(PriorityTask other) {
-            // 优先级数值越小，优先级越高
-            return Integer.compare(this.priority, other.priority);
-        }
-    }
+    // 单例线程池：线程都在忙时先扩容到 2×CPU 核心数再排队，排队超过上限时先丢弃优先级最低的任务
+    private static final PriorityThreadPoolExecutor priorityExecutor = PriorityThreadPoolExecutor.builder()
+            .corePoolSize(Runtime.getRuntime().availableProcessors())
+            .maximumPoolSize(Runtime.getRuntime().availableProcessors() * 2)
+            .keepAliveMillis(60_000)
+            .queueCapacity(10_000)
+            .threadNamePrefix("priority-task-thread-")
+            .build();
     
     /**
      * 提交单个带优先级的任务
      * @param task 任务
      * @param priority 优先级
      * @param description 任务描述
-     * @return Future对象
+     * @return 任务完成时完成的Future，取消时中断任务
+     * @throws RejectedExecutionException 排队已满且任务优先级不高于排在最后的任务
      */
-    public static Future<?> submit(Runnable task, int priority, String description) {
+    public static CompletableFuture<Void> submit(Runnable task, int priority, String description) {
         validatePriority(priority);
-        PriorityTask priorityTask = new PriorityTask(task, priority, description);
-        return priorityExecutor.submit(priorityTask);
+        return priorityExecutor.submit(task, priority, description);
     }
     
     /**
@@ -82,11 +48,12 @@ public class PriorityTaskUtils {
      * @param task 任务
      * @param priority 优先级
      * @param description 任务描述
-     * @return Future对象
+     * @return 任务完成时完成的Future，取消时中断任务
+     * @throws RejectedExecutionException 排队已满且任务优先级不高于排在最后的任务
      */
-    public static <T> Future<T> submit(Supplier<T> task, int priority, String description) {
+    public static <T> CompletableFuture<T> submit(Supplier<T> task, int priority, String description) {
         validatePriority(priority);
-        return priorityExecutor.submit(() -> task.get());
+        return priorityExecutor.submit(task::get, priority, description);
     }
     
     /**
@@ -127,16 +94,13 @@ public class PriorityTaskUtils {
             Runnable task = tasks.get(i);
             String taskDescription = String.format("%s - 任务 %d", batchDescription, i + 1);
             
-            PriorityTask priorityTask = new PriorityTask(() -> {
+            futures.add(submit(() -> {
                 try {
                     task.run();
                 } catch (Exception e) {
                     throw new RuntimeException("处理任务 [" + taskDescription + "] 出错", e);
                 }
-            }, priority, taskDescription);
-            
-            Future<?> future = priorityExecutor.submit(priorityTask);
-            futures.add(future);
+            }, priority, taskDescription));
         }
         
         // 等待所有任务完成
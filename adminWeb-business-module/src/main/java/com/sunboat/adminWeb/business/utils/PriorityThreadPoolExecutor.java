@@ -0,0 +1,238 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可扩容的有界优先级线程池
+ * ThreadPoolExecutor 只在队列拒绝任务时才创建超过核心数的线程，配合无界的 PriorityBlockingQueue 时最大线程数永远用不上。
+ * 这里的队列在没有空闲线程时先拒绝，线程池据此扩容到最大线程数，线程都在忙时才排队（先扩容后排队）；
+ * 队列有总容量和各优先级的排队上限，队列满时先丢弃优先级最低的任务。
+ * 任务按优先级（数值越小越优先）、同优先级先进先出执行，并随等待时间老化。
+ * 被拒绝或被挤出队列的任务，其 CompletableFuture 以 RejectedExecutionException 完成；新任务被拒绝时 submit 同时抛出该异常。
+ */
+public class PriorityThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final PriorityTaskQueue queue;
+    private final int defaultPriority;
+    private final long agingNanosPerLevel;
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong evictedTasks = new AtomicLong();
+
+    private PriorityThreadPoolExecutor(Builder builder, PriorityTaskQueue queue) {
+        super(builder.corePoolSize, builder.maximumPoolSize, builder.keepAliveMillis, TimeUnit.MILLISECONDS,
+                queue, threadFactory(builder.threadNamePrefix), new QueueWhenFullPolicy());
+        this.queue = queue;
+        this.defaultPriority = builder.defaultPriority;
+        this.agingNanosPerLevel = TimeUnit.MILLISECONDS.toNanos(builder.agingMillisPerLevel);
+        queue.setExecutor(this);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 提交带优先级的任务
+     * @param task 任务
+     * @param priority 优先级，数值越小越优先
+     * @param description 任务描述，用于日志和拒绝信息
+     * @return 任务完成时完成的Future，取消时中断任务
+     * @throws RejectedExecutionException 队列已满且任务优先级不高于队尾任务，或该优先级排队数已达上限，或线程池已关闭
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, int priority, String description) {
+        PriorityFutureTask<T> futureTask = new PriorityFutureTask<>(task, priority, description, this);
+        execute(futureTask);
+        return futureTask.getPromise();
+    }
+
+    public CompletableFuture<Void> submit(Runnable task, int priority, String description) {
+        return submit(Executors.callable(task, null), priority, description);
+    }
+
+    /**
+     * 未指定优先级的任务按默认优先级执行
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (command instanceof PriorityFutureTask) {
+            super.execute(command);
+        } else {
+            super.execute(new PriorityFutureTask<>(Executors.callable(command, null), defaultPriority,
+                    String.valueOf(command), this));
+        }
+    }
+
+    // ExecutorService.submit/invokeAll 同样包装为可比较的任务，不会把普通 FutureTask 放进优先级队列
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PriorityFutureTask<>(Executors.callable(runnable, value), defaultPriority,
+                String.valueOf(runnable), this);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PriorityFutureTask<>(callable, defaultPriority, String.valueOf(callable), this);
+    }
+
+    long getAgingNanosPerLevel() {
+        return agingNanosPerLevel;
+    }
+
+    void onEvicted() {
+        evictedTasks.incrementAndGet();
+    }
+
+    /**
+     * 某个优先级当前排队的任务数
+     */
+    public int getQueuedCount(int priority) {
+        return queue.queuedCount(priority);
+    }
+
+    /**
+     * 被拒绝的新任务数
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTasks.get();
+    }
+
+    /**
+     * 被更高优先级的任务挤出队列的任务数
+     */
+    public long getEvictedTaskCount() {
+        return evictedTasks.get();
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 线程数已到上限时队列才真正接收任务；仍放不下（或线程池已关闭）时拒绝
+     */
+    private static final class QueueWhenFullPolicy implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            PriorityThreadPoolExecutor pool = (PriorityThreadPoolExecutor) executor;
+            PriorityFutureTask<?> task = (PriorityFutureTask<?>) r;
+            if (!pool.isShutdown() && pool.queue.force(task)) {
+                return;
+            }
+            pool.rejectedTasks.incrementAndGet();
+            RejectedExecutionException e = new RejectedExecutionException(
+                    pool.isShutdown() ? "线程池已关闭: " + task : "队列已满，任务被拒绝: " + task);
+            task.reject(e);
+            throw e;
+        }
+    }
+
+    public static final class Builder {
+        private int corePoolSize = Runtime.getRuntime().availableProcessors();
+        private int maximumPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        private long keepAliveMillis = 60_000;
+        private int queueCapacity = 10_000;
+        private final Map<Integer, Integer> priorityCapacities = new HashMap<>();
+        private int defaultPriority = PriorityTaskUtils.PRIORITY_NORMAL;
+        private long agingMillisPerLevel = 2_000;
+        private String threadNamePrefix = "priority-pool-";
+
+        private Builder() {
+        }
+
+        /**
+         * 核心线程数，默认CPU核心数
+         */
+        public Builder corePoolSize(int corePoolSize) {
+            this.corePoolSize = corePoolSize;
+            return this;
+        }
+
+        /**
+         * 最大线程数，默认CPU核心数的2倍；线程都在忙时先扩容到这个数再排队
+         */
+        public Builder maximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+            return this;
+        }
+
+        /**
+         * 超过核心数的线程空闲多久后回收（毫秒），默认60秒
+         */
+        public Builder keepAliveMillis(long keepAliveMillis) {
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        /**
+         * 排队任务总数上限，默认10000
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * 某个优先级的排队上限，达到后该优先级的新任务被拒绝；未设置的优先级只受总容量限制
+         */
+        public Builder priorityCapacity(int priority, int capacity) {
+            this.priorityCapacities.put(priority, capacity);
+            return this;
+        }
+
+        /**
+         * execute、submit 等未指定优先级的任务使用的优先级，默认 PRIORITY_NORMAL
+         */
+        public Builder defaultPriority(int defaultPriority) {
+            this.defaultPriority = defaultPriority;
+            return this;
+        }
+
+        /**
+         * 老化步长（毫秒）：排队每多等待这么久，相当于提升一级优先级，默认2秒
+         */
+        public Builder agingMillisPerLevel(long agingMillisPerLevel) {
+            this.agingMillisPerLevel = agingMillisPerLevel;
+            return this;
+        }
+
+        /**
+         * 线程名前缀，默认 priority-pool-
+         */
+        public Builder threadNamePrefix(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+            return this;
+        }
+
+        public PriorityThreadPoolExecutor build() {
+            if (corePoolSize < 0 || maximumPoolSize <= 0 || maximumPoolSize < corePoolSize) {
+                throw new IllegalArgumentException("线程数配置无效: core=" + corePoolSize + ", max=" + maximumPoolSize);
+            }
+            if (queueCapacity <= 0 || agingMillisPerLevel <= 0) {
+                throw new IllegalArgumentException("队列容量和老化步长必须大于0");
+            }
+            for (Map.Entry<Integer, Integer> entry : priorityCapacities.entrySet()) {
+                if (entry.getValue() < 0) {
+                    throw new IllegalArgumentException("优先级 " + entry.getKey() + " 的排队上限不能小于0");
+                }
+            }
+            return new PriorityThreadPoolExecutor(this, new PriorityTaskQueue(queueCapacity, priorityCapacities));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sunboat.adminWeb.business.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 令牌摘要：JWT声明缓存和刷新令牌在Redis中的key都用令牌的SHA-256摘要，不保存令牌原文
+ * 输出小写十六进制，与此前hutool SecureUtil.sha256生成的刷新令牌key一致，已签发的刷新令牌不受影响。
+ */
+public final class TokenDigest {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // MessageDigest非线程安全，每个线程复用一个实例
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    });
+
+    private TokenDigest() {
+    }
+
+    /**
+     * 令牌的SHA-256摘要（小写十六进制，64个字符）
+     */
+    public static String sha256Hex(String token) {
+        MessageDigest md = SHA256.get();
+        md.reset();
+        byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+        char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX[(hash[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[hash[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,214 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应批次大小（AIMD）
+ * 每个批次结束后按耗时和吞吐调整下一批的大小，始终限制在 [minBatchSize, maxBatchSize] 内：
+ * <ul>
+ *     <li>批次失败，或单批耗时超过目标耗时：乘性减小（默认减半）</li>
+ *     <li>上一次增大后吞吐（行/秒）反而明显下降：乘性减小，说明已越过最优点</li>
+ *     <li>其余情况：加性增大一个步长</li>
+ * </ul>
+ * 当前批次大小和平滑后的吞吐通过 bindTo 注册为Micrometer指标。
+ */
+public class AdaptiveBatchSizer implements BatchSizer {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchSizer.class);
+
+    public static final String BATCH_SIZE_GAUGE = "bulk.batch.size";
+    public static final String THROUGHPUT_GAUGE = "bulk.batch.throughput";
+
+    // 吞吐指数平滑系数
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int additiveStep;
+    private final double decreaseFactor;
+    private final long targetLatencyNanos;
+    private final double throughputTolerance;
+
+    private volatile int batchSize;
+
+    // 以下状态只在 onBatchComplete 中读写（已同步）
+    private double ewmaThroughput;
+    private double throughputBeforeIncrease;
+    private boolean lastChangeWasIncrease;
+
+    private AdaptiveBatchSizer(Builder builder) {
+        this.minBatchSize = builder.minBatchSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.additiveStep = builder.additiveStep > 0 ? builder.additiveStep : Math.max(1, builder.minBatchSize);
+        this.decreaseFactor = builder.decreaseFactor;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(builder.targetLatencyMillis);
+        this.throughputTolerance = builder.throughputTolerance;
+        this.batchSize = clamp(builder.initialBatchSize > 0 ? builder.initialBatchSize : builder.minBatchSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int nextBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public synchronized void onBatchComplete(int rows, long elapsedNanos, boolean success) {
+        int current = batchSize;
+        if (!success || elapsedNanos > targetLatencyNanos) {
+            decrease(current, success ? "单批耗时超过目标" : "批次失败");
+            return;
+        }
+        if (rows <= 0 || elapsedNanos <= 0) {
+            return;
+        }
+
+        double throughput = rows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        ewmaThroughput = ewmaThroughput == 0 ? throughput : EWMA_ALPHA * throughput + (1 - EWMA_ALPHA) * ewmaThroughput;
+
+        if (lastChangeWasIncrease && ewmaThroughput < throughputBeforeIncrease * (1 - throughputTolerance)) {
+            decrease(current, "增大后吞吐下降");
+            return;
+        }
+        int next = clamp(current + additiveStep);
+        if (next != current) {
+            throughputBeforeIncrease = ewmaThroughput;
+            lastChangeWasIncrease = true;
+            batchSize = next;
+        }
+    }
+
+    /**
+     * 注册指标：bulk.batch.size（当前批次大小）、bulk.batch.throughput（平滑后的行/秒）
+     * @param registry 指标注册中心
+     * @param name 导入名称（如表名），作为 import 标签
+     */
+    public AdaptiveBatchSizer bindTo(MeterRegistry registry, String name) {
+        Gauge.builder(BATCH_SIZE_GAUGE, this, AdaptiveBatchSizer::nextBatchSize)
+                .description("自适应批次大小")
+                .tag("import", name)
+                .register(registry);
+        Gauge.builder(THROUGHPUT_GAUGE, this, AdaptiveBatchSizer::getThroughput)
+                .description("批量写入吞吐（行/秒，指数平滑）")
+                .tag("import", name)
+                .register(registry);
+        return this;
+    }
+
+    public synchronized double getThroughput() {
+        return ewmaThroughput;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    private void decrease(int current, String reason) {
+        int next = clamp((int) (current * decreaseFactor));
+        lastChangeWasIncrease = false;
+        // 批次大小变化后旧的吞吐不再有参考意义
+        ewmaThroughput = 0;
+        if (next != current) {
+            batchSize = next;
+            log.debug("批次大小 {} -> {}（{}）", current, next, reason);
+        }
+    }
+
+    private int clamp(int size) {
+        return Math.max(minBatchSize, Math.min(maxBatchSize, size));
+    }
+
+    public static final class Builder {
+        private int minBatchSize = 100;
+        private int maxBatchSize = 10000;
+        private int initialBatchSize;
+        private int additiveStep;
+        private double decreaseFactor = 0.5;
+        private long targetLatencyMillis = 1000;
+        private double throughputTolerance = 0.1;
+
+        private Builder() {
+        }
+
+        /**
+         * 批次大小下限，默认100
+         */
+        public Builder minBatchSize(int minBatchSize) {
+            this.minBatchSize = minBatchSize;
+            return this;
+        }
+
+        /**
+         * 批次大小上限，默认10000
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * 初始批次大小，默认等于下限
+         */
+        public Builder initialBatchSize(int initialBatchSize) {
+            this.initialBatchSize = initialBatchSize;
+            return this;
+        }
+
+        /**
+         * 每次增大的行数，默认等于下限
+         */
+        public Builder additiveStep(int additiveStep) {
+            this.additiveStep = additiveStep;
+            return this;
+        }
+
+        /**
+         * 减小时的乘数，默认0.5
+         */
+        public Builder decreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+            return this;
+        }
+
+        /**
+         * 单批目标耗时，超过即减小，默认1000毫秒（批次过大时锁持有时间和失败重试代价都会变大）
+         */
+        public Builder targetLatencyMillis(long targetLatencyMillis) {
+            this.targetLatencyMillis = targetLatencyMillis;
+            return this;
+        }
+
+        /**
+         * 增大后吞吐下降超过该比例即视为越过最优点，默认0.1
+         */
+        public Builder throughputTolerance(double throughputTolerance) {
+            this.throughputTolerance = throughputTolerance;
+            return this;
+        }
+
+        public AdaptiveBatchSizer build() {
+            if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+                throw new IllegalArgumentException("批次大小范围无效: [" + minBatchSize + ", " + maxBatchSize + "]");
+            }
+            if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+                throw new IllegalArgumentException("减小乘数必须在(0, 1)之间");
+            }
+            if (targetLatencyMillis <= 0) {
+                throw new IllegalArgumentException("目标耗时必须大于0");
+            }
+            return new AdaptiveBatchSizer(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 批次完成回调，在执行批次的线程中调用，实现需保证线程安全且尽量轻量
+ */
+public interface BatchListener {
+
+    BatchListener NONE = new BatchListener() {
+    };
+
+    /**
+     * 批次写入成功（可能经过重试）
+     */
+    default void onBatchSuccess(BatchOutcome outcome) {
+    }
+
+    /**
+     * 批次写入失败（重试次数用尽或不可重试）
+     */
+    default void onBatchFailure(BatchOutcome outcome) {
+    }
+
+    /**
+     * 断点推进（前面的批次全部成功），配置了断点存储时在保存之后调用
+     */
+    default void onCheckpoint(BulkCheckpoint checkpoint) {
+    }
+}
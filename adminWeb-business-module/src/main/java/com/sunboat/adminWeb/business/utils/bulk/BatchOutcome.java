@@ -0,0 +1,77 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 单个批次的执行结果：批次覆盖数据源中的哪些行、是否落库、重试了几次
+ */
+public class BatchOutcome {
+
+    private final long sequence;
+    // 批次第一行在数据源中的下标（从0开始，断点续传时包含已跳过的行）
+    private final long firstRow;
+    private final int rows;
+    private final int written;
+    private final int attempts;
+    private final long elapsedNanos;
+    // 最后一次尝试的异常，成功时为null
+    private final Throwable error;
+
+    public BatchOutcome(long sequence, long firstRow, int rows, int written, int attempts, long elapsedNanos,
+                        Throwable error) {
+        this.sequence = sequence;
+        this.firstRow = firstRow;
+        this.rows = rows;
+        this.written = written;
+        this.attempts = attempts;
+        this.elapsedNanos = elapsedNanos;
+        this.error = error;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * 批次最后一行之后的下标（不含）
+     */
+    public long getEndRow() {
+        return firstRow + rows;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getWritten() {
+        return written;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOutcome{sequence=" + sequence
+                + ", rows=[" + firstRow + ", " + getEndRow() + ")"
+                + ", written=" + written
+                + ", attempts=" + attempts
+                + ", error=" + error
+                + '}';
+    }
+}
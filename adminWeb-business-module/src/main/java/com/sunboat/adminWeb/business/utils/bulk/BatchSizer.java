@@ -0,0 +1,33 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 批次大小策略：引擎每攒一批前询问大小，批次结束后回报耗时
+ * 回报在执行批次的线程中并发调用，实现需线程安全
+ */
+@FunctionalInterface
+public interface BatchSizer {
+
+    /**
+     * 下一批的行数
+     */
+    int nextBatchSize();
+
+    /**
+     * 批次结束回报
+     * @param rows 批次行数
+     * @param elapsedNanos 写入耗时
+     * @param success 是否写入成功
+     */
+    default void onBatchComplete(int rows, long elapsedNanos, boolean success) {
+    }
+
+    /**
+     * 固定批次大小
+     */
+    static BatchSizer fixed(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("批次大小必须大于0");
+        }
+        return () -> batchSize;
+    }
+}
@@ -0,0 +1,43 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.util.List;
+
+/**
+ * 批次写入器，由调用者实现具体的写入逻辑（调用Mapper、JDBC批处理等）
+ */
+@FunctionalInterface
+public interface BatchWriter<T> {
+
+    /**
+     * 写入一批数据
+     * @param batch 一批数据（写入完成后引擎不再持有，可以安全地保存引用）
+     * @return 实际写入的行数
+     * @throws Exception 写入失败，整批记为失败
+     */
+    int write(List<T> batch) throws Exception;
+
+    /**
+     * 失败后能否整批重写：一批在一个事务中写入（失败时不留下任何行），或者写入本身幂等（如 ON DUPLICATE KEY UPDATE）时返回true
+     * 默认false，引擎不会重试，避免把失败前已提交的行再插入一遍
+     */
+    default boolean isRetrySafe() {
+        return false;
+    }
+
+    /**
+     * 声明写入器可以安全重试，调用方自行保证整批事务或幂等
+     */
+    static <T> BatchWriter<T> retrySafe(BatchWriter<T> writer) {
+        return new BatchWriter<T>() {
+            @Override
+            public int write(List<T> batch) throws Exception {
+                return writer.write(batch);
+            }
+
+            @Override
+            public boolean isRetrySafe() {
+                return true;
+            }
+        };
+    }
+}
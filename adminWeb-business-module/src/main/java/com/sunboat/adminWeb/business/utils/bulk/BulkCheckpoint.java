@@ -0,0 +1,29 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 导入断点：序号不大于 sequence 的批次全部成功，数据源前 rows 行已落库
+ * 批次并发执行、完成顺序不定，断点只在连续完成时推进；之后即使有批次成功，断点也停在第一个未完成的批次之前。
+ */
+public class BulkCheckpoint {
+
+    private final long sequence;
+    private final long rows;
+
+    public BulkCheckpoint(long sequence, long rows) {
+        this.sequence = sequence;
+        this.rows = rows;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkCheckpoint{sequence=" + sequence + ", rows=" + rows + '}';
+    }
+}
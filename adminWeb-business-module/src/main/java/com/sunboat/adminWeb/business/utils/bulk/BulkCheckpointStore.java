@@ -0,0 +1,25 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 导入断点存储
+ * 引擎在断点推进时保存、导入全部成功后清除；重新执行同一 importId 的导入时读取断点，跳过已落库的行。
+ */
+public interface BulkCheckpointStore {
+
+    /**
+     * 读取断点
+     * @param importId 导入标识（同一份数据源的多次执行必须相同）
+     * @return 断点，没有时返回null
+     */
+    BulkCheckpoint load(String importId);
+
+    /**
+     * 保存断点（同一导入的保存串行调用，后保存的断点总是更靠后）
+     */
+    void save(String importId, BulkCheckpoint checkpoint);
+
+    /**
+     * 清除断点
+     */
+    void clear(String importId);
+}
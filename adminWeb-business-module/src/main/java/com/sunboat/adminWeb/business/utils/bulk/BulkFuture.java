@@ -0,0 +1,142 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步导入的结果：导入结束（含部分批次失败）时以 BulkResult 完成，读取数据源出错时异常完成
+ * cancel 会停止读取新数据；cancel(true) 还会中断读取线程和正在写入的批次。取消后 Future 立即完成，
+ * 已在执行的批次在后台结束，之后的批次不再执行。导入过程中可随时通过 getProgress 查询进度。
+ */
+public class BulkFuture extends CompletableFuture<BulkResult> {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkFuture.class);
+
+    private final long expectedRows;
+    private final ProgressListener progressListener;
+    private final long progressIntervalNanos;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong lastReportNanos = new AtomicLong(startNanos);
+
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong completedBatches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    // 读取线程退出时完成；取消后 Future 立即完成，但读取线程要等在途批次结束才退出
+    private final CompletableFuture<Void> readerExit = new CompletableFuture<>();
+
+    private volatile boolean cancelRequested;
+    private volatile Thread reader;
+    // 正在写入批次的线程；登记、注销和中断都在 synchronized(runningThreads) 中进行，不会中断已转去执行别的任务的线程
+    private final Set<Thread> runningThreads = ConcurrentHashMap.newKeySet();
+
+    BulkFuture(long expectedRows, ProgressListener progressListener, long progressIntervalMillis) {
+        this.expectedRows = expectedRows > 0 ? expectedRows : -1;
+        this.progressListener = progressListener != null ? progressListener : ProgressListener.NONE;
+        this.progressIntervalNanos = TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis);
+    }
+
+    /**
+     * 当前进度
+     */
+    public BulkProgress getProgress() {
+        return new BulkProgress(rows.get(), writtenRows.get(), completedBatches.get(), failedBatches.get(),
+                expectedRows, System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        cancelRequested = true;
+        if (mayInterruptIfRunning) {
+            Thread readerThread = reader;
+            if (readerThread != null) {
+                readerThread.interrupt();
+            }
+            synchronized (runningThreads) {
+                for (Thread thread : runningThreads) {
+                    thread.interrupt();
+                }
+            }
+        }
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void setReader(Thread reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * 读取线程退出（所有在途批次已结束）后执行，用于归还导入占用的线程池租约等资源
+     * 不能挂在 Future 完成上：取消时 Future 先完成，读取线程和批次仍可能在使用这些资源
+     */
+    void onReaderExit(Runnable action) {
+        readerExit.thenRun(action);
+    }
+
+    void readerExited() {
+        readerExit.complete(null);
+    }
+
+    void onSubmitted(int batchRows) {
+        rows.addAndGet(batchRows);
+    }
+
+    // 批次开始写入，已取消时返回false
+    boolean enterBatch() {
+        synchronized (runningThreads) {
+            if (cancelRequested) {
+                return false;
+            }
+            runningThreads.add(Thread.currentThread());
+            return true;
+        }
+    }
+
+    void exitBatch() {
+        synchronized (runningThreads) {
+            runningThreads.remove(Thread.currentThread());
+            if (cancelRequested) {
+                // 清除取消时设置的中断标记，线程池线程继续执行其他任务
+                Thread.interrupted();
+            }
+        }
+    }
+
+    void onBatchDone(BatchOutcome outcome) {
+        writtenRows.addAndGet(outcome.getWritten());
+        completedBatches.incrementAndGet();
+        if (!outcome.isSuccess()) {
+            failedBatches.incrementAndGet();
+        }
+        long now = System.nanoTime();
+        long last = lastReportNanos.get();
+        if (now - last >= progressIntervalNanos && lastReportNanos.compareAndSet(last, now)) {
+            report();
+        }
+    }
+
+    // 导入结束时调用，保证最后一次进度与结果一致
+    void finish(BulkResult result) {
+        report();
+        complete(result);
+    }
+
+    private void report() {
+        try {
+            progressListener.onProgress(getProgress());
+        } catch (RuntimeException e) {
+            log.warn("进度回调异常: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,622 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 流式批量导入引擎
+ * 从Iterator/Stream/Spliterator按需读取数据，攒满一批即提交到线程池；在途批次达到上限时阻塞读取线程，
+ * 内存中最多只有 (maxInFlightBatches + 1) × 最大批次大小 行，与数据总量无关。
+ * 批次大小由 BatchSizer 决定，可以固定，也可以按批次耗时自适应（AdaptiveBatchSizer）。
+ * 瞬时错误按 RetryPolicy 重试（只重试声明了 isRetrySafe 的写入器）；指定 importId 并配置断点存储后，中断的导入再次执行时从断点继续。
+ * loadAsync 在独立的读取线程中执行导入，立即返回可取消、可查询进度的 BulkFuture。
+ * loadPartitioned 按键划分数据，每个分区的批次在一条串行通道中按顺序写入，各通道并行，并发写入互不争用同一段索引。
+ * 引擎本身无状态，可被多个导入共用；线程池由调用方传入并负责关闭。
+ */
+public class BulkLoadEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkLoadEngine.class);
+
+    // BulkResult 中最多保留的失败批次明细
+    private static final int MAX_FAILED_OUTCOMES = 1000;
+
+    private static final AtomicLong READER_SEQUENCE = new AtomicLong();
+
+    private final BatchSizer batchSizer;
+    private final int maxInFlightBatches;
+    private final Executor executor;
+    private final boolean failFast;
+    private final RetryPolicy retryPolicy;
+    private final BulkCheckpointStore checkpointStore;
+    private final long progressIntervalMillis;
+
+    private BulkLoadEngine(Builder builder) {
+        this.batchSizer = builder.batchSizer;
+        this.maxInFlightBatches = builder.maxInFlightBatches;
+        this.executor = builder.executor;
+        this.failFast = builder.failFast;
+        this.retryPolicy = builder.retryPolicy;
+        this.checkpointStore = builder.checkpointStore;
+        this.progressIntervalMillis = builder.progressIntervalMillis;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public BatchSizer getBatchSizer() {
+        return batchSizer;
+    }
+
+    public int getMaxInFlightBatches() {
+        return maxInFlightBatches;
+    }
+
+    public <T> BulkResult load(Iterable<? extends T> source, BatchWriter<T> writer) throws InterruptedException {
+        return load(null, source.iterator(), writer, BatchListener.NONE);
+    }
+
+    /**
+     * 顺序消费Stream（不会触发并行流），导入结束后不关闭Stream
+     */
+    public <T> BulkResult load(Stream<? extends T> source, BatchWriter<T> writer) throws InterruptedException {
+        return load(null, source.iterator(), writer, BatchListener.NONE);
+    }
+
+    public <T> BulkResult load(Spliterator<? extends T> source, BatchWriter<T> writer) throws InterruptedException {
+        return load(null, Spliterators.iterator(source), writer, BatchListener.NONE);
+    }
+
+    public <T> BulkResult load(Iterator<? extends T> source, BatchWriter<T> writer) throws InterruptedException {
+        return load(null, source, writer, BatchListener.NONE);
+    }
+
+    public <T> BulkResult load(Iterator<? extends T> source, BatchWriter<T> writer, BatchListener listener)
+            throws InterruptedException {
+        return load(null, source, writer, listener);
+    }
+
+    /**
+     * 执行导入，所有批次结束（成功或失败）后返回
+     * @param importId 导入标识，用于断点续传；为null或未配置断点存储时不记录断点
+     * @param source 数据源，只在调用线程中读取；续传时必须与上次按相同顺序产出相同的数据
+     * @param writer 批次写入器，在线程池中并发调用
+     * @param listener 批次完成回调
+     * @return 汇总结果；批次失败不抛异常，通过 BulkResult.getFirstError() 返回
+     * @throws InterruptedException 等待在途批次时被中断（已提交的批次仍会执行完毕后才返回）
+     */
+    public <T> BulkResult load(String importId, Iterator<? extends T> source, BatchWriter<T> writer,
+                               BatchListener listener) throws InterruptedException {
+        return doLoad(importId, source, writer, listener, null);
+    }
+
+    public <T> BulkFuture loadAsync(Iterator<? extends T> source, BatchWriter<T> writer) {
+        return loadAsync(null, source, writer, BatchListener.NONE, -1, ProgressListener.NONE);
+    }
+
+    public <T> BulkFuture loadAsync(Iterator<? extends T> source, BatchWriter<T> writer, long expectedRows,
+                                    ProgressListener progressListener) {
+        return loadAsync(null, source, writer, BatchListener.NONE, expectedRows, progressListener);
+    }
+
+    /**
+     * 异步执行导入：在新建的读取线程中读取数据源，调用线程（如Web请求线程）立即返回
+     * 批次仍在引擎的线程池中执行；进度按 progressIntervalMillis 间隔回调，导入结束时再回调一次。
+     * @param importId 导入标识，用于断点续传
+     * @param source 数据源，只在读取线程中读取
+     * @param writer 批次写入器
+     * @param listener 批次完成回调
+     * @param expectedRows 预计总行数，用于计算完成百分比和剩余时间；未知时传-1
+     * @param progressListener 进度回调
+     * @return 导入结束时完成；cancel(true) 中断读取和正在写入的批次
+     */
+    public <T> BulkFuture loadAsync(String importId, Iterator<? extends T> source, BatchWriter<T> writer,
+                                    BatchListener listener, long expectedRows, ProgressListener progressListener) {
+        BulkFuture future = new BulkFuture(expectedRows, progressListener, progressIntervalMillis);
+        Thread reader = new Thread(() -> {
+            try {
+                future.finish(doLoad(importId, source, writer, listener, future));
+            } catch (InterruptedException e) {
+                // cancel(true) 中断了读取线程，Future 已是取消状态
+                future.completeExceptionally(new CancellationException("导入被中断"));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                // 在途批次已全部结束（doLoad 返回前等待），可以释放导入占用的资源
+                future.readerExited();
+            }
+        }, "bulk-load-reader-" + READER_SEQUENCE.incrementAndGet());
+        reader.setDaemon(true);
+        future.setReader(reader);
+        try {
+            reader.start();
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            future.readerExited();
+        }
+        return future;
+    }
+
+    private <T> BulkResult doLoad(String importId, Iterator<? extends T> source, BatchWriter<T> writer,
+                                  BatchListener listener, BulkFuture future) throws InterruptedException {
+        String checkpointId = checkpointStore != null ? importId : null;
+        BulkCheckpoint resumeFrom = checkpointId != null ? checkpointStore.load(checkpointId) : null;
+        LoadState state = new LoadState(checkpointId, resumeFrom, listener, true, future);
+
+        // 断点之前的行已落库，直接跳过
+        long skipped = 0;
+        if (resumeFrom != null) {
+            while (skipped < resumeFrom.getRows() && source.hasNext()) {
+                source.next();
+                skipped++;
+            }
+            log.info("导入 {} 从断点继续：跳过 {} 行，从第 {} 批开始", importId, skipped, resumeFrom.getSequence() + 1);
+        }
+        state.skippedRows = skipped;
+
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        long sequence = state.firstSequence;
+        long firstRow = skipped;
+        try {
+            int batchSize = batchSizer.nextBatchSize();
+            List<T> batch = new ArrayList<>(batchSize);
+            while (source.hasNext() && !state.shouldStop()) {
+                batch.add(source.next());
+                if (batch.size() >= batchSize) {
+                    submit(sequence++, firstRow, batch, writer, inFlight, state);
+                    firstRow += batch.size();
+                    batchSize = batchSizer.nextBatchSize();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty() && !state.shouldStop()) {
+                submit(sequence, firstRow, batch, writer, inFlight, state);
+            }
+        } finally {
+            // 等待全部在途批次结束，不能在批次仍在写入时返回
+            inFlight.acquireUninterruptibly(maxInFlightBatches);
+            inFlight.release(maxInFlightBatches);
+        }
+
+        BulkResult result = state.toResult();
+        if (checkpointId != null && result.isSuccess()) {
+            // 全部完成，下次同名导入从头开始
+            checkpointStore.clear(checkpointId);
+        }
+        return result;
+    }
+
+    public <T> BulkResult loadPartitioned(Iterator<? extends T> source, KeyPartitioner<? super T> partitioner,
+                                          BatchWriter<T> writer) throws InterruptedException {
+        return loadPartitioned(source, partitioner, writer, BatchListener.NONE);
+    }
+
+    /**
+     * 按键分区导入：每个分区单独攒批，同一分区的批次按读取顺序串行写入，不同分区并行
+     * 内存中最多有 分区数 × 批次大小 行在攒批，另加 maxInFlightBatches 个在途批次；分区数一般取写入线程数。
+     * 不记录断点（行在各分区间交错，没有连续的断点）；批次的 firstRow 为该批第一行在所属分区内的下标。
+     * 某个批次失败后，同一分区后续的批次仍按 failFast 设置决定是否继续。
+     * @param source 数据源，只在调用线程中读取
+     * @param partitioner 键分区规则
+     * @param writer 批次写入器，同一分区不会并发调用
+     * @param listener 批次完成回调
+     * @return 汇总结果，每个批次计一次
+     */
+    public <T> BulkResult loadPartitioned(Iterator<? extends T> source, KeyPartitioner<? super T> partitioner,
+                                          BatchWriter<T> writer, BatchListener listener) throws InterruptedException {
+        int partitions = partitioner.partitions();
+        LoadState state = new LoadState(null, null, listener, false, null);
+        List<List<T>> buffers = new ArrayList<>(partitions);
+        int[] batchSizes = new int[partitions];
+        long[] partitionRows = new long[partitions];
+        SerialLane[] lanes = new SerialLane[partitions];
+        for (int i = 0; i < partitions; i++) {
+            batchSizes[i] = batchSizer.nextBatchSize();
+            buffers.add(new ArrayList<>(batchSizes[i]));
+            lanes[i] = new SerialLane();
+        }
+
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        long sequence = 0;
+        try {
+            while (source.hasNext() && !state.shouldStop()) {
+                T row = source.next();
+                int p = partitioner.partitionOf(row);
+                if (p < 0 || p >= partitions) {
+                    throw new IllegalStateException("分区号越界: " + p + "，分区数 " + partitions);
+                }
+                List<T> batch = buffers.get(p);
+                batch.add(row);
+                if (batch.size() >= batchSizes[p]) {
+                    submit(sequence++, partitionRows[p], batch, writer, inFlight, state, lanes[p]);
+                    partitionRows[p] += batch.size();
+                    batchSizes[p] = batchSizer.nextBatchSize();
+                    buffers.set(p, new ArrayList<>(batchSizes[p]));
+                }
+            }
+            for (int p = 0; p < partitions && !state.shouldStop(); p++) {
+                if (!buffers.get(p).isEmpty()) {
+                    submit(sequence++, partitionRows[p], buffers.get(p), writer, inFlight, state, lanes[p]);
+                }
+            }
+        } finally {
+            inFlight.acquireUninterruptibly(maxInFlightBatches);
+            inFlight.release(maxInFlightBatches);
+        }
+        return state.toResult();
+    }
+
+    private <T> void submit(long sequence, long firstRow, List<T> batch, BatchWriter<T> writer,
+                            Semaphore inFlight, LoadState state) throws InterruptedException {
+        submit(sequence, firstRow, batch, writer, inFlight, state, executor);
+    }
+
+    private <T> void submit(long sequence, long firstRow, List<T> batch, BatchWriter<T> writer,
+                            Semaphore inFlight, LoadState state, Executor target) throws InterruptedException {
+        // 在途批次已满时在这里阻塞，形成背压
+        inFlight.acquire();
+        if (state.shouldStop()) {
+            // 等待期间已有批次失败，丢弃这一批
+            inFlight.release();
+            return;
+        }
+        state.rows.addAndGet(batch.size());
+        state.batches.incrementAndGet();
+        if (state.future != null) {
+            state.future.onSubmitted(batch.size());
+        }
+        Runnable task = () -> {
+            try {
+                runBatch(sequence, firstRow, batch, writer, state);
+            } finally {
+                inFlight.release();
+            }
+        };
+        try {
+            target.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 线程池拒绝时由读取线程自己执行，同样起到限流作用
+            task.run();
+        } catch (RuntimeException | Error e) {
+            // 任务没有提交出去，不会再释放许可；不释放的话 doLoad 结束时会一直等待这个批次
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private <T> void runBatch(long sequence, long firstRow, List<T> batch, BatchWriter<T> writer, LoadState state) {
+        BulkFuture future = state.future;
+        if (future == null) {
+            writeWithRetry(sequence, firstRow, batch, writer, state);
+            return;
+        }
+        if (!future.enterBatch()) {
+            // 已取消：排队中的批次不再写入
+            state.onFailure(new BatchOutcome(sequence, firstRow, batch.size(), 0, 0, 0,
+                    new CancellationException("导入已取消")));
+            return;
+        }
+        try {
+            writeWithRetry(sequence, firstRow, batch, writer, state);
+        } finally {
+            future.exitBatch();
+        }
+    }
+
+    private <T> void writeWithRetry(long sequence, long firstRow, List<T> batch, BatchWriter<T> writer,
+                                    LoadState state) {
+        long start = System.nanoTime();
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            long attemptStart = System.nanoTime();
+            try {
+                int written = writer.write(batch);
+                batchSizer.onBatchComplete(batch.size(), System.nanoTime() - attemptStart, true);
+                state.onSuccess(new BatchOutcome(sequence, firstRow, batch.size(), written, attempt,
+                        System.nanoTime() - start, null));
+                return;
+            } catch (Throwable e) {
+                batchSizer.onBatchComplete(batch.size(), System.nanoTime() - attemptStart, false);
+                boolean retry = retryPolicy.shouldRetry(attempt, e);
+                if (retry && !writer.isRetrySafe()) {
+                    // 写入器可能已提交了一部分行，重写会重复插入
+                    log.warn("第 {} 批写入失败，写入器未声明可安全重试，不重试: {}", sequence, e.getMessage());
+                    retry = false;
+                }
+                if (!retry || state.shouldStop() || !backoff(attempt)) {
+                    state.onFailure(new BatchOutcome(sequence, firstRow, batch.size(), 0, attempt,
+                            System.nanoTime() - start, e));
+                    return;
+                }
+                state.retries.incrementAndGet();
+                log.warn("第 {} 批第 {} 次写入失败，重试: {}", sequence, attempt, e.getMessage());
+            }
+        }
+    }
+
+    // 重试前等待，被中断时放弃重试
+    private boolean backoff(int attempt) {
+        long millis = retryPolicy.backoffMillis(attempt);
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 一次导入的运行状态
+     */
+    private final class LoadState {
+        private final String checkpointId;
+        private final BatchListener listener;
+        // 是否按批次序号推进断点（分区导入时序号与数据源顺序无关，不推进）
+        private final boolean checkpointing;
+        // 异步导入的进度与取消状态，同步导入时为null
+        private final BulkFuture future;
+        private final long startNanos = System.nanoTime();
+        private final long firstSequence;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong writtenRows = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong failedBatches = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+        private final List<BatchOutcome> failedOutcomes = new ArrayList<>();
+        private volatile long skippedRows;
+
+        // 断点推进状态（以下字段在 synchronized(this) 中读写）
+        private BulkCheckpoint checkpoint;
+        private long nextSequence;
+        // 已完成但前面还有批次未完成的：序号 -> 批次结束行
+        private final TreeMap<Long, Long> completedAhead = new TreeMap<>();
+        // 最早的失败批次序号，断点不会越过它
+        private long blockedAt = Long.MAX_VALUE;
+
+        private LoadState(String checkpointId, BulkCheckpoint resumeFrom, BatchListener listener,
+                          boolean checkpointing, BulkFuture future) {
+            this.checkpointId = checkpointId;
+            this.listener = listener;
+            this.checkpointing = checkpointing;
+            this.future = future;
+            this.checkpoint = resumeFrom;
+            this.firstSequence = resumeFrom != null ? resumeFrom.getSequence() + 1 : 0;
+            this.nextSequence = firstSequence;
+        }
+
+        private boolean shouldStop() {
+            return (failFast && firstError.get() != null) || (future != null && future.isCancelRequested());
+        }
+
+        private void onSuccess(BatchOutcome outcome) {
+            writtenRows.addAndGet(outcome.getWritten());
+            if (checkpointing) {
+                advanceCheckpoint(outcome);
+            }
+            listener.onBatchSuccess(outcome);
+            if (future != null) {
+                future.onBatchDone(outcome);
+            }
+        }
+
+        private void onFailure(BatchOutcome outcome) {
+            failedBatches.incrementAndGet();
+            failedRows.addAndGet(outcome.getRows());
+            firstError.compareAndSet(null, outcome.getError());
+            synchronized (this) {
+                blockedAt = Math.min(blockedAt, outcome.getSequence());
+                completedAhead.tailMap(blockedAt).clear();
+                if (failedOutcomes.size() < MAX_FAILED_OUTCOMES) {
+                    failedOutcomes.add(outcome);
+                }
+            }
+            listener.onBatchFailure(outcome);
+            if (future != null) {
+                future.onBatchDone(outcome);
+            }
+        }
+
+        // 连续完成的批次推进断点；保存放在锁内，保证断点按顺序写入
+        private void advanceCheckpoint(BatchOutcome outcome) {
+            BulkCheckpoint advanced = null;
+            synchronized (this) {
+                if (outcome.getSequence() > blockedAt) {
+                    return;
+                }
+                completedAhead.put(outcome.getSequence(), outcome.getEndRow());
+                Long endRow;
+                while ((endRow = completedAhead.remove(nextSequence)) != null) {
+                    advanced = new BulkCheckpoint(nextSequence, endRow);
+                    nextSequence++;
+                }
+                if (advanced != null) {
+                    checkpoint = advanced;
+                    if (checkpointId != null) {
+                        saveQuietly(advanced);
+                    }
+                }
+            }
+            if (advanced != null) {
+                listener.onCheckpoint(advanced);
+            }
+        }
+
+        // 断点保存失败不影响导入本身，只是续传时会多写一些行
+        private void saveQuietly(BulkCheckpoint advanced) {
+            try {
+                checkpointStore.save(checkpointId, advanced);
+            } catch (RuntimeException e) {
+                log.warn("保存导入断点失败 {}: {}", checkpointId, e.getMessage());
+            }
+        }
+
+        private synchronized BulkResult toResult() {
+            return new BulkResult(rows.get(), writtenRows.get(), batches.get(), failedBatches.get(),
+                    failedRows.get(), skippedRows, retries.get(), System.nanoTime() - startNanos,
+                    firstError.get(), new ArrayList<>(failedOutcomes), checkpoint);
+        }
+    }
+
+    /**
+     * 串行通道：提交的任务按顺序逐个执行，同一时刻最多占用线程池的一个线程
+     * 通道空闲时由提交线程把通道交给线程池，之后由执行线程连续处理队列中的任务，不再经过线程池排队。
+     */
+    private final class SerialLane implements Executor {
+        // 在 synchronized(this) 中读写
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean scheduled;
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (this) {
+                queue.add(task);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 线程池拒绝时由提交线程执行，与普通批次一致
+                drain();
+            } catch (RuntimeException | Error e) {
+                // 通道未能调度：通道空闲时队列里只有这一个任务，撤回后由调用方释放许可，下次提交重新调度
+                synchronized (this) {
+                    queue.remove(task);
+                    scheduled = false;
+                }
+                throw e;
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        scheduled = false;
+                        return;
+                    }
+                }
+                next.run();
+            }
+        }
+    }
+
+    public static final class Builder {
+        private BatchSizer batchSizer = BatchSizer.fixed(1000);
+        private int maxInFlightBatches = Runtime.getRuntime().availableProcessors() * 2;
+        private Executor executor;
+        private boolean failFast = true;
+        private RetryPolicy retryPolicy = RetryPolicy.none();
+        private BulkCheckpointStore checkpointStore;
+        private long progressIntervalMillis = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * 每批行数，默认1000
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSizer = BatchSizer.fixed(batchSize);
+            return this;
+        }
+
+        /**
+         * 批次大小策略（如 AdaptiveBatchSizer），与 batchSize 二选一，后设置的生效
+         */
+        public Builder batchSizer(BatchSizer batchSizer) {
+            this.batchSizer = batchSizer;
+            return this;
+        }
+
+        /**
+         * 同时在途（排队或写入中）的最大批次数，默认CPU核心数×2
+         */
+        public Builder maxInFlightBatches(int maxInFlightBatches) {
+            this.maxInFlightBatches = maxInFlightBatches;
+            return this;
+        }
+
+        /**
+         * 执行批次的线程池（必填）
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 出现失败批次后是否停止读取新数据，默认true
+         */
+        public Builder failFast(boolean failFast) {
+            this.failFast = failFast;
+            return this;
+        }
+
+        /**
+         * 批次重试策略，默认不重试
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * 断点存储（FileCheckpointStore / RedisCheckpointStore），默认不记录断点
+         */
+        public Builder checkpointStore(BulkCheckpointStore checkpointStore) {
+            this.checkpointStore = checkpointStore;
+            return this;
+        }
+
+        /**
+         * 异步导入进度回调的最小间隔（毫秒），默认1000
+         */
+        public Builder progressIntervalMillis(long progressIntervalMillis) {
+            this.progressIntervalMillis = progressIntervalMillis;
+            return this;
+        }
+
+        public BulkLoadEngine build() {
+            if (batchSizer == null) {
+                throw new IllegalArgumentException("批次大小策略不能为空");
+            }
+            if (maxInFlightBatches <= 0) {
+                throw new IllegalArgumentException("在途批次数必须大于0");
+            }
+            if (executor == null) {
+                throw new IllegalArgumentException("线程池不能为空");
+            }
+            if (retryPolicy == null) {
+                throw new IllegalArgumentException("重试策略不能为空");
+            }
+            return new BulkLoadEngine(this);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步导入的进度快照
+ */
+public class BulkProgress {
+
+    // 已读取并提交的行数
+    private final long rows;
+    private final long writtenRows;
+    private final long completedBatches;
+    private final long failedBatches;
+    // 预计总行数，未知时为-1
+    private final long expectedRows;
+    private final long elapsedNanos;
+
+    public BulkProgress(long rows, long writtenRows, long completedBatches, long failedBatches,
+                        long expectedRows, long elapsedNanos) {
+        this.rows = rows;
+        this.writtenRows = writtenRows;
+        this.completedBatches = completedBatches;
+        this.failedBatches = failedBatches;
+        this.expectedRows = expectedRows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    public long getCompletedBatches() {
+        return completedBatches;
+    }
+
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 每秒写入行数
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? writtenRows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    /**
+     * 完成百分比，总行数未知时为-1
+     */
+    public double getPercent() {
+        return expectedRows > 0 ? Math.min(100.0, writtenRows * 100.0 / expectedRows) : -1;
+    }
+
+    /**
+     * 按当前速度估算的剩余时间（毫秒），总行数未知或尚无写入时为-1
+     */
+    public long getEtaMillis() {
+        double rate = getRowsPerSecond();
+        if (expectedRows <= 0 || rate <= 0) {
+            return -1;
+        }
+        long remaining = Math.max(0, expectedRows - writtenRows);
+        return (long) (remaining * 1000 / rate);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkProgress{rows=" + rows
+                + ", writtenRows=" + writtenRows
+                + ", completedBatches=" + completedBatches
+                + ", failedBatches=" + failedBatches
+                + ", expectedRows=" + expectedRows
+                + ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                + ", etaMs=" + getEtaMillis()
+                + '}';
+    }
+}
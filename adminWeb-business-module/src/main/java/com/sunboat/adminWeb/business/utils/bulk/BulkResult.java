@@ -0,0 +1,116 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次批量导入的汇总结果
+ */
+public class BulkResult {
+
+    // 已提交写入的行数（不含断点续传跳过的行）
+    private final long rows;
+    // 写入器返回的写入行数之和
+    private final long writtenRows;
+    private final long batches;
+    private final long failedBatches;
+    private final long failedRows;
+    // 断点续传时跳过的行数
+    private final long skippedRows;
+    // 重试次数之和
+    private final long retries;
+    private final long elapsedNanos;
+    // 第一个失败批次的异常，全部成功时为null
+    private final Throwable firstError;
+    // 失败批次的明细（按完成顺序，最多保留 MAX_FAILED_OUTCOMES 条）
+    private final List<BatchOutcome> failedOutcomes;
+    // 最后的断点，没有任何批次连续完成时为null
+    private final BulkCheckpoint checkpoint;
+
+    public BulkResult(long rows, long writtenRows, long batches, long failedBatches, long failedRows,
+                      long skippedRows, long retries, long elapsedNanos, Throwable firstError,
+                      List<BatchOutcome> failedOutcomes, BulkCheckpoint checkpoint) {
+        this.rows = rows;
+        this.writtenRows = writtenRows;
+        this.batches = batches;
+        this.failedBatches = failedBatches;
+        this.failedRows = failedRows;
+        this.skippedRows = skippedRows;
+        this.retries = retries;
+        this.elapsedNanos = elapsedNanos;
+        this.firstError = firstError;
+        this.failedOutcomes = Collections.unmodifiableList(failedOutcomes);
+        this.checkpoint = checkpoint;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getFailedBatches() {
+        return failedBatches;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    public List<BatchOutcome> getFailedOutcomes() {
+        return failedOutcomes;
+    }
+
+    public BulkCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public boolean isSuccess() {
+        return failedBatches == 0 && firstError == null;
+    }
+
+    /**
+     * 每秒写入行数
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos > 0 ? writtenRows * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResult{rows=" + rows
+                + ", writtenRows=" + writtenRows
+                + ", batches=" + batches
+                + ", failedBatches=" + failedBatches
+                + ", failedRows=" + failedRows
+                + ", skippedRows=" + skippedRows
+                + ", retries=" + retries
+                + ", elapsedMs=" + TimeUnit.NANOSECONDS.toMillis(elapsedNanos)
+                + ", checkpoint=" + checkpoint
+                + ", firstError=" + firstError
+                + '}';
+    }
+}
@@ -0,0 +1,338 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 全应用共用的批量写入线程池，并发度跟随数据库连接池的实时状态
+ * 并发度 = 最大连接数 - 保留连接数 - 其他业务正在使用或等待的连接数，且不超过 最大连接数 × maxPoolFraction，至少为1。
+ * 每个导入通过 openLease 获得一个租约（Executor），多个导入同时进行时按租约数平分并发度；
+ * 份额已满时提交任务的线程在 execute 中等待，与 BulkLoadEngine 的背压配合，导入不会排队占满连接池。
+ * 批量插入工具类通过 withLease / withLeaseAsync 使用租约，不需要自己管理租约的开关。
+ */
+public class BulkWriteExecutor {
+
+    public static final String PARALLELISM_GAUGE = "bulk.write.parallelism";
+    public static final String RUNNING_GAUGE = "bulk.write.running";
+    public static final String LEASES_GAUGE = "bulk.write.leases";
+
+    private final ConnectionPoolStats poolStats;
+    private final int reservedConnections;
+    private final double maxPoolFraction;
+    private final int maxThreads;
+    private final long refreshNanos;
+    private final ThreadPoolExecutor workers;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // 有任务结束、租约变化或需要重新读取连接池状态时唤醒等待的提交线程
+    private final Condition changed = lock.newCondition();
+
+    // 以下字段在 lock 中读写
+    private final List<Lease> leases = new ArrayList<>();
+    private int running;
+    private int parallelism;
+    private long refreshedAt;
+
+    /**
+     * @param poolStats 连接池状态
+     * @param reservedConnections 为普通请求保留的连接数
+     * @param maxPoolFraction 导入最多占用连接池的比例
+     * @param maxThreads 最大线程数，0 表示取连接池最大连接数
+     * @param refreshMillis 重新读取连接池状态的间隔
+     */
+    public BulkWriteExecutor(ConnectionPoolStats poolStats, int reservedConnections, double maxPoolFraction,
+                             int maxThreads, long refreshMillis) {
+        if (poolStats == null) {
+            throw new IllegalArgumentException("连接池状态不能为空");
+        }
+        if (reservedConnections < 0 || maxPoolFraction <= 0 || maxPoolFraction > 1 || maxThreads < 0) {
+            throw new IllegalArgumentException("保留连接数不能为负，占用比例须在(0, 1]之间，线程数不能为负");
+        }
+        this.poolStats = poolStats;
+        this.reservedConnections = reservedConnections;
+        this.maxPoolFraction = maxPoolFraction;
+        this.maxThreads = maxThreads > 0 ? maxThreads : Math.max(1, poolStats.getMaximumPoolSize());
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, refreshMillis));
+
+        AtomicInteger counter = new AtomicInteger(1);
+        ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "bulk-write-thread-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 提交前已按并发度放行，队列中不会积压任务；空闲线程超时回收
+        this.workers = new ThreadPoolExecutor(this.maxThreads, this.maxThreads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.workers.allowCoreThreadTimeOut(true);
+        this.parallelism = computeParallelism();
+        this.refreshedAt = System.nanoTime();
+    }
+
+    /**
+     * 开始一次导入，导入结束后关闭租约
+     * @param name 导入名称，用于日志和线程排查
+     */
+    public Lease openLease(String name) {
+        Lease lease = new Lease(name);
+        lock.lock();
+        try {
+            leases.add(lease);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return lease;
+    }
+
+    /**
+     * 在一个租约内执行同步导入：按共享并发度创建引擎，导入返回后关闭租约
+     * @param name 导入名称
+     * @param batchSizer 批次大小策略
+     * @param call 使用引擎执行导入
+     */
+    public BulkResult withLease(String name, BatchSizer batchSizer, EngineCall call) throws InterruptedException {
+        try (Lease lease = openLease(name)) {
+            return call.load(leasedEngine(batchSizer, lease));
+        }
+    }
+
+    /**
+     * 在一个租约内执行异步导入：租约在读取线程退出后关闭，
+     * 此时所有在途批次都已结束；取消导入时 Future 先完成，租约仍保持到读取线程退出
+     * @param name 导入名称
+     * @param batchSizer 批次大小策略
+     * @param call 使用引擎启动异步导入
+     */
+    public BulkFuture withLeaseAsync(String name, BatchSizer batchSizer, Function<BulkLoadEngine, BulkFuture> call) {
+        Lease lease = openLease(name);
+        try {
+            BulkFuture future = call.apply(leasedEngine(batchSizer, lease));
+            future.onReaderExit(lease::close);
+            return future;
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    private BulkLoadEngine leasedEngine(BatchSizer batchSizer, Lease lease) {
+        return BulkLoadEngine.builder()
+                .batchSizer(batchSizer)
+                .maxInFlightBatches(maxThreads * 2)
+                .executor(lease)
+                .build();
+    }
+
+    /**
+     * 线程池最大线程数，也是并发度的上限
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * 当前全部导入合计可用的并发度
+     */
+    public int getParallelism() {
+        lock.lock();
+        try {
+            refreshIfStale(System.nanoTime());
+            return parallelism;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 正在执行的批次数
+     */
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 进行中的导入数
+     */
+    public int getActiveLeases() {
+        lock.lock();
+        try {
+            return leases.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 注册并发度、执行中批次数、导入数指标
+     */
+    public BulkWriteExecutor bindTo(MeterRegistry registry) {
+        Gauge.builder(PARALLELISM_GAUGE, this, BulkWriteExecutor::getParallelism)
+                .description("批量写入可用并发度")
+                .register(registry);
+        Gauge.builder(RUNNING_GAUGE, this, BulkWriteExecutor::getRunning)
+                .description("批量写入执行中的批次数")
+                .register(registry);
+        Gauge.builder(LEASES_GAUGE, this, BulkWriteExecutor::getActiveLeases)
+                .description("进行中的批量导入数")
+                .register(registry);
+        return this;
+    }
+
+    /**
+     * 关闭线程池，等待执行中的批次结束
+     */
+    public void shutdown() {
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 其他业务占用（使用中 + 等待中）的连接不计入导入可用的连接；导入自己的批次已计入 running
+    private int computeParallelism() {
+        int maxPoolSize = poolStats.getMaximumPoolSize();
+        int cap = Math.min(maxThreads, Math.max(1, (int) (maxPoolSize * maxPoolFraction)));
+        int foreign = Math.max(0, poolStats.getActiveConnections() + poolStats.getThreadsAwaitingConnection() - running);
+        int available = maxPoolSize - reservedConnections - foreign;
+        return Math.max(1, Math.min(available, cap));
+    }
+
+    private void refreshIfStale(long now) {
+        if (now - refreshedAt >= refreshNanos) {
+            parallelism = computeParallelism();
+            refreshedAt = now;
+        }
+    }
+
+    // 总并发度未满且该导入未超出公平份额（向上取整）时可以执行
+    private boolean canRun(Lease lease) {
+        if (running >= parallelism) {
+            return false;
+        }
+        int share = (parallelism + leases.size() - 1) / Math.max(1, leases.size());
+        return lease.running < share;
+    }
+
+    /**
+     * 一次导入对共享线程池的使用权，作为 BulkLoadEngine 的 Executor
+     */
+    public final class Lease implements Executor, AutoCloseable {
+        private final String name;
+        // 在 lock 中读写
+        private int running;
+        private boolean closed;
+
+        private Lease(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * 份额已满时等待（不响应中断，保持中断标记），租约或线程池已关闭时抛出 RejectedExecutionException
+         */
+        @Override
+        public void execute(Runnable task) {
+            boolean interrupted = false;
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new RejectedExecutionException("导入租约已关闭: " + name);
+                }
+                while (true) {
+                    refreshIfStale(System.nanoTime());
+                    if (canRun(this)) {
+                        break;
+                    }
+                    try {
+                        // 超时后重新读取连接池状态，其他业务释放连接时并发度随之回升
+                        changed.awaitNanos(refreshNanos);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                BulkWriteExecutor.this.running++;
+                this.running++;
+            } finally {
+                lock.unlock();
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            try {
+                workers.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                BulkWriteExecutor.this.running--;
+                this.running--;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 导入结束，让出份额；已提交的批次不受影响
+         */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    leases.remove(this);
+                    changed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 使用租约创建的引擎执行一次同步导入
+     */
+    @FunctionalInterface
+    public interface EngineCall {
+        BulkResult load(BulkLoadEngine engine) throws InterruptedException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * 连接池的实时状态，BulkWriteExecutor 据此决定导入可以占用多少连接
+ */
+public interface ConnectionPoolStats {
+
+    /**
+     * 连接池最大连接数
+     */
+    int getMaximumPoolSize();
+
+    /**
+     * 正在使用中的连接数
+     */
+    int getActiveConnections();
+
+    /**
+     * 正在等待获取连接的线程数
+     */
+    int getThreadsAwaitingConnection();
+
+    /**
+     * 读取Hikari连接池的实时状态；连接池尚未启动时按空闲处理
+     */
+    static ConnectionPoolStats hikari(HikariDataSource dataSource) {
+        return new ConnectionPoolStats() {
+            @Override
+            public int getMaximumPoolSize() {
+                return dataSource.getMaximumPoolSize();
+            }
+
+            @Override
+            public int getActiveConnections() {
+                HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+
+            @Override
+            public int getThreadsAwaitingConnection() {
+                HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+            }
+        };
+    }
+
+    /**
+     * 无法读取连接池状态时使用：只知道连接池大小，视为其他业务不占用连接
+     */
+    static ConnectionPoolStats fixed(int maximumPoolSize) {
+        return new ConnectionPoolStats() {
+            @Override
+            public int getMaximumPoolSize() {
+                return maximumPoolSize;
+            }
+
+            @Override
+            public int getActiveConnections() {
+                return 0;
+            }
+
+            @Override
+            public int getThreadsAwaitingConnection() {
+                return 0;
+            }
+        };
+    }
+}
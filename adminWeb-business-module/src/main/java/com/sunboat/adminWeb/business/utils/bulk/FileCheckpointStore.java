@@ -0,0 +1,77 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * 本地文件断点：每个导入一个文件，内容为 "sequence,rows"
+ * 先写临时文件再原子替换，进程在写入过程中退出也不会留下半个断点。
+ */
+public class FileCheckpointStore implements BulkCheckpointStore {
+
+    private final Path directory;
+
+    public FileCheckpointStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("创建断点目录失败: " + directory, e);
+        }
+    }
+
+    @Override
+    public BulkCheckpoint load(String importId) {
+        Path file = file(importId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            int comma = content.indexOf(',');
+            if (comma < 0) {
+                throw new IllegalStateException("断点文件格式错误: " + file);
+            }
+            return new BulkCheckpoint(Long.parseLong(content.substring(0, comma)),
+                    Long.parseLong(content.substring(comma + 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取断点失败: " + file, e);
+        }
+    }
+
+    @Override
+    public void save(String importId, BulkCheckpoint checkpoint) {
+        Path file = file(importId);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        byte[] content = (checkpoint.getSequence() + "," + checkpoint.getRows()).getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.write(tmp, content);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存断点失败: " + file, e);
+        }
+    }
+
+    @Override
+    public void clear(String importId) {
+        try {
+            Files.deleteIfExists(file(importId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("清除断点失败: " + importId, e);
+        }
+    }
+
+    private Path file(String importId) {
+        // importId 作为文件名，替换掉路径分隔符等非法字符
+        return directory.resolve(importId.replaceAll("[^A-Za-z0-9._-]", "_") + ".checkpoint");
+    }
+}
@@ -0,0 +1,84 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.sunboat.adminWeb.business.maper.BulkInsertMapper;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * MyBatis-Plus insertBatchSomeColumn 插入：每 maxRowsPerStatement 行生成一条多行 VALUES 语句
+ * Mapper 需继承 BulkInsertMapper，SQL由 BulkSqlInjector 注入。
+ * 一批切出的多条语句在同一个Spring事务中执行，任一条失败时整批回滚。
+ */
+public class InsertBatchSomeColumnStrategy<T> implements InsertStrategy<T> {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final Class<? extends BulkInsertMapper<T>> mapperClass;
+    private final int maxRowsPerStatement;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 事务管理器按会话工厂的数据源创建
+     */
+    public InsertBatchSomeColumnStrategy(SqlSessionFactory sqlSessionFactory,
+                                         Class<? extends BulkInsertMapper<T>> mapperClass,
+                                         int maxRowsPerStatement) {
+        this(sqlSessionFactory, mapperClass, maxRowsPerStatement,
+                new DataSourceTransactionManager(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource()));
+    }
+
+    /**
+     * @param sqlSessionFactory 会话工厂
+     * @param mapperClass 继承 BulkInsertMapper 的Mapper接口
+     * @param maxRowsPerStatement 单条语句最多行数（行数×列数不能超过65535个占位符，且语句不能超过 max_allowed_packet）
+     * @param transactionManager 会话工厂数据源的事务管理器
+     */
+    public InsertBatchSomeColumnStrategy(SqlSessionFactory sqlSessionFactory,
+                                         Class<? extends BulkInsertMapper<T>> mapperClass,
+                                         int maxRowsPerStatement, PlatformTransactionManager transactionManager) {
+        if (maxRowsPerStatement <= 0) {
+            throw new IllegalArgumentException("单条语句行数必须大于0");
+        }
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.mapperClass = mapperClass;
+        this.maxRowsPerStatement = maxRowsPerStatement;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int write(List<T> batch) {
+        Integer written = transactionTemplate.execute(status -> writeInTransaction(batch));
+        return written != null ? written : 0;
+    }
+
+    /**
+     * 整批在一个事务中提交，失败时不会留下部分行，可以安全地整批重试
+     */
+    @Override
+    public boolean isRetrySafe() {
+        return true;
+    }
+
+    private int writeInTransaction(List<T> batch) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.SIMPLE, false)) {
+            BulkInsertMapper<T> mapper = session.getMapper(mapperClass);
+            int written = 0;
+            for (int from = 0; from < batch.size(); from += maxRowsPerStatement) {
+                int to = Math.min(from + maxRowsPerStatement, batch.size());
+                written += mapper.insertBatchSomeColumn(batch.subList(from, to));
+            }
+            session.commit();
+            return written;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "insert-batch-some-column";
+    }
+}
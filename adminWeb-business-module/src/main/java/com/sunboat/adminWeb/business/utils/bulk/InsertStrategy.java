@@ -0,0 +1,20 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 内置的批量插入方式，决定一批数据以什么样的SQL写入数据库
+ * <ul>
+ *     <li>{@link JdbcBatchInsertStrategy}：SqlSession BATCH 模式，逐行 insert，每N行 flush 一次</li>
+ *     <li>{@link MultiRowValuesInsertStrategy}：生成多行 VALUES 语句，按 max_allowed_packet 切分</li>
+ *     <li>{@link InsertBatchSomeColumnStrategy}：MyBatis-Plus insertBatchSomeColumn</li>
+ * </ul>
+ * 实现需线程安全，同一实例会被多个批次并发调用。内置实现每批在一个事务中写入，失败可以整批重试。
+ */
+public interface InsertStrategy<T> extends BatchWriter<T> {
+
+    /**
+     * 策略名称，用于日志和基准测试报告
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,90 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * SqlSession BATCH 模式插入：每批使用一个批处理会话逐行调用 Mapper.insert，每 flushEvery 行 flush 一次
+ * 驱动开启 rewriteBatchedStatements=true 时，一次 flush 会被改写为多行 VALUES，只有一次网络往返。
+ * 自动填充、主键生成等MyBatis-Plus特性与单条 insert 完全一致。
+ * 每批在一个Spring事务中写入：连接池默认自动提交，mybatis-spring 也会忽略 openSession 的 autoCommit 参数，
+ * 不开事务时每次 flush 都会单独提交；在事务中任一行失败，整批回滚。
+ */
+public class JdbcBatchInsertStrategy<T> implements InsertStrategy<T> {
+
+    private final SqlSessionFactory sqlSessionFactory;
+    private final Class<? extends BaseMapper<T>> mapperClass;
+    private final int flushEvery;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 事务管理器按会话工厂的数据源创建
+     */
+    public JdbcBatchInsertStrategy(SqlSessionFactory sqlSessionFactory, Class<? extends BaseMapper<T>> mapperClass,
+                                   int flushEvery) {
+        this(sqlSessionFactory, mapperClass, flushEvery,
+                new DataSourceTransactionManager(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource()));
+    }
+
+    /**
+     * @param sqlSessionFactory 会话工厂（Spring中直接注入）
+     * @param mapperClass Mapper接口
+     * @param flushEvery 每多少行执行一次JDBC批处理
+     * @param transactionManager 会话工厂数据源的事务管理器
+     */
+    public JdbcBatchInsertStrategy(SqlSessionFactory sqlSessionFactory, Class<? extends BaseMapper<T>> mapperClass,
+                                   int flushEvery, PlatformTransactionManager transactionManager) {
+        if (flushEvery <= 0) {
+            throw new IllegalArgumentException("flush行数必须大于0");
+        }
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.mapperClass = mapperClass;
+        this.flushEvery = flushEvery;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int write(List<T> batch) {
+        Integer written = transactionTemplate.execute(status -> writeInTransaction(batch));
+        return written != null ? written : 0;
+    }
+
+    /**
+     * 整批在一个事务中提交，失败时不会留下部分行，可以安全地整批重试
+     */
+    @Override
+    public boolean isRetrySafe() {
+        return true;
+    }
+
+    // 会话取到的是事务绑定的连接，flush 和 commit 都不会单独提交
+    private int writeInTransaction(List<T> batch) {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            BaseMapper<T> mapper = session.getMapper(mapperClass);
+            int pending = 0;
+            for (T entity : batch) {
+                mapper.insert(entity);
+                if (++pending >= flushEvery) {
+                    session.flushStatements();
+                    pending = 0;
+                }
+            }
+            session.flushStatements();
+            session.commit();
+            // 批处理改写后驱动返回的影响行数不可靠（SUCCESS_NO_INFO），按整批计数
+            return batch.size();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc-batch";
+    }
+}
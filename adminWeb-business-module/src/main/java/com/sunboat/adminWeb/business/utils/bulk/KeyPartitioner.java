@@ -0,0 +1,143 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按键划分数据行，BulkLoadEngine.loadPartitioned 为每个分区分配一条串行通道
+ * 各通道写入互不相交的键空间，并发批次不会争用同一段二级索引页和自增锁。
+ */
+public interface KeyPartitioner<T> {
+
+    /**
+     * 分区数
+     */
+    int partitions();
+
+    /**
+     * 数据行所属的分区，取值 [0, partitions())
+     */
+    int partitionOf(T row);
+
+    /**
+     * 按键哈希划分：各分区行数均匀，适合随机主键、唯一键
+     * @param keyExtractor 取键，键为null的行归入分区0
+     * @param partitions 分区数
+     */
+    static <T> KeyPartitioner<T> hash(Function<? super T, ?> keyExtractor, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("分区数必须大于0");
+        }
+        return new KeyPartitioner<T>() {
+            @Override
+            public int partitions() {
+                return partitions;
+            }
+
+            @Override
+            public int partitionOf(T row) {
+                Object key = keyExtractor.apply(row);
+                if (key == null) {
+                    return 0;
+                }
+                // 打散hashCode的低位（Long、Integer等键的hashCode分布集中）
+                int h = key.hashCode() * 0x9E3779B9;
+                h ^= h >>> 16;
+                return Math.floorMod(h, partitions);
+            }
+        };
+    }
+
+    /**
+     * 按 long 键哈希划分，取键不装箱
+     * @param keyExtractor 取键
+     * @param partitions 分区数
+     */
+    static <T> KeyPartitioner<T> hashLong(ToLongFunction<? super T> keyExtractor, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("分区数必须大于0");
+        }
+        return new KeyPartitioner<T>() {
+            @Override
+            public int partitions() {
+                return partitions;
+            }
+
+            @Override
+            public int partitionOf(T row) {
+                return hashPartition(keyExtractor.applyAsLong(row), partitions);
+            }
+        };
+    }
+
+    /**
+     * long 键所属的哈希分区，与 hashLong 的划分一致
+     */
+    static int hashPartition(long key, int partitions) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (h ^ (h >>> 32)), partitions);
+    }
+
+    /**
+     * 按键范围划分：每个分区是一段连续的键，写入集中在B+树的相邻页上，适合自增、时间等有序键
+     * @param keyExtractor 取键，键为null的行归入分区0
+     * @param splitPoints 升序的分界点，n个分界点得到n+1个分区；键等于分界点时归入右侧分区
+     */
+    static <T, K extends Comparable<? super K>> KeyPartitioner<T> range(Function<? super T, ? extends K> keyExtractor,
+                                                                        List<? extends K> splitPoints) {
+        List<K> points = new ArrayList<>(splitPoints);
+        for (int i = 1; i < points.size(); i++) {
+            if (points.get(i - 1).compareTo(points.get(i)) >= 0) {
+                throw new IllegalArgumentException("分界点必须严格升序");
+            }
+        }
+        Comparator<K> comparator = Comparator.naturalOrder();
+        return new KeyPartitioner<T>() {
+            @Override
+            public int partitions() {
+                return points.size() + 1;
+            }
+
+            @Override
+            public int partitionOf(T row) {
+                K key = keyExtractor.apply(row);
+                if (key == null) {
+                    return 0;
+                }
+                // 二分查找：小于等于key的分界点个数即分区号
+                int low = 0;
+                int high = points.size();
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (comparator.compare(points.get(mid), key) <= 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                return low;
+            }
+        };
+    }
+
+    /**
+     * 把 [min, max] 均分为若干段的范围划分，适合已知取值区间的数值主键
+     */
+    static <T> KeyPartitioner<T> range(Function<? super T, Long> keyExtractor, long min, long max, int partitions) {
+        if (partitions <= 0 || max < min) {
+            throw new IllegalArgumentException("分区数必须大于0且max不小于min");
+        }
+        List<Long> points = new ArrayList<>(partitions - 1);
+        double step = ((double) max - min + 1) / partitions;
+        for (int i = 1; i < partitions; i++) {
+            long point = min + (long) Math.ceil(step * i);
+            if (points.isEmpty() || point > points.get(points.size() - 1)) {
+                points.add(point);
+            }
+        }
+        return range(keyExtractor, points);
+    }
+}
@@ -0,0 +1,23 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 执行 LOAD DATA LOCAL INFILE 语句，把数据流交给驱动
+ * 默认实现为 MySqlLoadDataExecutor；测试中可以替换为读取数据流的替身，不需要真实的MySQL。
+ */
+public interface LoadDataExecutor {
+
+    /**
+     * 连接是否支持以数据流方式执行 LOAD DATA LOCAL INFILE
+     */
+    boolean supports(Connection connection) throws SQLException;
+
+    /**
+     * 执行语句，驱动从 data 中读取文件内容
+     * @return 导入的行数
+     */
+    long execute(Connection connection, String sql, InputStream data) throws SQLException;
+}
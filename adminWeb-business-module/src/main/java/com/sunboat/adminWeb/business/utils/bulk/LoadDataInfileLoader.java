@@ -0,0 +1,382 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * LOAD DATA LOCAL INFILE 导入：数据行在驱动读取时即时编码为文本流，不生成临时文件，内存占用与数据量无关
+ * 每个数据流占用一个连接、执行一条语句；多个数据流（如按分区拆分）在线程池中并行导入。
+ * 连接不支持（非MySQL）或服务端禁用了 local_infile 时，改用配置的引擎与插入策略分批写入。
+ * 语句在独立连接上以自动提交方式执行，不参与当前Spring事务；中途失败时已导入的行不会回滚。
+ * LOCAL 模式下服务端把重复键、数据转换错误降级为警告并跳过该行，语句本身仍成功：
+ * 导入行数少于数据流行数时，该数据流按失败统计，差值计入失败行数。
+ * 表名、分区名、列名只允许字母、数字、下划线、$ 和非ASCII字符，生成语句时加反引号。
+ */
+public class LoadDataInfileLoader<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDataInfileLoader.class);
+
+    // 服务端或客户端禁用 LOAD DATA LOCAL 时的错误码
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+
+    // 允许的标识符字符（MySQL不加引号时合法的字符）
+    private static final Pattern IDENTIFIER = Pattern.compile("[0-9A-Za-z_$\\u0080-\\uFFFF]+");
+
+    private final DataSource dataSource;
+    private final String table;
+    // 已加反引号的表名和列清单
+    private final String quotedTable;
+    private final String quotedColumns;
+    private final List<Function<? super T, ?>> extractors;
+    private final Executor executor;
+    private final LoadDataExecutor loadDataExecutor;
+    private final BulkLoadEngine fallbackEngine;
+    private final InsertStrategy<T> fallbackStrategy;
+
+    private LoadDataInfileLoader(Builder<T> builder) {
+        this.dataSource = builder.dataSource;
+        this.table = builder.table;
+        this.quotedTable = quoteTable(builder.table);
+        List<String> quoted = new ArrayList<>(builder.columns.size());
+        for (String column : builder.columns) {
+            quoted.add(quoteIdentifier(column));
+        }
+        this.quotedColumns = String.join(", ", quoted);
+        this.extractors = Collections.unmodifiableList(new ArrayList<>(builder.extractors));
+        this.executor = builder.executor;
+        this.loadDataExecutor = builder.loadDataExecutor;
+        this.fallbackEngine = builder.fallbackEngine;
+        this.fallbackStrategy = builder.fallbackStrategy;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 单个数据流导入整张表
+     */
+    public BulkResult load(Iterator<? extends T> rows) throws InterruptedException {
+        return loadPartitions(Collections.singletonList(new PartitionSource<T>(null, rows)));
+    }
+
+    /**
+     * 多个数据流并行导入，每个数据流一条语句
+     * @param sources 数据流，指定了分区名时写入 PARTITION (p)
+     * @return 汇总结果，每个数据流计为一个批次
+     */
+    public BulkResult loadPartitions(List<PartitionSource<T>> sources) throws InterruptedException {
+        long start = System.nanoTime();
+        List<CompletableFuture<BulkResult>> futures = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            PartitionSource<T> source = sources.get(i);
+            long sequence = i;
+            futures.add(CompletableFuture.supplyAsync(() -> loadStream(sequence, source), executor));
+        }
+
+        List<BulkResult> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<BulkResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            for (CompletableFuture<BulkResult> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            // loadStream 自行捕获异常，这里只会是编程错误
+            throw new IllegalStateException("LOAD DATA 导入任务异常", e.getCause());
+        }
+        return merge(results, System.nanoTime() - start);
+    }
+
+    /**
+     * 生成的 LOAD DATA 语句（字段以制表符分隔、反斜杠转义，与 TsvRowInputStream 的编码一致）
+     * @throws IllegalArgumentException 分区名包含不允许的字符
+     */
+    public String sql(String partition) {
+        StringBuilder sql = new StringBuilder("LOAD DATA LOCAL INFILE 'stream' INTO TABLE ").append(quotedTable);
+        if (partition != null) {
+            sql.append(" PARTITION (").append(quoteIdentifier(partition)).append(')');
+        }
+        return sql.append(" CHARACTER SET utf8mb4")
+                .append(" FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'")
+                .append(" LINES TERMINATED BY '\\n'")
+                .append(" (").append(quotedColumns).append(')')
+                .toString();
+    }
+
+    // 库名.表名 两部分分别加引号
+    private static String quoteTable(String table) {
+        int dot = table.indexOf('.');
+        if (dot < 0) {
+            return quoteIdentifier(table);
+        }
+        return quoteIdentifier(table.substring(0, dot)) + '.' + quoteIdentifier(table.substring(dot + 1));
+    }
+
+    /**
+     * 校验标识符并加反引号；已带反引号的名称（如MyBatis-Plus中为关键字列配置的列名）先去掉再校验
+     */
+    private static String quoteIdentifier(String identifier) {
+        String name = identifier;
+        if (name.length() > 2 && name.startsWith("`") && name.endsWith("`")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("无效的标识符: " + identifier);
+        }
+        return '`' + name + '`';
+    }
+
+    private BulkResult loadStream(long sequence, PartitionSource<T> source) {
+        long start = System.nanoTime();
+        TsvRowInputStream<T> stream = new TsvRowInputStream<>(source.getRows(), extractors);
+        try (Connection connection = dataSource.getConnection()) {
+            if (loadDataExecutor.supports(connection)) {
+                long written = loadDataExecutor.execute(connection, sql(source.getPartition()), stream);
+                return streamResult(sequence, source.getPartition(), stream.getRowCount(), written,
+                        System.nanoTime() - start, null);
+            }
+        } catch (SQLException e) {
+            // 尚未消费任何数据行时才能安全地整体改用分批插入
+            if (stream.getRowCount() == 0 && isLocalInfileDisabled(e)) {
+                return fallback(source, e.getMessage());
+            }
+            log.error("LOAD DATA 导入失败, table={}, partition={}: {}", table, source.getPartition(), e.getMessage());
+            return streamResult(sequence, source.getPartition(), stream.getRowCount(), 0,
+                    System.nanoTime() - start, e);
+        } catch (RuntimeException e) {
+            log.error("LOAD DATA 导入失败, table={}, partition={}: {}", table, source.getPartition(), e.getMessage());
+            return streamResult(sequence, source.getPartition(), stream.getRowCount(), 0,
+                    System.nanoTime() - start, e);
+        }
+        // 先归还连接再分批插入，避免连接池较小时互相等待
+        return fallback(source, "连接不支持 LOAD DATA LOCAL INFILE");
+    }
+
+    private BulkResult fallback(PartitionSource<T> source, String reason) {
+        if (fallbackEngine == null || fallbackStrategy == null) {
+            throw new IllegalStateException("无法使用 LOAD DATA LOCAL INFILE 且未配置分批插入: " + reason);
+        }
+        log.info("改用分批插入({}), table={}: {}", fallbackStrategy.getName(), table, reason);
+        try {
+            return fallbackEngine.load(source.getRows(), fallbackStrategy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("分批插入被中断", e);
+        }
+    }
+
+    private static boolean isLocalInfileDisabled(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                int code = ((SQLException) t).getErrorCode();
+                if (code == ER_NOT_ALLOWED_COMMAND || code == ER_CLIENT_LOCAL_FILES_DISABLED) {
+                    return true;
+                }
+            }
+            String message = t.getMessage();
+            if (message != null && message.contains("Loading local data is disabled")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一个数据流的结果；语句成功但导入行数少于数据流行数时（被服务端忽略的行），同样按失败统计
+     */
+    private BulkResult streamResult(long sequence, String partition, long rows, long written, long elapsedNanos,
+                                    Throwable error) {
+        long failedRows = Math.max(0, rows - written);
+        if (error == null && failedRows > 0) {
+            error = new SQLException("LOAD DATA 有 " + failedRows + " 行未导入（共 " + rows
+                    + " 行），重复键或数据转换错误在 LOCAL 模式下被服务端忽略，可用 SHOW WARNINGS 查看");
+            log.warn("LOAD DATA 部分行未导入, table={}, partition={}: {}", table, partition, error.getMessage());
+        }
+        if (error == null) {
+            return new BulkResult(rows, written, 1, 0, 0, 0, 0, elapsedNanos, null, Collections.emptyList(), null);
+        }
+        BatchOutcome outcome = new BatchOutcome(sequence, 0, (int) Math.min(rows, Integer.MAX_VALUE),
+                (int) Math.min(written, Integer.MAX_VALUE), 1, elapsedNanos, error);
+        return new BulkResult(rows, written, 1, 1, failedRows, 0, 0, elapsedNanos, error,
+                Collections.singletonList(outcome), null);
+    }
+
+    private static BulkResult merge(List<BulkResult> results, long elapsedNanos) {
+        long rows = 0, written = 0, batches = 0, failedBatches = 0, failedRows = 0, skipped = 0, retries = 0;
+        Throwable firstError = null;
+        List<BatchOutcome> failedOutcomes = new ArrayList<>();
+        for (BulkResult result : results) {
+            rows += result.getRows();
+            written += result.getWrittenRows();
+            batches += result.getBatches();
+            failedBatches += result.getFailedBatches();
+            failedRows += result.getFailedRows();
+            skipped += result.getSkippedRows();
+            retries += result.getRetries();
+            failedOutcomes.addAll(result.getFailedOutcomes());
+            if (firstError == null) {
+                firstError = result.getFirstError();
+            }
+        }
+        return new BulkResult(rows, written, batches, failedBatches, failedRows, skipped, retries,
+                elapsedNanos, firstError, failedOutcomes, null);
+    }
+
+    /**
+     * 一个数据流及其目标分区
+     */
+    public static final class PartitionSource<T> {
+        private final String partition;
+        private final Iterator<? extends T> rows;
+
+        /**
+         * @param partition 分区名，null 表示由MySQL按分区键路由
+         * @param rows 数据行
+         */
+        public PartitionSource(String partition, Iterator<? extends T> rows) {
+            this.partition = partition;
+            this.rows = rows;
+        }
+
+        public String getPartition() {
+            return partition;
+        }
+
+        public Iterator<? extends T> getRows() {
+            return rows;
+        }
+    }
+
+    public static final class Builder<T> {
+        private DataSource dataSource;
+        private String table;
+        private final List<String> columns = new ArrayList<>();
+        private final List<Function<? super T, ?>> extractors = new ArrayList<>();
+        private Executor executor;
+        private LoadDataExecutor loadDataExecutor = new MySqlLoadDataExecutor();
+        private BulkLoadEngine fallbackEngine;
+        private InsertStrategy<T> fallbackStrategy;
+
+        private Builder() {
+        }
+
+        /**
+         * 数据源，连接URL需包含 allowLoadLocalInfile=true
+         */
+        public Builder<T> dataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+            return this;
+        }
+
+        public Builder<T> table(String table) {
+            this.table = table;
+            return this;
+        }
+
+        /**
+         * 追加一列及其取值方式，列的顺序即数据流中字段的顺序
+         */
+        public Builder<T> column(String column, Function<? super T, ?> extractor) {
+            columns.add(column);
+            extractors.add(extractor);
+            return this;
+        }
+
+        /**
+         * 按MyBatis-Plus表信息设置表名和全部列（对应Mapper需已注册）
+         * 自增主键交给数据库生成；ASSIGN_ID / ASSIGN_UUID 主键为空时在编码时生成
+         */
+        public Builder<T> fromEntity(Class<T> entityClass) {
+            TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+            if (tableInfo == null) {
+                throw new IllegalStateException("未找到实体对应的表信息，请确认Mapper已注册: " + entityClass.getName());
+            }
+            table(tableInfo.getTableName());
+            IdType idType = tableInfo.getIdType();
+            if (tableInfo.havePK() && idType != IdType.AUTO) {
+                column(tableInfo.getKeyColumn(), entity -> keyValue(tableInfo, idType, entity));
+            }
+            for (TableFieldInfo field : tableInfo.getFieldList()) {
+                String property = field.getProperty();
+                column(field.getColumn(), entity -> tableInfo.getPropertyValue(entity, property));
+            }
+            return this;
+        }
+
+        /**
+         * 并行导入多个数据流的线程池（必填）
+         * 每个任务在读取数据流、等待MySQL执行语句期间一直阻塞，不能使用 ForkJoinPool.commonPool() 等共享计算线程池
+         */
+        public Builder<T> executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * 替换语句执行方式，测试中可用于模拟MySQL
+         */
+        public Builder<T> loadDataExecutor(LoadDataExecutor loadDataExecutor) {
+            this.loadDataExecutor = loadDataExecutor;
+            return this;
+        }
+
+        /**
+         * 无法使用 LOAD DATA 时改用的分批插入
+         */
+        public Builder<T> fallback(BulkLoadEngine engine, InsertStrategy<T> strategy) {
+            this.fallbackEngine = engine;
+            this.fallbackStrategy = strategy;
+            return this;
+        }
+
+        public LoadDataInfileLoader<T> build() {
+            if (dataSource == null) {
+                throw new IllegalArgumentException("dataSource不能为空");
+            }
+            if (table == null || columns.isEmpty()) {
+                throw new IllegalArgumentException("表名和列不能为空");
+            }
+            if (executor == null) {
+                throw new IllegalArgumentException("线程池不能为空");
+            }
+            return new LoadDataInfileLoader<>(this);
+        }
+
+        private static Object keyValue(TableInfo tableInfo, IdType idType, Object entity) {
+            Object id = tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+            if (id == null && (idType == IdType.ASSIGN_ID || idType == IdType.ASSIGN_UUID)) {
+                if (idType == IdType.ASSIGN_UUID) {
+                    id = IdWorker.get32UUID();
+                } else {
+                    long generated = IdWorker.getId(entity);
+                    id = tableInfo.getKeyType() == String.class ? String.valueOf(generated) : (Object) generated;
+                }
+                tableInfo.setPropertyValue(entity, tableInfo.getKeyProperty(), id);
+            }
+            return id;
+        }
+    }
+}
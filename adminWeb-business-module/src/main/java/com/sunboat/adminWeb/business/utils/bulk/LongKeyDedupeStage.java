@@ -0,0 +1,296 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * 插入前按 long 主键去重的阶段：首次出现的键走普通插入，已出现过的键（本次导入中重复，或通过 markExisting 预先登记的库中已有键）
+ * 按 DuplicatePolicy 丢弃或走批量 ON DUPLICATE KEY UPDATE（如 MultiRowValuesInsertStrategy 的 upsert 模式）。
+ * 键记录在 LongOpenHashSet 中，每行只占十几个字节，不创建 Long 对象；超过内存预算时排序溢写到文件，之后内存映射二分查找。
+ * 导入通过 BulkLoadEngine.loadPartitioned 按键哈希分区，同一个键总在同一条串行通道中处理：
+ * 每个分区独占一份键集合，无需加锁，且同一键的插入一定先于它的更新。
+ * 新键在插入成功后立即登记：插入失败重试时按相同方式重新分流；插入成功而更新失败重试时，
+ * 已插入的行改走重复键处理，不会被再次插入而触发主键冲突。
+ */
+public class LongKeyDedupeStage<T> implements AutoCloseable {
+
+    /**
+     * 重复键的处理方式
+     */
+    public enum DuplicatePolicy {
+        // 只保留第一次出现的行
+        SKIP,
+        // 交给 upsertWriter 更新
+        UPSERT
+    }
+
+    // 溢写文件数达到该值时合并为一个
+    private static final int MAX_RUNS = 8;
+
+    private final ToLongFunction<? super T> keyExtractor;
+    private final int partitions;
+    private final DuplicatePolicy policy;
+    private final BatchWriter<T> insertWriter;
+    private final BatchWriter<T> upsertWriter;
+    private final Path spillDirectory;
+    private final long partitionBudgetBytes;
+    private final List<KeySpace> keySpaces;
+
+    private final AtomicLong insertedRows = new AtomicLong();
+    private final AtomicLong duplicateRows = new AtomicLong();
+    private final AtomicLong skippedRows = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+
+    private LongKeyDedupeStage(Builder<T> builder) {
+        this.keyExtractor = builder.keyExtractor;
+        this.partitions = builder.partitions;
+        this.policy = builder.policy;
+        this.insertWriter = builder.insertWriter;
+        this.upsertWriter = builder.upsertWriter;
+        this.spillDirectory = builder.spillDirectory;
+        this.partitionBudgetBytes = Math.max(1024, builder.memoryBudgetBytes / builder.partitions);
+        this.keySpaces = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            keySpaces.add(new KeySpace());
+        }
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * 登记库中已存在的键（如流式读取 SELECT id），这些键的行直接走重复键处理；须在 load 之前调用
+     */
+    public void markExisting(long key) {
+        keySpaces.get(KeyPartitioner.hashPartition(key, partitions)).add(key);
+    }
+
+    public void markExisting(PrimitiveIterator.OfLong keys) {
+        while (keys.hasNext()) {
+            markExisting(keys.nextLong());
+        }
+    }
+
+    /**
+     * 去重后导入，分区数即并行写入的通道数
+     * @param engine 导入引擎
+     * @param source 数据源
+     * @return 汇总结果，写入行数为插入与更新行数之和，被丢弃的重复行不计入
+     */
+    public BulkResult load(BulkLoadEngine engine, Iterator<? extends T> source) throws InterruptedException {
+        BatchWriter<T> writer = this::write;
+        return engine.loadPartitioned(source, KeyPartitioner.hashLong(keyExtractor, partitions),
+                isRetrySafe() ? BatchWriter.retrySafe(writer) : writer);
+    }
+
+    // 插入失败时整批回滚、重试时重新分流；插入成功而更新失败时，已插入的行重试时改走更新，要求更新幂等
+    private boolean isRetrySafe() {
+        return insertWriter.isRetrySafe() && (policy == DuplicatePolicy.SKIP || upsertWriter.isRetrySafe());
+    }
+
+    // 同一分区的批次串行调用
+    private int write(List<T> batch) throws Exception {
+        KeySpace keySpace = keySpaces.get(KeyPartitioner.hashPartition(keyExtractor.applyAsLong(batch.get(0)), partitions));
+        LongOpenHashSet batchKeys = new LongOpenHashSet(batch.size());
+        List<T> inserts = new ArrayList<>(batch.size());
+        List<T> duplicates = new ArrayList<>();
+        for (T row : batch) {
+            long key = keyExtractor.applyAsLong(row);
+            if (!keySpace.contains(key) && batchKeys.add(key)) {
+                inserts.add(row);
+            } else {
+                duplicates.add(row);
+            }
+        }
+
+        int written = 0;
+        if (!inserts.isEmpty()) {
+            written += insertWriter.write(inserts);
+            // 插入成功后立即登记：之后的更新失败时整批重试，这些行已在库中，应走重复键处理
+            for (T row : inserts) {
+                keySpace.add(keyExtractor.applyAsLong(row));
+            }
+            insertedRows.addAndGet(inserts.size());
+        }
+        if (!duplicates.isEmpty() && policy == DuplicatePolicy.UPSERT) {
+            written += upsertWriter.write(duplicates);
+        }
+        duplicateRows.addAndGet(duplicates.size());
+        if (policy == DuplicatePolicy.SKIP) {
+            skippedRows.addAndGet(duplicates.size());
+        }
+        return written;
+    }
+
+    /**
+     * 首次出现、走普通插入的行数
+     */
+    public long getInsertedRows() {
+        return insertedRows.get();
+    }
+
+    /**
+     * 重复键的行数（已更新或已丢弃）；更新失败重试时，已插入的行在重试中也计入此数
+     */
+    public long getDuplicateRows() {
+        return duplicateRows.get();
+    }
+
+    /**
+     * 按 SKIP 丢弃的行数
+     */
+    public long getSkippedRows() {
+        return skippedRows.get();
+    }
+
+    /**
+     * 溢写到文件的次数
+     */
+    public long getSpills() {
+        return spills.get();
+    }
+
+    /**
+     * 删除溢写文件，导入结束后调用
+     */
+    @Override
+    public void close() {
+        for (KeySpace keySpace : keySpaces) {
+            keySpace.close();
+        }
+    }
+
+    /**
+     * 一个分区的已见键：内存中的哈希集合 + 若干有序溢写文件
+     */
+    private final class KeySpace {
+        private LongOpenHashSet memory = new LongOpenHashSet();
+        private final List<SortedLongRun> runs = new ArrayList<>();
+
+        private boolean contains(long key) {
+            if (memory.contains(key)) {
+                return true;
+            }
+            for (SortedLongRun run : runs) {
+                if (run.contains(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(long key) {
+            if (!memory.add(key) || memory.memoryBytes() <= partitionBudgetBytes) {
+                return;
+            }
+            runs.add(SortedLongRun.write(spillDirectory, memory.toSortedArray()));
+            memory = new LongOpenHashSet();
+            spills.incrementAndGet();
+            if (runs.size() >= MAX_RUNS) {
+                SortedLongRun merged = SortedLongRun.merge(spillDirectory, runs);
+                for (SortedLongRun run : runs) {
+                    run.close();
+                }
+                runs.clear();
+                runs.add(merged);
+            }
+        }
+
+        private void close() {
+            for (SortedLongRun run : runs) {
+                run.close();
+            }
+            runs.clear();
+            memory = new LongOpenHashSet();
+        }
+    }
+
+    public static final class Builder<T> {
+        private ToLongFunction<? super T> keyExtractor;
+        private int partitions = Runtime.getRuntime().availableProcessors();
+        private DuplicatePolicy policy = DuplicatePolicy.UPSERT;
+        private BatchWriter<T> insertWriter;
+        private BatchWriter<T> upsertWriter;
+        private long memoryBudgetBytes = 64L * 1024 * 1024;
+        private Path spillDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+
+        private Builder() {
+        }
+
+        /**
+         * 取 long 主键（如 Entity::getId），必填
+         */
+        public Builder<T> keyExtractor(ToLongFunction<? super T> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        /**
+         * 分区数（并行写入的通道数），默认CPU核心数
+         */
+        public Builder<T> partitions(int partitions) {
+            this.partitions = partitions;
+            return this;
+        }
+
+        /**
+         * 重复键的处理方式，默认 UPSERT
+         */
+        public Builder<T> duplicatePolicy(DuplicatePolicy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * 首次出现的键的写入方式，必填
+         */
+        public Builder<T> insertWriter(BatchWriter<T> insertWriter) {
+            this.insertWriter = insertWriter;
+            return this;
+        }
+
+        /**
+         * 重复键的写入方式，UPSERT 时必填，如 new MultiRowValuesInsertStrategy&lt;&gt;(jdbcTemplate, Entity.class, true)
+         */
+        public Builder<T> upsertWriter(BatchWriter<T> upsertWriter) {
+            this.upsertWriter = upsertWriter;
+            return this;
+        }
+
+        /**
+         * 键集合占用的堆内存上限（所有分区合计），超过后溢写到文件，默认64MB
+         */
+        public Builder<T> memoryBudgetBytes(long memoryBudgetBytes) {
+            this.memoryBudgetBytes = memoryBudgetBytes;
+            return this;
+        }
+
+        /**
+         * 溢写文件目录，默认系统临时目录
+         */
+        public Builder<T> spillDirectory(Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        public LongKeyDedupeStage<T> build() {
+            if (keyExtractor == null || insertWriter == null) {
+                throw new IllegalArgumentException("取键方式和插入方式不能为空");
+            }
+            if (policy == DuplicatePolicy.UPSERT && upsertWriter == null) {
+                throw new IllegalArgumentException("UPSERT 模式下更新方式不能为空");
+            }
+            if (partitions <= 0 || memoryBudgetBytes <= 0) {
+                throw new IllegalArgumentException("分区数和内存预算必须大于0");
+            }
+            return new LongKeyDedupeStage<>(this);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.util.Arrays;
+
+/**
+ * long 键的开放寻址哈希集合（线性探测），键直接存放在 long[] 中，不装箱
+ * 每个键约占 8 / 装载因子 字节（默认约 11~16 字节），而 HashSet&lt;Long&gt; 每个键约 50 字节以上。
+ * 0 用作空槽标记，集合中的 0 单独记录。非线程安全。
+ */
+public class LongOpenHashSet {
+
+    private static final float LOAD_FACTOR = 0.7f;
+    private static final int MIN_CAPACITY = 16;
+    // 数组长度上限（2的幂）
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    public LongOpenHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计键数，按装载因子预分配，避免扩容
+     */
+    public LongOpenHashSet(int expectedSize) {
+        allocate(tableSizeFor((long) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    /**
+     * 加入键
+     * @return 键此前不存在时返回true
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = table[slot];
+            if (current == 0) {
+                table[slot] = key;
+                if (++size > resizeThreshold) {
+                    rehash(table.length << 1);
+                }
+                return true;
+            }
+            if (current == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int slot = slot(key);
+        while (true) {
+            long current = table[slot];
+            if (current == 0) {
+                return false;
+            }
+            if (current == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空并收缩到初始容量，释放内存
+     */
+    public void clear() {
+        size = 0;
+        containsZero = false;
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * 当前占用的堆内存（哈希表数组）
+     */
+    public long memoryBytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * 全部键升序排列（用于溢写到有序文件）
+     */
+    public long[] toSortedArray() {
+        long[] keys = new long[size];
+        int i = 0;
+        if (containsZero) {
+            keys[i++] = 0;
+        }
+        for (long key : table) {
+            if (key != 0) {
+                keys[i++] = key;
+            }
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // MurmurHash3 的64位混合函数，连续的ID也能均匀分布；
+    // 与 KeyPartitioner.hashPartition 的哈希不同，同一分区内的键不会挤在部分槽位上
+    private int slot(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY) {
+            throw new IllegalStateException("LongOpenHashSet 容量超过上限: " + size);
+        }
+        long[] old = table;
+        allocate(newCapacity);
+        for (long key : old) {
+            if (key != 0) {
+                int slot = slot(key);
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(long capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        int n = MIN_CAPACITY;
+        while (n < capacity) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
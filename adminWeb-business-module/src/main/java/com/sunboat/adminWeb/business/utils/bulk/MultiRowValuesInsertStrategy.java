@@ -0,0 +1,270 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多行 VALUES 插入：INSERT INTO t (c1, c2) VALUES (?, ?), (?, ?) ... [ON DUPLICATE KEY UPDATE c1 = VALUES(c1) ...]
+ * 表名、列名取自MyBatis-Plus的表信息（对应Mapper需已注册）。一批数据按两个上限切分为若干条语句：
+ * 估算的语句体积不超过 max_allowed_packet，占位符总数不超过 65535。
+ * 绕过MyBatis执行，不触发自动填充；ASSIGN_ID / ASSIGN_UUID 主键为空时在这里生成。
+ * 一批切出的多条语句在同一个Spring事务中执行，任一条失败时整批回滚。
+ */
+public class MultiRowValuesInsertStrategy<T> implements InsertStrategy<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiRowValuesInsertStrategy.class);
+
+    // 预处理语句占位符上限（MySQL协议限制）
+    private static final int MAX_PLACEHOLDERS = 65535;
+
+    // 无法读取服务端配置时使用的 max_allowed_packet（MySQL 5.7 默认值）
+    private static final long DEFAULT_MAX_PACKET_BYTES = 4L * 1024 * 1024;
+
+    // 为协议头等预留的空间
+    private static final long PACKET_RESERVED_BYTES = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Class<T> entityClass;
+    private final boolean onDuplicateKeyUpdate;
+    private final TransactionTemplate transactionTemplate;
+
+    // 0 表示首次写入时查询服务端
+    private volatile long maxPacketBytes;
+
+    private volatile Statement statement;
+
+    /**
+     * 语句上限取服务端 max_allowed_packet
+     */
+    public MultiRowValuesInsertStrategy(JdbcTemplate jdbcTemplate, Class<T> entityClass, boolean onDuplicateKeyUpdate) {
+        this(jdbcTemplate, entityClass, onDuplicateKeyUpdate, 0);
+    }
+
+    /**
+     * 事务管理器按 JdbcTemplate 的数据源创建
+     */
+    public MultiRowValuesInsertStrategy(JdbcTemplate jdbcTemplate, Class<T> entityClass,
+                                        boolean onDuplicateKeyUpdate, long maxPacketBytes) {
+        this(jdbcTemplate, entityClass, onDuplicateKeyUpdate, maxPacketBytes,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+    }
+
+    /**
+     * @param jdbcTemplate JdbcTemplate（参与Spring事务）
+     * @param entityClass 实体类
+     * @param onDuplicateKeyUpdate 主键或唯一键冲突时是否更新非主键列
+     * @param maxPacketBytes 单条语句的最大字节数，0 表示读取服务端 max_allowed_packet
+     * @param transactionManager JdbcTemplate 数据源的事务管理器
+     */
+    public MultiRowValuesInsertStrategy(JdbcTemplate jdbcTemplate, Class<T> entityClass,
+                                        boolean onDuplicateKeyUpdate, long maxPacketBytes,
+                                        PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityClass = entityClass;
+        this.onDuplicateKeyUpdate = onDuplicateKeyUpdate;
+        this.maxPacketBytes = maxPacketBytes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public int write(List<T> batch) {
+        Statement stmt = statement();
+        long packetLimit = packetLimit() - PACKET_RESERVED_BYTES;
+        Integer written = transactionTemplate.execute(status -> writeInTransaction(stmt, packetLimit, batch));
+        return written != null ? written : 0;
+    }
+
+    /**
+     * 整批在一个事务中提交，失败时不会留下部分行，可以安全地整批重试
+     */
+    @Override
+    public boolean isRetrySafe() {
+        return true;
+    }
+
+    // 各条语句由 JdbcTemplate 取到事务绑定的连接执行，不会单独提交
+    private int writeInTransaction(Statement stmt, long packetLimit, List<T> batch) {
+        int written = 0;
+        List<Object[]> chunk = new ArrayList<>();
+        long chunkBytes = stmt.fixedBytes;
+        for (T entity : batch) {
+            Object[] values = stmt.values(entity);
+            long rowBytes = estimateRowBytes(values);
+            if (!chunk.isEmpty() && (chunk.size() >= stmt.maxRows || chunkBytes + rowBytes > packetLimit)) {
+                written += execute(stmt, chunk);
+                chunk.clear();
+                chunkBytes = stmt.fixedBytes;
+            }
+            chunk.add(values);
+            chunkBytes += rowBytes;
+        }
+        if (!chunk.isEmpty()) {
+            written += execute(stmt, chunk);
+        }
+        return written;
+    }
+
+    @Override
+    public String getName() {
+        return onDuplicateKeyUpdate ? "multi-row-values-upsert" : "multi-row-values";
+    }
+
+    private int execute(Statement stmt, List<Object[]> rows) {
+        int columns = stmt.columns.size();
+        Object[] args = new Object[rows.size() * columns];
+        for (int i = 0; i < rows.size(); i++) {
+            System.arraycopy(rows.get(i), 0, args, i * columns, columns);
+        }
+        jdbcTemplate.update(stmt.sql(rows.size()), args);
+        // ON DUPLICATE KEY UPDATE 时影响行数按更新计2，这里统一按提交的行数计
+        return rows.size();
+    }
+
+    // 估算一行在语句中占用的字节数：占位符文本 + 驱动拼接后的参数值（字符串按utf8mb4最坏情况并考虑转义）
+    private static long estimateRowBytes(Object[] values) {
+        long bytes = values.length * 2L + 2;
+        for (Object value : values) {
+            if (value == null) {
+                bytes += 4;
+            } else if (value instanceof CharSequence) {
+                bytes += ((CharSequence) value).length() * 4L + 2;
+            } else if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length * 2L + 3;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                bytes += 20;
+            } else {
+                bytes += 32; // 日期时间等
+            }
+        }
+        return bytes;
+    }
+
+    private long packetLimit() {
+        long limit = maxPacketBytes;
+        if (limit <= 0) {
+            limit = queryMaxAllowedPacket();
+            maxPacketBytes = limit;
+        }
+        return limit;
+    }
+
+    private long queryMaxAllowedPacket() {
+        try {
+            Long value = jdbcTemplate.queryForObject("SELECT @@max_allowed_packet", Long.class);
+            if (value != null && value > 0) {
+                return value;
+            }
+        } catch (DataAccessException e) {
+            log.warn("读取max_allowed_packet失败，按默认值{}字节处理: {}", DEFAULT_MAX_PACKET_BYTES, e.getMessage());
+        }
+        return DEFAULT_MAX_PACKET_BYTES;
+    }
+
+    private Statement statement() {
+        Statement stmt = statement;
+        if (stmt == null) {
+            TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+            if (tableInfo == null) {
+                throw new IllegalStateException("未找到实体对应的表信息，请确认Mapper已注册: " + entityClass.getName());
+            }
+            stmt = new Statement(tableInfo, onDuplicateKeyUpdate);
+            statement = stmt;
+        }
+        return stmt;
+    }
+
+    /**
+     * 表对应的语句模板
+     */
+    private static final class Statement {
+        private final TableInfo tableInfo;
+        private final List<String> columns = new ArrayList<>();
+        private final List<String> properties = new ArrayList<>();
+        // 需要在这里生成主键时的主键类型，不需要时为null
+        private final IdType generatedIdType;
+        private final String prefix;
+        private final String suffix;
+        private final String rowPlaceholders;
+        private final long fixedBytes;
+        private final int maxRows;
+
+        private Statement(TableInfo tableInfo, boolean onDuplicateKeyUpdate) {
+            this.tableInfo = tableInfo;
+            IdType idType = tableInfo.getIdType();
+            // 自增主键交给数据库生成，其余类型的主键随数据一起插入
+            boolean withKey = tableInfo.havePK() && idType != IdType.AUTO;
+            if (withKey) {
+                columns.add(tableInfo.getKeyColumn());
+                properties.add(tableInfo.getKeyProperty());
+            }
+            this.generatedIdType = withKey && (idType == IdType.ASSIGN_ID || idType == IdType.ASSIGN_UUID)
+                    ? idType : null;
+            for (TableFieldInfo field : tableInfo.getFieldList()) {
+                columns.add(field.getColumn());
+                properties.add(field.getProperty());
+            }
+
+            this.prefix = "INSERT INTO " + tableInfo.getTableName() + " (" + String.join(", ", columns) + ") VALUES ";
+            StringBuilder update = new StringBuilder();
+            if (onDuplicateKeyUpdate) {
+                for (TableFieldInfo field : tableInfo.getFieldList()) {
+                    update.append(update.length() == 0 ? " ON DUPLICATE KEY UPDATE " : ", ")
+                            .append(field.getColumn()).append(" = VALUES(").append(field.getColumn()).append(')');
+                }
+            }
+            this.suffix = update.toString();
+
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.size(); i++) {
+                row.append(i == 0 ? "?" : ", ?");
+            }
+            this.rowPlaceholders = row.append(')').toString();
+            this.fixedBytes = (prefix + suffix).getBytes(StandardCharsets.UTF_8).length;
+            this.maxRows = Math.max(1, MAX_PLACEHOLDERS / columns.size());
+        }
+
+        private Object[] values(Object entity) {
+            if (generatedIdType != null && tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty()) == null) {
+                Object id = generatedIdType == IdType.ASSIGN_UUID ? IdWorker.get32UUID() : generateId(entity);
+                tableInfo.setPropertyValue(entity, tableInfo.getKeyProperty(), id);
+            }
+            Object[] values = new Object[properties.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = tableInfo.getPropertyValue(entity, properties.get(i));
+            }
+            return values;
+        }
+
+        // 雪花ID按主键字段类型转换
+        private Object generateId(Object entity) {
+            long id = IdWorker.getId(entity);
+            return tableInfo.getKeyType() == String.class ? String.valueOf(id) : (Object) id;
+        }
+
+        private String sql(int rows) {
+            StringBuilder sql = new StringBuilder(prefix.length() + suffix.length() + rows * (rowPlaceholders.length() + 2));
+            sql.append(prefix);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(rowPlaceholders);
+            }
+            return sql.append(suffix).toString();
+        }
+    }
+}
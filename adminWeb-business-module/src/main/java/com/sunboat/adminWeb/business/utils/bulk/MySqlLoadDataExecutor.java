@@ -0,0 +1,30 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 基于 Connector/J 的实现：通过 JdbcStatement.setLocalInfileInputStream 提供文件内容，不落临时文件
+ * 连接URL需开启 allowLoadLocalInfile=true，服务端需开启 local_infile=ON。
+ */
+public class MySqlLoadDataExecutor implements LoadDataExecutor {
+
+    @Override
+    public boolean supports(Connection connection) throws SQLException {
+        // 连接池代理（如Hikari）会转发 isWrapperFor 到真实连接
+        return connection.isWrapperFor(JdbcConnection.class);
+    }
+
+    @Override
+    public long execute(Connection connection, String sql, InputStream data) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(data);
+            return statement.executeLargeUpdate(sql);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+/**
+ * 异步导入进度回调，按间隔在执行批次的线程中调用，导入结束时再调用一次；实现需线程安全且尽量轻量
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    ProgressListener NONE = progress -> {
+    };
+
+    void onProgress(BulkProgress progress);
+}
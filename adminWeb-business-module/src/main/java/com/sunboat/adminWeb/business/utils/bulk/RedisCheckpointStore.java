@@ -0,0 +1,48 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis断点：key为 bulk:checkpoint:{importId}，值为 "sequence,rows"
+ * 多个节点可以接力同一个导入；断点保留7天，过期后视为重新开始。
+ */
+public class RedisCheckpointStore implements BulkCheckpointStore {
+
+    private static final String KEY_PREFIX = "bulk:checkpoint:";
+
+    private static final long TTL_DAYS = 7;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public RedisCheckpointStore(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public BulkCheckpoint load(String importId) {
+        Object value = redisTemplate.opsForValue().get(KEY_PREFIX + importId);
+        if (value == null) {
+            return null;
+        }
+        String content = value.toString();
+        int comma = content.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalStateException("断点格式错误: " + content);
+        }
+        return new BulkCheckpoint(Long.parseLong(content.substring(0, comma)),
+                Long.parseLong(content.substring(comma + 1)));
+    }
+
+    @Override
+    public void save(String importId, BulkCheckpoint checkpoint) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + importId,
+                checkpoint.getSequence() + "," + checkpoint.getRows(), TTL_DAYS, TimeUnit.DAYS);
+    }
+
+    @Override
+    public void clear(String importId) {
+        redisTemplate.delete(KEY_PREFIX + importId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import org.springframework.dao.TransientDataAccessException;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 批次重试策略：只重试瞬时错误（死锁、锁等待超时、连接中断等），按指数退避等待
+ * 重试会把整批重新写一遍，引擎只重试 BatchWriter.isRetrySafe() 为true的写入器：一批在一个事务中写入
+ * （内置的 InsertStrategy 都是），或者写入本身幂等（如 ON DUPLICATE KEY UPDATE）。
+ * 自定义写入器逐行或分段自动提交时，重试会重复插入失败前已提交的行，不应声明为可重试。
+ */
+public class RetryPolicy {
+
+    // MySQL错误码：死锁、锁等待超时
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    // SQLState：事务序列化失败（死锁回滚）
+    private static final String SQL_STATE_SERIALIZATION_FAILURE = "40001";
+
+    private static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 1);
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double multiplier;
+
+    /**
+     * @param maxAttempts 最多尝试次数（含第一次）
+     * @param initialBackoffMillis 第一次重试前的等待
+     * @param maxBackoffMillis 等待上限
+     * @param multiplier 每次重试等待的倍数
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoffMillis, long maxBackoffMillis, double multiplier) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("尝试次数必须大于0");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("退避倍数不能小于1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * 不重试
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * 默认策略：最多3次，100ms起，每次翻倍，最长5秒
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, 100, 5000, 2);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 第 attempt 次尝试失败后是否重试
+     */
+    public boolean shouldRetry(int attempt, Throwable error) {
+        return attempt < maxAttempts && isTransient(error);
+    }
+
+    /**
+     * 第 attempt 次尝试失败后的等待时间（带±20%随机抖动，避免并发批次同时重试再次冲突）
+     */
+    public long backoffMillis(int attempt) {
+        double backoff = initialBackoffMillis * Math.pow(multiplier, attempt - 1);
+        long capped = (long) Math.min(backoff, maxBackoffMillis);
+        if (capped <= 0) {
+            return 0;
+        }
+        long jitter = capped / 5;
+        return capped - jitter + ThreadLocalRandom.current().nextLong(jitter * 2 + 1);
+    }
+
+    /**
+     * 是否为瞬时错误：沿异常链查找Spring瞬时异常、JDBC瞬时/可恢复异常以及MySQL死锁、锁等待超时
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause() == e ? null : e.getCause()) {
+            if (e instanceof TransientDataAccessException
+                    || e instanceof SQLTransientException
+                    || e instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (e instanceof SQLException) {
+                SQLException sqlException = (SQLException) e;
+                if (sqlException.getErrorCode() == ER_LOCK_DEADLOCK
+                        || sqlException.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                        || SQL_STATE_SERIALIZATION_FAILURE.equals(sqlException.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 溢写到磁盘的有序键文件：连续存放的升序 long（大端），内存映射后二分查找，不占用堆内存
+ */
+class SortedLongRun implements AutoCloseable {
+
+    // 单个文件映射上限 2GB
+    private static final long MAX_KEYS = Integer.MAX_VALUE / Long.BYTES;
+
+    private final Path file;
+    private final long count;
+    private final MappedByteBuffer buffer;
+
+    private SortedLongRun(Path file, long count) throws IOException {
+        this.file = file;
+        this.count = count;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // 映射在通道关闭后仍然有效
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, count * Long.BYTES);
+        }
+    }
+
+    /**
+     * 把升序键写入目录下的新文件
+     */
+    static SortedLongRun write(Path directory, long[] sortedKeys) {
+        try {
+            Path file = Files.createTempFile(directory, "dedupe-", ".run");
+            try (DataOutputStream out = open(file)) {
+                for (long key : sortedKeys) {
+                    out.writeLong(key);
+                }
+            }
+            return new SortedLongRun(file, sortedKeys.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入去重溢写文件失败", e);
+        }
+    }
+
+    /**
+     * 多路归并若干文件为一个新文件（去掉重复键），原文件不删除
+     */
+    static SortedLongRun merge(Path directory, List<SortedLongRun> runs) {
+        long total = 0;
+        for (SortedLongRun run : runs) {
+            total += run.count;
+        }
+        if (total > MAX_KEYS) {
+            throw new IllegalStateException("去重溢写文件超过单文件上限: " + total);
+        }
+        try {
+            Path file = Files.createTempFile(directory, "dedupe-", ".run");
+            long written = 0;
+            long[] positions = new long[runs.size()];
+            try (DataOutputStream out = open(file)) {
+                long last = 0;
+                while (true) {
+                    int min = -1;
+                    long minKey = 0;
+                    for (int i = 0; i < runs.size(); i++) {
+                        if (positions[i] < runs.get(i).count) {
+                            long key = runs.get(i).get(positions[i]);
+                            if (min < 0 || key < minKey) {
+                                min = i;
+                                minKey = key;
+                            }
+                        }
+                    }
+                    if (min < 0) {
+                        break;
+                    }
+                    positions[min]++;
+                    if (written == 0 || minKey != last) {
+                        out.writeLong(minKey);
+                        last = minKey;
+                        written++;
+                    }
+                }
+            }
+            return new SortedLongRun(file, written);
+        } catch (IOException e) {
+            throw new UncheckedIOException("合并去重溢写文件失败", e);
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    boolean contains(long key) {
+        long low = 0;
+        long high = count - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long current = get(mid);
+            if (current < key) {
+                low = mid + 1;
+            } else if (current > key) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long get(long index) {
+        return buffer.getLong((int) (index * Long.BYTES));
+    }
+
+    /**
+     * 删除文件；映射的内存由GC回收
+     */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private static DataOutputStream open(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        return new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+    }
+}
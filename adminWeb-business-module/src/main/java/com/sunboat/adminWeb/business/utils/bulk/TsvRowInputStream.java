@@ -0,0 +1,188 @@
+package com.sunboat.adminWeb.business.utils.bulk;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 把数据行即时编码为 LOAD DATA 默认格式的输入流：字段以 \t 分隔、行以 \n 结尾、反斜杠转义、NULL 写作 \N，UTF-8编码
+ * 驱动读取时才从数据源取行，缓冲区复用，内存占用与行数无关。
+ */
+class TsvRowInputStream<T> extends InputStream {
+
+    // 每次至少编码这么多字节再交给驱动
+    private static final int FILL_THRESHOLD = 64 * 1024;
+
+    private final Iterator<? extends T> rows;
+    private final List<Function<? super T, ?>> extractors;
+
+    private byte[] buffer = new byte[FILL_THRESHOLD * 2];
+    private int position;
+    private int limit;
+
+    private long rowCount;
+    private long bytesRead;
+
+    TsvRowInputStream(Iterator<? extends T> rows, List<Function<? super T, ?>> extractors) {
+        this.rows = rows;
+        this.extractors = extractors;
+    }
+
+    /**
+     * 已编码（从数据源取出）的行数
+     */
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 驱动已读取的字节数，为0说明数据源未被消费
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        bytesRead++;
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, n);
+        position += n;
+        bytesRead += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    // 编码若干行到缓冲区，数据源已耗尽时返回false
+    private boolean fill() {
+        position = 0;
+        limit = 0;
+        while (limit < FILL_THRESHOLD && rows.hasNext()) {
+            encodeRow(rows.next());
+            rowCount++;
+        }
+        return limit > 0;
+    }
+
+    private void encodeRow(T row) {
+        for (int i = 0; i < extractors.size(); i++) {
+            if (i > 0) {
+                put((byte) '\t');
+            }
+            encodeValue(extractors.get(i).apply(row));
+        }
+        put((byte) '\n');
+    }
+
+    private void encodeValue(Object value) {
+        if (value == null) {
+            put((byte) '\\');
+            put((byte) 'N');
+        } else if (value instanceof CharSequence) {
+            encodeString((CharSequence) value);
+        } else if (value instanceof Boolean) {
+            put((byte) ((Boolean) value ? '1' : '0'));
+        } else if (value instanceof BigDecimal) {
+            encodeString(((BigDecimal) value).toPlainString());
+        } else if (value instanceof LocalDateTime) {
+            // MySQL DATETIME 格式：日期与时间以空格分隔
+            encodeString(value.toString().replace('T', ' '));
+        } else if (value instanceof Date && !(value instanceof java.sql.Date) && !(value instanceof Timestamp)) {
+            encodeString(new Timestamp(((Date) value).getTime()).toString());
+        } else if (value instanceof Enum) {
+            encodeString(((Enum<?>) value).name());
+        } else if (value instanceof byte[]) {
+            for (byte b : (byte[]) value) {
+                putEscaped(b);
+            }
+        } else {
+            encodeString(value.toString());
+        }
+    }
+
+    // 逐字符UTF-8编码并转义，不产生中间字符串
+    private void encodeString(CharSequence value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                putEscaped((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                put((byte) (0xF0 | (codePoint >> 18)));
+                put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                put((byte) '?'); // 不成对的代理字符
+            } else {
+                put((byte) (0xE0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private void putEscaped(byte b) {
+        switch (b) {
+            case '\\':
+                put((byte) '\\');
+                put((byte) '\\');
+                break;
+            case '\t':
+                put((byte) '\\');
+                put((byte) 't');
+                break;
+            case '\n':
+                put((byte) '\\');
+                put((byte) 'n');
+                break;
+            case '\r':
+                put((byte) '\\');
+                put((byte) 'r');
+                break;
+            case 0:
+                put((byte) '\\');
+                put((byte) '0');
+                break;
+            default:
+                put(b);
+        }
+    }
+
+    private void put(byte b) {
+        if (limit == buffer.length) {
+            // 单行超过缓冲区时扩容，之后继续复用
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, 0, grown, 0, limit);
+            buffer = grown;
+        }
+        buffer[limit++] = b;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.maper.PermissionsMapper;
+import com.sunboat.adminWeb.business.security.AuthMetrics;
+import com.sunboat.adminWeb.business.security.BitsetPermissionEvaluator;
+import com.sunboat.adminWeb.business.security.PermissionBitsetRegistry;
+import com.sunboat.adminWeb.business.security.RolePermission;
+import com.sunboat.adminWeb.business.security.RolePrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BitsetPermissionEvaluatorTest {
+
+    private final List<RolePermission> rolePermissions = new ArrayList<>();
+    private PermissionBitsetRegistry registry;
+    private BitsetPermissionEvaluator evaluator;
+
+    @BeforeEach
+    public void setUp() {
+        // 超过64个权限，位图跨多个long
+        List<String> permissionNames = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            permissionNames.add("perm:" + i);
+        }
+        permissionNames.addAll(Arrays.asList("user:read", "user:delete"));
+        grant("ADMIN", "user:read");
+        grant("ADMIN", "user:delete");
+        grant("ROLE_VIEWER", "user:read");
+        grant("AUDITOR", "perm:99");
+
+        PermissionsMapper permissionsMapper = mock(PermissionsMapper.class);
+        when(permissionsMapper.selectPermissionNames()).thenReturn(permissionNames);
+        when(permissionsMapper.selectRolePermissions()).thenReturn(rolePermissions);
+
+        registry = new PermissionBitsetRegistry();
+        ReflectionTestUtils.setField(registry, "permissionsMapper", permissionsMapper);
+        ReflectionTestUtils.setField(registry, "listenerContainer", mock(RedisMessageListenerContainer.class));
+        ReflectionTestUtils.setField(registry, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+        registry.init();
+
+        evaluator = new BitsetPermissionEvaluator();
+        ReflectionTestUtils.setField(evaluator, "permissionBitsetRegistry", registry);
+    }
+
+    private void grant(String role, String permission) {
+        RolePermission rolePermission = new RolePermission();
+        rolePermission.setRoleName(role);
+        rolePermission.setPermissionName(permission);
+        rolePermissions.add(rolePermission);
+    }
+
+    private static Authentication authenticate(Object principal, List<GrantedAuthority> authorities) {
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    // 角色名统一带 ROLE_ 前缀；多个角色的权限取并集；未知权限一律拒绝
+    @Test
+    public void testRolePrincipal() {
+        RolePrincipal admin = new RolePrincipal("alice", AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        Authentication authentication = authenticate(admin, new ArrayList<>(admin.getAuthorities()));
+        assertTrue(evaluator.hasPermission(authentication, null, "user:delete"));
+        assertTrue(evaluator.hasPermission(authentication, 1L, "users", "user:read"));
+        assertFalse(evaluator.hasPermission(authentication, null, "perm:99"));
+        assertFalse(evaluator.hasPermission(authentication, null, "no:such"));
+
+        RolePrincipal both = new RolePrincipal("bob",
+                AuthorityUtils.createAuthorityList("ROLE_VIEWER", "ROLE_AUDITOR"));
+        Authentication bothAuth = authenticate(both, new ArrayList<>(both.getAuthorities()));
+        assertTrue(evaluator.hasPermission(bothAuth, null, "user:read"));
+        assertTrue(evaluator.hasPermission(bothAuth, null, "perm:99"));
+        assertFalse(evaluator.hasPermission(bothAuth, null, "user:delete"));
+    }
+
+    // 角色组合key与角色顺序、重复无关，与CachedUser中按字符串计算的结果一致
+    @Test
+    public void testRoleSetKey() {
+        List<GrantedAuthority> ab = AuthorityUtils.createAuthorityList("ROLE_B", "ROLE_A", "ROLE_B");
+        assertEquals("ROLE_A,ROLE_B", RolePrincipal.roleSetKey(ab));
+        assertEquals("ROLE_A,ROLE_B", RolePrincipal.roleSetKeyOf(Arrays.asList("ROLE_A", "ROLE_B")));
+        assertEquals("ROLE_A,ROLE_B", new RolePrincipal("alice", ab).getRoleSetKey());
+        assertEquals("", RolePrincipal.roleSetKey(new ArrayList<>()));
+    }
+
+    // 主体不是RolePrincipal时按认证信息中的角色计算，结果相同
+    @Test
+    public void testPlainPrincipal() {
+        Authentication authentication = authenticate("alice", AuthorityUtils.createAuthorityList("ROLE_ADMIN"));
+        assertTrue(evaluator.hasPermission(authentication, null, "user:delete"));
+        assertFalse(evaluator.hasPermission(authentication, null, "perm:99"));
+
+        assertFalse(evaluator.hasPermission(null, null, "user:read"));
+        assertFalse(evaluator.hasPermission(authentication, null, null));
+        Authentication unauthenticated = new UsernamePasswordAuthenticationToken("alice", null);
+        assertFalse(evaluator.hasPermission(unauthenticated, null, "user:read"));
+    }
+
+    // 重新加载后，缓存中按旧快照算出的有效权限不再生效
+    @Test
+    public void testReloadInvalidatesEffectiveBits() {
+        RolePrincipal viewer = new RolePrincipal("carol", AuthorityUtils.createAuthorityList("ROLE_VIEWER"));
+        Authentication authentication = authenticate(viewer, new ArrayList<>(viewer.getAuthorities()));
+        assertFalse(evaluator.hasPermission(authentication, null, "user:delete"));
+
+        grant("VIEWER", "user:delete");
+        registry.reload();
+        assertTrue(evaluator.hasPermission(authentication, null, "user:delete"));
+
+        rolePermissions.clear();
+        registry.reload();
+        assertFalse(evaluator.hasPermission(authentication, null, "user:read"));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.business.security;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.sunboat.adminWeb.business.config.UserCacheProperties;
+import com.sunboat.adminWeb.business.entity.Users;
+import com.sunboat.adminWeb.business.maper.UsersMapper;
+import com.sunboat.adminWeb.business.security.AuthMetrics;
+import com.sunboat.adminWeb.business.security.CustomUserDetailsService;
+import com.sunboat.adminWeb.business.security.RolePrincipal;
+import com.sunboat.adminWeb.business.security.UserSecurityVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CustomUserDetailsServiceTest {
+
+    private static final String USER_KEY = "auth:user:alice";
+
+    // Redis中的用户缓存，多个节点共用
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+    private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+    private UsersMapper usersMapper;
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private UserSecurityVersionService securityVersionService;
+    private MessageListener invalidateListener;
+    private CustomUserDetailsService service;
+
+    @BeforeAll
+    public static void initTableInfo() {
+        // LambdaQueryWrapper按实体的表信息解析列名
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), Users.class);
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Users alice = new Users();
+        alice.setId(1L);
+        alice.setUsername("alice");
+        alice.setPassword("{bcrypt}hash");
+        alice.setStatus(1);
+        usersMapper = mock(UsersMapper.class);
+        when(usersMapper.selectOne(any())).thenAnswer(inv -> alice);
+        when(usersMapper.selectRoleNamesByUserId(1L)).thenReturn(Arrays.asList("VIEWER", "ROLE_ADMIN"));
+
+        valueOperations = mock(ValueOperations.class);
+        when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+        redisTemplate = mock(RedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.delete(anyString())).thenAnswer(inv -> redis.remove(inv.<String>getArgument(0)) != null);
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+
+        securityVersionService = mock(UserSecurityVersionService.class);
+        service = newService();
+    }
+
+    private CustomUserDetailsService newService() {
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        doAnswer(inv -> invalidateListener = inv.getArgument(0))
+                .when(listenerContainer).addMessageListener(any(MessageListener.class), any(Topic.class));
+
+        CustomUserDetailsService service = new CustomUserDetailsService();
+        ReflectionTestUtils.setField(service, "usersMapper", usersMapper);
+        ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "listenerContainer", listenerContainer);
+        ReflectionTestUtils.setField(service, "securityVersionService", securityVersionService);
+        ReflectionTestUtils.setField(service, "cacheProperties", new UserCacheProperties());
+        ReflectionTestUtils.setField(service, "authMetrics", new AuthMetrics(new SimpleMeterRegistry()));
+        service.init();
+        return service;
+    }
+
+    // 首次查库并写入Redis，之后命中本地缓存；角色名统一加 ROLE_ 前缀，主体带角色组合key
+    @Test
+    public void testLoadsThroughCacheLevels() {
+        UserDetails first = service.loadCachedUser("alice");
+        UserDetails second = service.loadCachedUser("alice");
+
+        verify(usersMapper, times(1)).selectRoleNamesByUserId(1L);
+        verify(valueOperations, times(1)).get(USER_KEY);
+        assertTrue(redis.containsKey(USER_KEY));
+        assertEquals("", first.getPassword());
+        assertEquals(AuthorityUtils.authorityListToSet(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_VIEWER")),
+                AuthorityUtils.authorityListToSet(second.getAuthorities()));
+        assertEquals("ROLE_ADMIN,ROLE_VIEWER", ((RolePrincipal) second).getRoleSetKey());
+
+        // 另一个节点本地缓存为空，从Redis读取，不再查库
+        CustomUserDetailsService otherNode = newService();
+        assertEquals("alice", otherNode.loadCachedUser("alice").getUsername());
+        verify(usersMapper, times(1)).selectRoleNamesByUserId(1L);
+    }
+
+    // Redis不可用时直接查库
+    @Test
+    public void testRedisFailureFallsBackToDatabase() {
+        doThrow(new RedisConnectionFailureException("down")).when(valueOperations).get(anyString());
+        doThrow(new RedisConnectionFailureException("down"))
+                .when(valueOperations).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+
+        assertEquals("alice", service.loadCachedUser("alice").getUsername());
+        verify(usersMapper, times(1)).selectRoleNamesByUserId(1L);
+    }
+
+    // 登录认证时密码哈希从数据库读取；用户不存在时抛出异常且不缓存
+    @Test
+    public void testLoadUserByUsername() {
+        UserDetails user = service.loadUserByUsername("alice");
+        assertEquals("{bcrypt}hash", user.getPassword());
+        assertTrue(user.isEnabled());
+
+        when(usersMapper.selectOne(any())).thenReturn(null);
+        assertThrows(UsernameNotFoundException.class, () -> service.loadCachedUser("bob"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadCachedUser("bob"));
+        assertFalse(redis.containsKey("auth:user:bob"));
+    }
+
+    // 清除缓存：删除Redis条目、广播用户名、清除本地缓存，下次访问重新查库
+    @Test
+    public void testEvictUser() {
+        service.loadCachedUser("alice");
+        service.evictUser("alice");
+
+        assertFalse(redis.containsKey(USER_KEY));
+        verify(redisTemplate).convertAndSend(CustomUserDetailsService.USER_INVALIDATE_CHANNEL, "alice");
+        service.loadCachedUser("alice");
+        verify(usersMapper, times(2)).selectRoleNamesByUserId(1L);
+    }
+
+    // 收到其他节点的失效广播：清除本地用户缓存和本地安全版本号
+    @Test
+    public void testInvalidateMessage() {
+        service.loadCachedUser("alice");
+        // Redis条目已由发送方删除
+        redis.clear();
+
+        invalidateListener.onMessage(new DefaultMessage(
+                CustomUserDetailsService.USER_INVALIDATE_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                serializer.serialize("alice")), null);
+
+        verify(securityVersionService).evictLocal("alice");
+        service.loadCachedUser("alice");
+        verify(usersMapper, times(2)).selectRoleNamesByUserId(1L);
+    }
+
+    // 角色变更：递增安全版本号并清除缓存
+    @Test
+    public void testUserRolesChanged() {
+        service.loadCachedUser("alice");
+        service.onUserRolesChanged("alice");
+
+        verify(securityVersionService).bumpVersion("alice");
+        verify(redisTemplate).convertAndSend(CustomUserDetailsService.USER_INVALIDATE_CHANNEL, "alice");
+        assertFalse(redis.containsKey(USER_KEY));
+    }
+
+    // 升级密码哈希后返回的主体仍是带角色组合key的RolePrincipal
+    @Test
+    public void testUpdatePasswordKeepsRolePrincipal() {
+        UserDetails user = service.loadUserByUsername("alice");
+        UserDetails updated = service.updatePassword(user, "{bcrypt}new");
+
+        assertTrue(updated instanceof RolePrincipal);
+        assertEquals("{bcrypt}new", updated.getPassword());
+        assertEquals("ROLE_ADMIN,ROLE_VIEWER", ((RolePrincipal) updated).getRoleSetKey());
+        assertEquals(user.getAuthorities(), updated.getAuthorities());
+        verify(usersMapper).update(isNull(), any());
+        verify(redisTemplate).convertAndSend(CustomUserDetailsService.USER_INVALIDATE_CHANNEL, "alice");
+
+        UserDetails plain = new User("alice", "{noop}x", AuthorityUtils.createAuthorityList("ROLE_B", "ROLE_A"));
+        assertEquals("ROLE_A,ROLE_B", ((RolePrincipal) service.updatePassword(plain, "{bcrypt}y")).getRoleSetKey());
+        verify(securityVersionService, never()).bumpVersion(anyString());
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.security.AuthMetrics;
+import com.sunboat.adminWeb.business.security.CustomUserDetailsService;
+import com.sunboat.adminWeb.business.security.JwtAuthenticationFilter;
+import com.sunboat.adminWeb.business.security.RolePrincipal;
+import com.sunboat.adminWeb.business.security.TokenRevocationService;
+import com.sunboat.adminWeb.business.security.UserSecurityVersionService;
+import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticationFilterTest {
+
+    private final UserDetails user = new RolePrincipal("alice",
+            AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_VIEWER"));
+
+    private JwtProperties jwtProperties;
+    private JwtTokenUtil jwtTokenUtil;
+    private CustomUserDetailsService userDetailsService;
+    private UserSecurityVersionService securityVersionService;
+    private TokenRevocationService tokenRevocationService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtProperties", jwtProperties);
+        jwtTokenUtil.init();
+
+        // Redis相关服务用桩替代：版本号为3，令牌未吊销
+        userDetailsService = mock(CustomUserDetailsService.class);
+        securityVersionService = mock(UserSecurityVersionService.class);
+        when(securityVersionService.isCurrent("alice", 3L)).thenReturn(true);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenUtil", jwtTokenUtil);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "securityVersionService", securityVersionService);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(filter, "jwtProperties", jwtProperties);
+        ReflectionTestUtils.setField(filter, "authMetrics", new AuthMetrics(meterRegistry));
+        filter.bindJwtMetrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private String token(long securityVersion) {
+        return jwtTokenUtil.generateToken(user,
+                Collections.singletonMap(JwtTokenUtil.CLAIM_SECURITY_VERSION, securityVersion));
+    }
+
+    private MockFilterChain doFilter(String token, MockHttpServletResponse response) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return chain;
+    }
+
+    // 默认模式：版本号有效时从用户服务加载用户并设置认证信息
+    @Test
+    public void testLoadsUserWhenVersionCurrent() throws Exception {
+        when(userDetailsService.loadCachedUser("alice")).thenReturn(user);
+
+        MockFilterChain chain = doFilter(token(3L), new MockHttpServletResponse());
+
+        assertNotNull(chain.getRequest());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(user, authentication.getPrincipal());
+        assertNotNull(authentication.getDetails());
+    }
+
+    // 令牌中的版本号不是当前版本（用户被吊销或角色变更）：不设置认证信息，请求继续交给后续过滤器拒绝
+    @Test
+    public void testStaleSecurityVersionRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = doFilter(token(2L), response);
+
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadCachedUser(anyString());
+    }
+
+    // 无法确认版本号（缓存未命中且Redis不可用）：失败即拒绝，返回503并提示重试，不继续执行过滤器链
+    @Test
+    public void testSecurityVersionUnavailableFailsClosed() throws Exception {
+        when(securityVersionService.isCurrent("alice", 3L))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = doFilter(token(3L), response);
+
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadCachedUser(anyString());
+    }
+
+    // 声明即主体模式：根据令牌中的角色构建带角色组合key的主体，不访问用户服务
+    @Test
+    public void testClaimsPrincipal() throws Exception {
+        jwtProperties.setClaimsPrincipalEnabled(true);
+
+        MockFilterChain chain = doFilter(token(3L), new MockHttpServletResponse());
+
+        assertNotNull(chain.getRequest());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertTrue(authentication.getPrincipal() instanceof RolePrincipal);
+        RolePrincipal principal = (RolePrincipal) authentication.getPrincipal();
+        assertEquals("alice", principal.getUsername());
+        assertEquals("ROLE_ADMIN,ROLE_VIEWER", principal.getRoleSetKey());
+        assertEquals(AuthorityUtils.authorityListToSet(user.getAuthorities()),
+                AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+        verify(userDetailsService, never()).loadCachedUser(anyString());
+    }
+
+    // 已吊销的令牌不设置认证信息，也不再查询版本号
+    @Test
+    public void testRevokedToken() throws Exception {
+        when(tokenRevocationService.isRevoked(anyString())).thenReturn(true);
+
+        MockFilterChain chain = doFilter(token(3L), new MockHttpServletResponse());
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(securityVersionService, never()).isCurrent(anyString(), anyLong());
+    }
+
+    // 令牌与用户不匹配（如用户名变更）时不设置认证信息
+    @Test
+    public void testTokenNotMatchingUser() throws Exception {
+        when(userDetailsService.loadCachedUser("alice"))
+                .thenReturn(new User("bob", "", AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+
+        doFilter(token(3L), new MockHttpServletResponse());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    // 没有令牌、令牌无效时直接放行，由后续过滤器处理
+    @Test
+    public void testMissingOrInvalidToken() throws Exception {
+        assertNotNull(doFilter(null, new MockHttpServletResponse()).getRequest());
+        assertNotNull(doFilter("not-a-jwt", new MockHttpServletResponse()).getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private long stageCount(String stage) {
+        return meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", stage).timer().count();
+    }
+
+    private double failures(String cause) {
+        return meterRegistry.get(AuthMetrics.PARSE_FAILURE_COUNTER).tag("cause", cause).counter().count();
+    }
+
+    // 每个阶段的耗时都记录到 auth.filter.stage；命中声明缓存时不再记录验签
+    @Test
+    public void testStageTimersRecorded() throws Exception {
+        when(userDetailsService.loadCachedUser("alice")).thenReturn(user);
+        String token = token(3L);
+
+        doFilter(token, new MockHttpServletResponse());
+        for (String stage : new String[]{"claims", "verify", "revocation", "security_version", "user_load", "details"}) {
+            assertEquals(1, stageCount(stage), stage);
+        }
+
+        SecurityContextHolder.clearContext();
+        doFilter(token, new MockHttpServletResponse());
+        assertEquals(2, stageCount("claims"));
+        assertEquals(1, stageCount("verify"));
+        assertEquals(2, stageCount("user_load"));
+
+        // 声明即主体模式不加载用户
+        SecurityContextHolder.clearContext();
+        jwtProperties.setClaimsPrincipalEnabled(true);
+        doFilter(token, new MockHttpServletResponse());
+        assertEquals(2, stageCount("user_load"));
+        assertEquals(3, stageCount("details"));
+    }
+
+    // 解析失败按原因计数，同时仍记录读取声明的耗时
+    @Test
+    public void testParseFailuresCountedByCause() throws Exception {
+        String token = token(3L);
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signatureStart);
+        String tampered = token.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A')
+                + token.substring(signatureStart + 1);
+        doFilter(tampered, new MockHttpServletResponse());
+        doFilter("not-a-jwt", new MockHttpServletResponse());
+        doFilter("", new MockHttpServletResponse());
+        jwtProperties.setExpiration(-60);
+        doFilter(token(3L), new MockHttpServletResponse());
+
+        assertEquals(1, failures("signature"));
+        assertEquals(1, failures("malformed"));
+        assertEquals(1, failures("empty"));
+        assertEquals(1, failures("expired"));
+        assertEquals(0, failures("unsupported"));
+        assertEquals(0, failures("other"));
+        assertEquals(4, stageCount("claims"));
+        assertEquals(0, stageCount("revocation"));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.config.LoginProperties;
+import com.sunboat.adminWeb.business.maper.UsersMapper;
+import com.sunboat.adminWeb.business.security.LegacyPasswordMigration;
+import com.sunboat.adminWeb.business.security.SecurityConfig;
+import org.apache.ibatis.annotations.Update;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LegacyPasswordMigrationTest {
+
+    private static final String BCRYPT_HASH = new BCryptPasswordEncoder(4).encode("hashed-secret");
+
+    private Connection connection;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:legacy_password;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(64), password VARCHAR(255))");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE users");
+        }
+        connection.close();
+    }
+
+    private void insert(long id, String password) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO users VALUES (?, ?, ?)")) {
+            statement.setLong(1, id);
+            statement.setString(2, "user" + id);
+            statement.setString(3, password);
+            statement.executeUpdate();
+        }
+    }
+
+    private String password(long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT password FROM users WHERE id = ?")) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    // 执行 UsersMapper 注解中的SQL
+    private int migrate() throws Exception {
+        String sql = UsersMapper.class.getMethod("prefixLegacyPasswords").getAnnotation(Update.class).value()[0];
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        }
+    }
+
+    // BCrypt哈希补 {bcrypt}，其余无前缀的值（包括形如 {x}... 的明文）补 {noop}；已迁移的行不动，可重复执行
+    @Test
+    public void testPrefixLegacyPasswords() throws Exception {
+        Map<Long, String> originals = new LinkedHashMap<>();
+        originals.put(1L, "plain-secret");
+        originals.put(2L, BCRYPT_HASH);
+        originals.put(3L, "{x}looks-prefixed");
+        originals.put(4L, "$2a$10$too-short");
+        for (Map.Entry<Long, String> entry : originals.entrySet()) {
+            insert(entry.getKey(), entry.getValue());
+        }
+        String migrated = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("migrated");
+        insert(5L, migrated);
+        insert(6L, "{noop}already");
+        insert(7L, null);
+
+        assertEquals(4, migrate());
+        assertEquals("{noop}plain-secret", password(1));
+        assertEquals("{bcrypt}" + BCRYPT_HASH, password(2));
+        assertEquals("{noop}{x}looks-prefixed", password(3));
+        assertEquals("{noop}$2a$10$too-short", password(4));
+        assertEquals(migrated, password(5));
+        assertEquals("{noop}already", password(6));
+        assertNull(password(7));
+
+        assertEquals(0, migrate());
+        assertEquals("{noop}plain-secret", password(1));
+
+        // 迁移前后用同一个密码都能登录
+        LoginProperties loginProperties = new LoginProperties();
+        loginProperties.setBcryptStrength(4);
+        SecurityConfig securityConfig = new SecurityConfig();
+        ReflectionTestUtils.setField(securityConfig, "loginProperties", loginProperties);
+        PasswordEncoder encoder = securityConfig.passwordEncoder();
+        assertTrue(encoder.matches("plain-secret", password(1)));
+        assertTrue(encoder.matches("hashed-secret", password(2)));
+        assertTrue(encoder.matches("{x}looks-prefixed", password(3)));
+        assertTrue(encoder.matches("$2a$10$too-short", password(4)));
+    }
+
+    // 默认关闭，不执行迁移
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        UsersMapper usersMapper = mock(UsersMapper.class);
+        LegacyPasswordMigration migration = migration(usersMapper, new LoginProperties());
+        migration.run(null);
+        verify(usersMapper, never()).prefixLegacyPasswords();
+    }
+
+    // 显式开启后迁移失败则启动失败
+    @Test
+    public void testFailureAbortsStartup() {
+        UsersMapper usersMapper = mock(UsersMapper.class);
+        when(usersMapper.prefixLegacyPasswords()).thenThrow(new IllegalStateException("db down"));
+        LoginProperties loginProperties = new LoginProperties();
+        loginProperties.setMigrateLegacyPasswords(true);
+        LegacyPasswordMigration migration = migration(usersMapper, loginProperties);
+        assertThrows(IllegalStateException.class, () -> migration.run(null));
+    }
+
+    private static LegacyPasswordMigration migration(UsersMapper usersMapper, LoginProperties loginProperties) {
+        LegacyPasswordMigration migration = new LegacyPasswordMigration();
+        ReflectionTestUtils.setField(migration, "usersMapper", usersMapper);
+        ReflectionTestUtils.setField(migration, "loginProperties", loginProperties);
+        return migration;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.security.RefreshTokenService;
+import com.sunboat.adminWeb.business.security.UserSecurityVersionService;
+import com.sunboat.adminWeb.business.utils.TokenDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RefreshTokenServiceTest {
+
+    // Redis中的Hash，按key保存
+    private final Map<String, Map<Object, Object>> hashes = new ConcurrentHashMap<>();
+    private final AtomicLong currentVersion = new AtomicLong();
+    private RedisTemplate<String, Object> redisTemplate;
+    private HashOperations<String, Object, Object> hashOps;
+    private SetOperations<String, Object> setOps;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        setOps = mock(SetOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(redisTemplate.opsForSet()).thenReturn(setOps);
+        // 事务回调在同一个（模拟的）连接上执行
+        when(redisTemplate.execute(any(SessionCallback.class)))
+                .thenAnswer(inv -> inv.<SessionCallback<?>>getArgument(0).execute(redisTemplate));
+
+        doAnswer(inv -> {
+            hashes.computeIfAbsent(inv.getArgument(0), k -> new HashMap<>())
+                    .putAll((Map<Object, Object>) inv.getArgument(1));
+            return null;
+        }).when(hashOps).putAll(anyString(), anyMap());
+        when(hashOps.multiGet(anyString(), anyCollection())).thenAnswer(inv -> {
+            Map<Object, Object> hash = hashes.getOrDefault(inv.getArgument(0), Collections.emptyMap());
+            List<Object> values = new ArrayList<>();
+            for (Object field : (Collection<Object>) inv.getArgument(1)) {
+                values.add(hash.get(field));
+            }
+            return values;
+        });
+        when(redisTemplate.delete(anyString())).thenAnswer(inv -> hashes.remove(inv.getArgument(0)) != null);
+
+        UserSecurityVersionService securityVersionService = mock(UserSecurityVersionService.class);
+        when(securityVersionService.isCurrent(eq("alice"), anyLong()))
+                .thenAnswer(inv -> currentVersion.get() == inv.<Long>getArgument(1));
+
+        service = new RefreshTokenService();
+        ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(service, "jwtProperties", new JwtProperties());
+        ReflectionTestUtils.setField(service, "securityVersionService", securityVersionService);
+    }
+
+    // 刷新令牌只能使用一次
+    @Test
+    public void testConsumeOnce() {
+        String token = service.issue("alice", 0);
+        assertEquals("alice", service.consume(token));
+        assertNull(service.consume(token));
+        assertNull(service.consume("unknown"));
+        assertNull(service.consume(null));
+    }
+
+    // 写入Hash、加入用户索引和两个过期时间在同一个 MULTI/EXEC 中提交
+    @Test
+    public void testIssueInOneTransaction() {
+        String token = service.issue("alice", 0);
+        String tokenKey = "auth:refresh:token:" + TokenDigest.sha256Hex(token);
+        long ttl = new JwtProperties().getRefreshExpiration();
+
+        InOrder inOrder = inOrder(redisTemplate, hashOps, setOps);
+        inOrder.verify(redisTemplate).multi();
+        inOrder.verify(hashOps).putAll(eq(tokenKey), anyMap());
+        inOrder.verify(redisTemplate).expire(tokenKey, ttl, TimeUnit.SECONDS);
+        inOrder.verify(setOps).add("auth:refresh:user:alice", TokenDigest.sha256Hex(token));
+        inOrder.verify(redisTemplate).expire("auth:refresh:user:alice", ttl, TimeUnit.SECONDS);
+        inOrder.verify(redisTemplate).exec();
+    }
+
+    // Redis中只保存令牌的摘要，key与hutool的SHA-256十六进制结果格式一致
+    @Test
+    public void testStoredUnderDigest() {
+        String token = service.issue("alice", 0);
+        String digest = TokenDigest.sha256Hex(token);
+        assertEquals(64, digest.length());
+        assertEquals(digest.toLowerCase(), digest);
+        assertEquals(Collections.singleton("auth:refresh:token:" + digest), hashes.keySet());
+        assertNotEquals(token, digest);
+    }
+
+    // 签发后安全版本号递增（强制下线、角色变更），刷新令牌不能再换出新令牌，且同时被作废
+    @Test
+    public void testRejectedAfterSecurityVersionBump() {
+        String token = service.issue("alice", 0);
+        currentVersion.set(1);
+        assertNull(service.consume(token));
+        currentVersion.set(0);
+        assertNull(service.consume(token));
+
+        String fresh = service.issue("alice", 1);
+        currentVersion.set(1);
+        assertEquals("alice", service.consume(fresh));
+    }
+
+    // 升级前签发的令牌没有版本号字段，按版本0处理
+    @Test
+    public void testLegacyTokenWithoutVersion() {
+        String token = service.issue("alice", 0);
+        String key = "auth:refresh:token:" + TokenDigest.sha256Hex(token);
+        hashes.get(key).remove("securityVersion");
+        currentVersion.set(1);
+        assertNull(service.consume(token));
+
+        String legacy = service.issue("alice", 0);
+        hashes.get("auth:refresh:token:" + TokenDigest.sha256Hex(legacy)).remove("securityVersion");
+        currentVersion.set(0);
+        assertEquals("alice", service.consume(legacy));
+    }
+
+    // 版本号经Redis序列化后可能以Integer读回
+    @Test
+    public void testVersionReadBackAsInteger() {
+        String token = service.issue("alice", 3);
+        hashes.get("auth:refresh:token:" + TokenDigest.sha256Hex(token)).put("securityVersion", 3);
+        currentVersion.set(3);
+        assertEquals("alice", service.consume(token));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.config.LoginProperties;
+import com.sunboat.adminWeb.business.security.SecurityConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SecurityConfigTest {
+
+    private LoginProperties loginProperties;
+
+    @BeforeEach
+    public void setUp() {
+        loginProperties = new LoginProperties();
+        // 测试中使用最低强度，缩短哈希时间
+        loginProperties.setBcryptStrength(4);
+    }
+
+    private PasswordEncoder passwordEncoder() {
+        SecurityConfig securityConfig = new SecurityConfig();
+        ReflectionTestUtils.setField(securityConfig, "loginProperties", loginProperties);
+        return securityConfig.passwordEncoder();
+    }
+
+    // 新密码以 {bcrypt} 前缀编码，强度与配置一致时不需要升级
+    @Test
+    public void testEncodeWithBcryptPrefix() {
+        PasswordEncoder encoder = passwordEncoder();
+        String encoded = encoder.encode("secret");
+        assertTrue(encoded.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("secret", encoded));
+        assertFalse(encoder.matches("other", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+
+        // 调高强度后，旧强度的哈希在下次登录时升级
+        loginProperties.setBcryptStrength(5);
+        assertTrue(passwordEncoder().upgradeEncoding(encoded));
+    }
+
+    // 没有前缀的BCrypt哈希按BCrypt校验；提交哈希本身不能当作明文登录
+    @Test
+    public void testUnprefixedBcryptHash() {
+        PasswordEncoder encoder = passwordEncoder();
+        String hash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches(hash, hash));
+        assertFalse(encoder.matches("other", hash));
+        assertTrue(encoder.upgradeEncoding(hash));
+    }
+
+    // 没有前缀的明文逐字比较；形如 {x}... 的明文（未知前缀）同样按整串比较
+    @Test
+    public void testUnprefixedPlaintext() {
+        PasswordEncoder encoder = passwordEncoder();
+        assertTrue(encoder.matches("secret", "secret"));
+        assertFalse(encoder.matches("Secret", "secret"));
+        assertFalse(encoder.matches("secret", null));
+        assertTrue(encoder.matches("{x}abc", "{x}abc"));
+        assertFalse(encoder.matches("abc", "{x}abc"));
+        assertTrue(encoder.upgradeEncoding("secret"));
+    }
+
+    // {noop} 明文仍可校验，登录成功后升级为BCrypt
+    @Test
+    public void testNoopPrefix() {
+        PasswordEncoder encoder = passwordEncoder();
+        assertTrue(encoder.matches("secret", "{noop}secret"));
+        assertFalse(encoder.matches("{noop}secret", "{noop}secret"));
+        assertFalse(encoder.matches("other", "{noop}secret"));
+        assertTrue(encoder.upgradeEncoding("{noop}secret"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.business.security;
+
+import com.sunboat.adminWeb.business.config.TokenRevocationProperties;
+import com.sunboat.adminWeb.business.security.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.client.codec.Codec;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationServiceTest {
+
+    // Redis中的吊销有序集合：jti -> 过期时间
+    private final Map<String, Double> store = new ConcurrentHashMap<>();
+    private RScoredSortedSet<String> revokedSet;
+    private RTopic revokedTopic;
+    private MessageListener<String> topicListener;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws InterruptedException {
+        revokedSet = mock(RScoredSortedSet.class);
+        when(revokedSet.add(anyDouble(), anyString()))
+                .thenAnswer(inv -> store.put(inv.getArgument(1), inv.getArgument(0)) == null);
+        when(revokedSet.getScore(anyString())).thenAnswer(inv -> store.get(inv.<String>getArgument(0)));
+        when(revokedSet.readAll()).thenAnswer(inv -> new ArrayList<>(store.keySet()));
+        when(revokedSet.removeRangeByScore(anyDouble(), anyBoolean(), anyDouble(), anyBoolean())).thenAnswer(inv -> {
+            double end = inv.getArgument(2);
+            int before = store.size();
+            store.values().removeIf(score -> score <= end);
+            return before - store.size();
+        });
+
+        revokedTopic = mock(RTopic.class);
+        when(revokedTopic.addListener(eq(String.class), any())).thenAnswer(inv -> {
+            topicListener = inv.getArgument(1);
+            return 1;
+        });
+
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.<String>getScoredSortedSet(anyString(), any(Codec.class))).thenReturn(revokedSet);
+        when(redissonClient.getTopic(anyString(), any(Codec.class))).thenReturn(revokedTopic);
+
+        TokenRevocationProperties properties = new TokenRevocationProperties();
+        properties.setRefreshIntervalSeconds(3600);
+        // 误判率足够低，判定“不存在”的断言不会偶然失败
+        properties.setFalsePositiveRate(1e-9);
+
+        service = new TokenRevocationService();
+        ReflectionTestUtils.setField(service, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(service, "properties", properties);
+        service.init();
+        // 停掉定时重建（等待启动时的第一次重建结束），测试中按需手动重建
+        service.shutdown();
+        ExecutorService rebuildExecutor = (ExecutorService) ReflectionTestUtils.getField(service, "rebuildExecutor");
+        assertTrue(rebuildExecutor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static Date inOneHour() {
+        return new Date(System.currentTimeMillis() + 3_600_000);
+    }
+
+    // 吊销后立即生效并广播；未吊销的令牌由本地过滤器直接放行，不访问Redis
+    @Test
+    public void testRevoke() {
+        service.revoke("jti-1", inOneHour());
+        assertTrue(service.isRevoked("jti-1"));
+        verify(revokedTopic).publish("jti-1");
+
+        assertFalse(service.isRevoked("jti-2"));
+        verify(revokedSet, never()).getScore("jti-2");
+        assertFalse(service.isRevoked(null));
+    }
+
+    // 其他节点的吊销通过主题同步到本地过滤器
+    @Test
+    public void testRemoteRevocation() {
+        store.put("remote", (double) inOneHour().getTime());
+        topicListener.onMessage("auth:revoked:topic", "remote");
+        assertTrue(service.isRevoked("remote"));
+    }
+
+    // 过滤器可能命中而Redis不可用时，按已吊销处理
+    @Test
+    public void testRedisFailureFailsClosed() {
+        service.revoke("jti-1", inOneHour());
+        when(revokedSet.getScore("jti-1")).thenThrow(new RedisConnectionException("down"));
+        assertTrue(service.isRevoked("jti-1"));
+    }
+
+    // 全量重建清理已过期的记录，过期令牌不再占用过滤器
+    @Test
+    public void testRebuildDropsExpired() {
+        service.revoke("expired", new Date(System.currentTimeMillis() - 1000));
+        service.revoke("live", inOneHour());
+
+        ReflectionTestUtils.invokeMethod(service, "rebuild");
+        assertFalse(store.containsKey("expired"));
+        assertFalse(service.isRevoked("expired"));
+        verify(revokedSet, never()).getScore("expired");
+        assertTrue(service.isRevoked("live"));
+    }
+}
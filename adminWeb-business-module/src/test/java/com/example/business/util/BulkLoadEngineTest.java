@@ -0,0 +1,378 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.BatchInsertWithMapper;
+import com.sunboat.adminWeb.business.utils.bulk.AdaptiveBatchSizer;
+import com.sunboat.adminWeb.business.utils.bulk.BatchListener;
+import com.sunboat.adminWeb.business.utils.bulk.BatchWriter;
+import com.sunboat.adminWeb.business.utils.bulk.BulkFuture;
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkProgress;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.FileCheckpointStore;
+import com.sunboat.adminWeb.business.utils.bulk.KeyPartitioner;
+import com.sunboat.adminWeb.business.utils.bulk.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkLoadEngineTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // 在途批次数不超过上限，数据源按需读取，不会提前读入全部数据
+    @Test
+    public void testBackpressure() throws InterruptedException {
+        int batchSize = 10;
+        int maxInFlight = 2;
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(batchSize)
+                .maxInFlightBatches(maxInFlight)
+                .executor(executor)
+                .build();
+
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicInteger peakReadAhead = new AtomicInteger();
+        Iterator<Integer> source = IntStream.range(0, 1000).peek(i -> read.incrementAndGet()).boxed().iterator();
+
+        BulkResult result = engine.load(source, batch -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            peakReadAhead.accumulateAndGet(read.get() - written.get(), Math::max);
+            Thread.sleep(1);
+            written.addAndGet(batch.size());
+            inFlight.decrementAndGet();
+            return batch.size();
+        });
+
+        assertTrue(result.isSuccess());
+        assertEquals(1000, result.getRows());
+        assertEquals(1000, result.getWrittenRows());
+        assertEquals(100, result.getBatches());
+        assertTrue(peakInFlight.get() <= maxInFlight);
+        // 已读取未写入的行数最多为在途批次加上正在攒的一批
+        assertTrue(peakReadAhead.get() <= (maxInFlight + 1) * batchSize);
+    }
+
+    // 出错后停止读取，第一个异常通过结果返回
+    @Test
+    public void testFailFast() throws InterruptedException {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(1)
+                .executor(executor)
+                .build();
+
+        BulkResult result = engine.load(IntStream.range(0, 1000).boxed(), batch -> {
+            if (batch.contains(25)) {
+                throw new IllegalStateException("批次写入失败");
+            }
+            return batch.size();
+        });
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getFailedBatches());
+        assertEquals(10, result.getFailedRows());
+        assertEquals(20, result.getWrittenRows());
+        assertEquals("批次写入失败", result.getFirstError().getMessage());
+        assertEquals(30, result.getRows());
+    }
+
+    // 原有List接口：结果按批次顺序返回，最后一批不足batchSize
+    @Test
+    public void testBatchInsertWithMapperKeepsBatchOrder() throws InterruptedException, ExecutionException {
+        List<Integer> dataList = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            dataList.add(i);
+        }
+        BatchInsertWithMapper<Integer> processor = new BatchInsertWithMapper<>(10, 3);
+        try {
+            List<Integer> results = processor.processBatchInsert(dataList, null, (mapper, batch) -> batch.size());
+            assertEquals(Arrays.asList(10, 10, 5), results);
+        } finally {
+            processor.shutdown();
+        }
+    }
+
+    // 自适应批次：吞吐稳定时逐步增大到上限，超时批次减半，失败批次再减半，始终不低于下限
+    @Test
+    public void testAdaptiveBatchSizer() {
+        AdaptiveBatchSizer sizer = AdaptiveBatchSizer.builder()
+                .minBatchSize(100)
+                .maxBatchSize(1000)
+                .additiveStep(100)
+                .targetLatencyMillis(100)
+                .build();
+        assertEquals(100, sizer.nextBatchSize());
+
+        // 每100行耗时5ms，吞吐与批次大小无关
+        for (int i = 0; i < 20; i++) {
+            int rows = sizer.nextBatchSize();
+            sizer.onBatchComplete(rows, TimeUnit.MILLISECONDS.toNanos(5) * rows / 100, true);
+        }
+        assertEquals(1000, sizer.nextBatchSize());
+
+        sizer.onBatchComplete(1000, TimeUnit.MILLISECONDS.toNanos(200), true);
+        assertEquals(500, sizer.nextBatchSize());
+        sizer.onBatchComplete(500, TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertEquals(250, sizer.nextBatchSize());
+        sizer.onBatchComplete(250, TimeUnit.MILLISECONDS.toNanos(10), false);
+        sizer.onBatchComplete(125, TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertEquals(100, sizer.nextBatchSize());
+    }
+
+    // 瞬时错误（如死锁）按退避重试后成功
+    @Test
+    public void testRetryTransientError() throws InterruptedException {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(2)
+                .executor(executor)
+                .retryPolicy(new RetryPolicy(3, 1, 10, 2))
+                .build();
+
+        Set<Integer> failedOnce = ConcurrentHashMap.newKeySet();
+        BulkResult result = engine.load(IntStream.range(0, 100).boxed(), BatchWriter.retrySafe(batch -> {
+            if (failedOnce.add(batch.get(0))) {
+                throw new SQLTransientException("Deadlock found when trying to get lock");
+            }
+            return batch.size();
+        }));
+
+        assertTrue(result.isSuccess());
+        assertEquals(100, result.getWrittenRows());
+        assertEquals(10, result.getRetries());
+    }
+
+    // 未声明可安全重试的写入器（可能已提交了一部分行）遇到瞬时错误也不重试
+    @Test
+    public void testNoRetryForUnsafeWriter() throws InterruptedException {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(2)
+                .executor(executor)
+                .retryPolicy(new RetryPolicy(3, 1, 10, 2))
+                .build();
+
+        AtomicInteger calls = new AtomicInteger();
+        BulkResult result = engine.load(IntStream.range(0, 10).boxed(), batch -> {
+            calls.incrementAndGet();
+            throw new SQLTransientException("Deadlock found when trying to get lock");
+        });
+
+        assertFalse(result.isSuccess());
+        assertEquals(1, calls.get());
+        assertEquals(0, result.getRetries());
+        assertEquals(1, result.getFailedOutcomes().get(0).getAttempts());
+    }
+
+    // 中断的导入再次执行时从断点继续，已落库的行不会重复写入
+    @Test
+    public void testResumeFromCheckpoint(@TempDir Path dir) throws InterruptedException {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(1)
+                .executor(executor)
+                .checkpointStore(new FileCheckpointStore(dir))
+                .build();
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+
+        BulkResult first = engine.load("import-1", IntStream.range(0, 100).boxed().iterator(), batch -> {
+            if (batch.contains(55)) {
+                throw new IllegalStateException("数据库连接断开");
+            }
+            written.addAll(batch);
+            return batch.size();
+        }, BatchListener.NONE);
+        assertFalse(first.isSuccess());
+        assertEquals(4, first.getCheckpoint().getSequence());
+        assertEquals(50, first.getCheckpoint().getRows());
+        assertEquals(50, first.getFailedOutcomes().get(0).getFirstRow());
+
+        BulkResult second = engine.load("import-1", IntStream.range(0, 100).boxed().iterator(), batch -> {
+            written.addAll(batch);
+            return batch.size();
+        }, BatchListener.NONE);
+        assertTrue(second.isSuccess());
+        assertEquals(50, second.getSkippedRows());
+        assertEquals(50, second.getWrittenRows());
+        assertEquals(100, written.size());
+        // 导入完成后断点被清除
+        assertNull(new FileCheckpointStore(dir).load("import-1"));
+    }
+
+    // 分区导入：同一分区的批次不并发、按读取顺序写入，分区之间并行
+    @Test
+    public void testPartitionedLoadKeepsOrderPerPartition() throws InterruptedException {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(8)
+                .executor(executor)
+                .build();
+        int partitions = 4;
+        KeyPartitioner<Integer> partitioner = KeyPartitioner.hash(row -> row % 16, partitions);
+        AtomicInteger[] active = new AtomicInteger[partitions];
+        List<List<Integer>> written = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            active[i] = new AtomicInteger();
+            written.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+
+        BulkResult result = engine.loadPartitioned(IntStream.range(0, 1000).boxed().iterator(), partitioner, batch -> {
+            int p = partitioner.partitionOf(batch.get(0));
+            if (active[p].incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                assertTrue(batch.stream().allMatch(row -> partitioner.partitionOf(row) == p));
+                Thread.sleep(2);
+                written.get(p).addAll(batch);
+            } finally {
+                running.decrementAndGet();
+                active[p].decrementAndGet();
+            }
+            return batch.size();
+        });
+
+        assertTrue(result.isSuccess());
+        assertEquals(1000, result.getWrittenRows());
+        assertEquals(0, overlaps.get());
+        assertTrue(peak.get() > 1, "分区之间应并行写入");
+        for (List<Integer> rows : written) {
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(rows.get(i - 1) < rows.get(i), "分区内顺序被打乱");
+            }
+        }
+    }
+
+    @Test
+    public void testRangePartitioner() {
+        KeyPartitioner<Long> partitioner = KeyPartitioner.range(row -> row, Arrays.asList(100L, 200L));
+        assertEquals(3, partitioner.partitions());
+        assertEquals(0, partitioner.partitionOf(99L));
+        assertEquals(1, partitioner.partitionOf(100L));
+        assertEquals(1, partitioner.partitionOf(199L));
+        assertEquals(2, partitioner.partitionOf(1000L));
+
+        KeyPartitioner<Long> even = KeyPartitioner.range(row -> row, 1, 1000, 4);
+        assertEquals(4, even.partitions());
+        assertEquals(0, even.partitionOf(1L));
+        assertEquals(1, even.partitionOf(251L));
+        assertEquals(3, even.partitionOf(1000L));
+    }
+
+    // 异步导入立即返回，结束时最后一次进度与结果一致
+    @Test
+    public void testAsyncLoadReportsProgress() throws Exception {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(4)
+                .executor(executor)
+                .failFast(false)
+                .progressIntervalMillis(0)
+                .build();
+        List<BulkProgress> reports = new CopyOnWriteArrayList<>();
+
+        BulkFuture future = engine.loadAsync(IntStream.range(0, 200).boxed().iterator(), batch -> {
+            if (batch.contains(55)) {
+                throw new IllegalStateException("写入失败");
+            }
+            return batch.size();
+        }, 200, reports::add);
+        BulkResult result = future.get(10, TimeUnit.SECONDS);
+
+        assertEquals(190, result.getWrittenRows());
+        BulkProgress last = reports.get(reports.size() - 1);
+        assertEquals(200, last.getRows());
+        assertEquals(190, last.getWrittenRows());
+        assertEquals(20, last.getCompletedBatches());
+        assertEquals(1, last.getFailedBatches());
+        assertEquals(95.0, last.getPercent(), 0.001);
+    }
+
+    // cancel(true) 中断正在写入的批次，之后的批次不再执行
+    @Test
+    public void testCancelInterruptsRunningBatch() throws Exception {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(2)
+                .executor(executor)
+                .build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        BulkFuture future = engine.loadAsync(IntStream.range(0, 10_000).boxed().iterator(), batch -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return batch.size();
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::join);
+        Thread.sleep(100);
+        assertTrue(calls.get() <= 2, "取消后仍有批次被执行");
+        assertTrue(future.getProgress().getRows() < 10_000);
+    }
+
+    // 线程池抛出非拒绝异常时许可被释放，异常传给调用方，不会卡在等待在途批次上
+    @Test
+    public void testExecutorFailureDoesNotHang() {
+        BulkLoadEngine engine = BulkLoadEngine.builder()
+                .batchSize(10)
+                .maxInFlightBatches(2)
+                .executor(task -> {
+                    throw new IllegalStateException("线程池不可用");
+                })
+                .build();
+
+        assertThrows(IllegalStateException.class,
+                () -> engine.load(IntStream.range(0, 100).boxed(), List::size));
+        assertThrows(IllegalStateException.class,
+                () -> engine.loadPartitioned(IntStream.range(0, 100).boxed().iterator(),
+                        KeyPartitioner.hash(i -> (long) i, 2), List::size));
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.BatchInsertProcessor;
+import com.sunboat.adminWeb.business.utils.bulk.BatchSizer;
+import com.sunboat.adminWeb.business.utils.bulk.BulkFuture;
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.BulkWriteExecutor;
+import com.sunboat.adminWeb.business.utils.bulk.ConnectionPoolStats;
+import com.sunboat.adminWeb.business.utils.bulk.ProgressListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkWriteExecutorTest {
+
+    private BulkWriteExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // 并发度 = 最大连接数 - 保留连接 - 其他业务占用，且不超过占用比例上限
+    @Test
+    public void testParallelismFollowsPool() throws InterruptedException {
+        MutablePoolStats pool = new MutablePoolStats(10);
+        executor = new BulkWriteExecutor(pool, 2, 0.5, 0, 1);
+        assertEquals(5, executor.getParallelism());
+
+        pool.active = 6;
+        pool.awaiting = 1;
+        TimeUnit.MILLISECONDS.sleep(5);
+        assertEquals(1, executor.getParallelism());
+
+        pool.active = 0;
+        pool.awaiting = 0;
+        TimeUnit.MILLISECONDS.sleep(5);
+        assertEquals(5, executor.getParallelism());
+    }
+
+    // 两个导入同时进行时各自不超过一半的并发度，合计不超过总并发度
+    @Test
+    public void testFairShareAcrossImports() throws Exception {
+        executor = new BulkWriteExecutor(new MutablePoolStats(8), 0, 1.0, 4, 10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        ImportProbe first = new ImportProbe(running, peak);
+        ImportProbe second = new ImportProbe(running, peak);
+
+        try (BulkWriteExecutor.Lease a = executor.openLease("a");
+             BulkWriteExecutor.Lease b = executor.openLease("b")) {
+            CompletableFuture<BulkResult> fa = CompletableFuture.supplyAsync(() -> first.run(a));
+            CompletableFuture<BulkResult> fb = CompletableFuture.supplyAsync(() -> second.run(b));
+            assertEquals(200, fa.get(30, TimeUnit.SECONDS).getWrittenRows());
+            assertEquals(200, fb.get(30, TimeUnit.SECONDS).getWrittenRows());
+        }
+
+        assertTrue(first.peak.get() <= 2, "导入a峰值并发 " + first.peak.get());
+        assertTrue(second.peak.get() <= 2, "导入b峰值并发 " + second.peak.get());
+        assertTrue(peak.get() <= 4, "总峰值并发 " + peak.get());
+        assertEquals(0, executor.getActiveLeases());
+    }
+
+    // 读取线程卡在背压上时取消：Future 立即完成，租约保持到在途批次结束、读取线程退出后才归还，之后的导入不受影响
+    @Test
+    public void testCancelWhileReaderBlockedOnBackpressure() throws Exception {
+        executor = new BulkWriteExecutor(new MutablePoolStats(1), 0, 1.0, 1, 10);
+        BatchInsertProcessor<Integer> processor = new BatchInsertProcessor<>(BatchSizer.fixed(10), executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        BulkFuture future = processor.processBatchInsertAsync(IntStream.range(0, 1000).boxed().iterator(), batch -> {
+            calls.incrementAndGet();
+            started.countDown();
+            // 模拟不响应中断的JDBC调用
+            while (true) {
+                try {
+                    release.await();
+                    return true;
+                } catch (InterruptedException ignored) {
+                    // 继续等待
+                }
+            }
+        }, 1000, ProgressListener.NONE);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // 并发度为1：读取线程提交下一批时在租约中等待
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertEquals(1, executor.getActiveLeases());
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((executor.getActiveLeases() > 0 || executor.getRunning() > 0) && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        assertEquals(0, executor.getActiveLeases());
+        assertEquals(0, executor.getRunning());
+        assertTrue(calls.get() <= 2, "取消后仍有批次被执行: " + calls.get());
+
+        List<Boolean> results = processor.processBatchInsert(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11), batch -> true);
+        assertEquals(Arrays.asList(true, true), results);
+    }
+
+    // 已关闭的租约按线程池拒绝处理，引擎会在读取线程中执行或丢弃该批次
+    @Test
+    public void testClosedLeaseRejects() {
+        executor = new BulkWriteExecutor(new MutablePoolStats(4), 0, 1.0, 2, 10);
+        BulkWriteExecutor.Lease lease = executor.openLease("closed");
+        lease.close();
+        assertThrows(RejectedExecutionException.class, () -> lease.execute(() -> { }));
+        assertEquals(0, executor.getRunning());
+    }
+
+    private static class MutablePoolStats implements ConnectionPoolStats {
+        private final int maximumPoolSize;
+        private volatile int active;
+        private volatile int awaiting;
+
+        private MutablePoolStats(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        @Override
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        @Override
+        public int getActiveConnections() {
+            return active;
+        }
+
+        @Override
+        public int getThreadsAwaitingConnection() {
+            return awaiting;
+        }
+    }
+
+    // 一个导入：记录自身和全局的峰值并发
+    private static class ImportProbe {
+        private final AtomicInteger totalRunning;
+        private final AtomicInteger totalPeak;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        private ImportProbe(AtomicInteger totalRunning, AtomicInteger totalPeak) {
+            this.totalRunning = totalRunning;
+            this.totalPeak = totalPeak;
+        }
+
+        private BulkResult run(BulkWriteExecutor.Lease lease) {
+            BulkLoadEngine engine = BulkLoadEngine.builder()
+                    .batchSize(10)
+                    .maxInFlightBatches(8)
+                    .executor(lease)
+                    .build();
+            try {
+                return engine.<Integer>load(IntStream.range(0, 200).boxed().iterator(), batch -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    totalPeak.accumulateAndGet(totalRunning.incrementAndGet(), Math::max);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(5);
+                    } finally {
+                        running.decrementAndGet();
+                        totalRunning.decrementAndGet();
+                    }
+                    return batch.size();
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.ByteScanKernels;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ByteScanKernelsTest {
+
+    // 与逐字节结果一致：各种起止位置（覆盖不足8字节的尾部）、堆内/直接内存、大小端
+    @Test
+    public void testMatchesScalarScan() {
+        Random random = new Random(7);
+        byte[] data = new byte[4099];
+        random.nextBytes(data);
+        // 0x00、0x80、0xFF 是SWAR最容易出错的值
+        byte[] targets = {0x0A, 0x00, (byte) 0x80, (byte) 0xFF, 0x7F};
+        for (int i = 0; i < data.length; i += 37) {
+            data[i] = targets[i % targets.length];
+        }
+
+        for (boolean direct : new boolean[]{false, true}) {
+            for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+                ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(data.length) : ByteBuffer.allocate(data.length);
+                buffer.put(data).order(order);
+                for (int from : new int[]{0, 1, 5, 8, 13}) {
+                    for (int to : new int[]{from, from + 3, from + 8, from + 17, data.length - 2, data.length}) {
+                        buffer.limit(to);
+                        buffer.position(from);
+                        for (byte target : targets) {
+                            assertEquals(scalarCount(data, from, to, target), ByteScanKernels.count(buffer, target));
+                            assertEquals(scalarIndexOf(data, from, to, target), ByteScanKernels.indexOf(buffer, target));
+                        }
+                        long[] histogram = new long[256];
+                        ByteScanKernels.histogram(buffer, histogram);
+                        assertArrayEquals(scalarHistogram(data, from, to), histogram);
+                        assertEquals(from, buffer.position());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOfEachPosition() {
+        byte[] data = new byte[24];
+        for (int i = 0; i < data.length; i++) {
+            Arrays.fill(data, (byte) 1);
+            data[i] = 0x0A;
+            if (i + 1 < data.length) {
+                // 目标后面紧跟的字节也可能产生误报
+                data[i + 1] = 0x0A;
+            }
+            assertEquals(i, ByteScanKernels.indexOf(data, 0, data.length, (byte) 0x0A));
+            assertEquals(i + 1 < data.length ? 2 : 1, ByteScanKernels.count(data, 0, data.length, (byte) 0x0A));
+        }
+        assertEquals(-1, ByteScanKernels.indexOf(data, 0, 0, (byte) 0x0A));
+    }
+
+    private static long scalarCount(byte[] data, int from, int to, byte target) {
+        long count = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == target) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int scalarIndexOf(byte[] data, int from, int to, byte target) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] scalarHistogram(byte[] data, int from, int to) {
+        long[] histogram = new long[256];
+        for (int i = from; i < to; i++) {
+            histogram[data[i] & 0xFF]++;
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.DirectBufferPool;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectBufferPoolTest {
+
+    // 归还的缓冲区被复用，取出时已清空
+    @Test
+    public void testReuse() {
+        DirectBufferPool pool = new DirectBufferPool(64, 2);
+        ByteBuffer buffer = pool.acquire();
+        assertTrue(buffer.isDirect());
+        assertEquals(64, buffer.capacity());
+
+        buffer.putInt(42).flip();
+        pool.release(buffer);
+        ByteBuffer reused = pool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(64, reused.limit());
+    }
+
+    // 池空时临时新建；超过上限的归还直接丢弃
+    @Test
+    public void testBounded() {
+        DirectBufferPool pool = new DirectBufferPool(64, 2);
+        ByteBuffer a = pool.acquire();
+        ByteBuffer b = pool.acquire();
+        ByteBuffer c = pool.acquire();
+        assertNotSame(a, b);
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        ByteBuffer third = pool.acquire();
+        assertTrue(first == a || first == b);
+        assertTrue(second == a || second == b);
+        assertNotSame(c, third);
+        assertNotSame(a, third);
+        assertNotSame(b, third);
+    }
+
+    // 大小不符或堆内缓冲区不收
+    @Test
+    public void testRejectsForeignBuffers() {
+        DirectBufferPool pool = new DirectBufferPool(64, 2);
+        ByteBuffer heap = ByteBuffer.allocate(64);
+        ByteBuffer wrongSize = ByteBuffer.allocateDirect(32);
+        pool.release(heap);
+        pool.release(wrongSize);
+
+        ByteBuffer buffer = pool.acquire();
+        assertNotSame(heap, buffer);
+        assertNotSame(wrongSize, buffer);
+        assertTrue(buffer.isDirect());
+        assertEquals(64, buffer.capacity());
+    }
+}
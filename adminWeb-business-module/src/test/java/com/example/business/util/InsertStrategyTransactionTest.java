@@ -0,0 +1,140 @@
+package com.example.business.util;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.sunboat.adminWeb.business.config.BulkSqlInjector;
+import com.sunboat.adminWeb.business.maper.BulkInsertMapper;
+import com.sunboat.adminWeb.business.utils.bulk.InsertBatchSomeColumnStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.InsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.JdbcBatchInsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.MultiRowValuesInsertStrategy;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 内置插入方式的事务边界：连接自动提交、会话由 mybatis-spring 管理（与线上配置一致）时，
+ * 一批中任一行失败，这一批之前已执行的语句也要回滚
+ */
+public class InsertStrategyTransactionTest {
+
+    private static JdbcDataSource dataSource;
+    private static SqlSessionFactory sqlSessionFactory;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    public static void initFactory() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:bulk_tx;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.getGlobalConfig().setSqlInjector(new BulkSqlInjector());
+        configuration.setEnvironment(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.addMapper(BulkRowMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate.execute("CREATE TABLE bulk_row (id BIGINT PRIMARY KEY, name VARCHAR(32))");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE bulk_row");
+    }
+
+    @Test
+    public void testJdbcBatchRollsBackWholeBatch() {
+        assertBatchAtomic(new JdbcBatchInsertStrategy<>(sqlSessionFactory, BulkRowMapper.class, 2));
+    }
+
+    @Test
+    public void testInsertBatchSomeColumnRollsBackWholeBatch() {
+        assertBatchAtomic(new InsertBatchSomeColumnStrategy<>(sqlSessionFactory, BulkRowMapper.class, 2));
+    }
+
+    @Test
+    public void testMultiRowValuesRollsBackWholeBatch() {
+        // 预留1024字节后剩120字节：语句头39字节，每行估算36字节，每条语句2行
+        assertBatchAtomic(new MultiRowValuesInsertStrategy<>(jdbcTemplate, BulkRow.class, false, 1024 + 120));
+    }
+
+    // 每批5行、每条语句（或每次flush）2行：失败的行在最后一条语句中，前两条语句已经执行
+    private void assertBatchAtomic(InsertStrategy<BulkRow> strategy) {
+        assertEquals(5, strategy.write(rows(1, 2, 3, 4, 5)));
+        assertEquals(5, count());
+
+        // 本批最后一行与第一行主键重复
+        assertThrows(RuntimeException.class, () -> strategy.write(rows(6, 7, 8, 9, 6)));
+        assertEquals(5, count());
+        // 与已提交的批次冲突时同样整批回滚
+        assertThrows(RuntimeException.class, () -> strategy.write(rows(10, 11, 12, 13, 1)));
+        assertEquals(5, count());
+
+        // 失败的批次没有留下任何行，修正后整批重写不会主键冲突
+        assertEquals(5, strategy.write(rows(6, 7, 8, 9, 10)));
+        assertEquals(10, count());
+    }
+
+    private static int count() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bulk_row", Integer.class);
+        return count != null ? count : 0;
+    }
+
+    private static List<BulkRow> rows(long... ids) {
+        List<BulkRow> rows = new ArrayList<>(ids.length);
+        Arrays.stream(ids).forEach(id -> rows.add(new BulkRow(id, "r" + (id % 10))));
+        return rows;
+    }
+
+    @TableName("bulk_row")
+    public static class BulkRow {
+        @TableId(type = IdType.INPUT)
+        private Long id;
+        private String name;
+
+        public BulkRow() {
+        }
+
+        public BulkRow(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public interface BulkRowMapper extends BulkInsertMapper<BulkRow> {
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.utils.JwtKeyRing;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtKeyRingTest {
+
+    private static final String DEFAULT_SECRET = "default-secret-key-with-at-least-32-bytes";
+    private static final String K2_SECRET = "k2-secret-key-with-at-least-32-bytes-long";
+
+    private static JwtProperties properties() {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(DEFAULT_SECRET);
+        properties.getKeys().put("k2", K2_SECRET);
+        return properties;
+    }
+
+    private static String sign(String kid, String secret) {
+        Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        JwtBuilder builder = Jwts.builder().setSubject("alice");
+        if (kid != null) {
+            builder.setHeaderParam("kid", kid);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
+    }
+
+    // 按kid头选择密钥验签；没有kid的旧令牌使用默认密钥
+    @Test
+    public void testResolveByKid() {
+        JwtKeyRing ring = JwtKeyRing.from(properties());
+        assertEquals(JwtKeyRing.DEFAULT_KID, ring.getActiveKid());
+
+        assertEquals("alice", ring.getParser().parseClaimsJws(sign("k2", K2_SECRET)).getBody().getSubject());
+        assertEquals("alice", ring.getParser().parseClaimsJws(sign("default", DEFAULT_SECRET)).getBody().getSubject());
+        assertEquals("alice", ring.getParser().parseClaimsJws(sign(null, DEFAULT_SECRET)).getBody().getSubject());
+    }
+
+    // 未知kid、kid与密钥不匹配都拒绝
+    @Test
+    public void testRejectsUnknownOrMismatchedKid() {
+        JwtKeyRing ring = JwtKeyRing.from(properties());
+        assertThrows(SignatureException.class, () -> ring.getParser().parseClaimsJws(sign("k3", K2_SECRET)));
+        assertThrows(JwtException.class,
+                () -> ring.getParser().parseClaimsJws(sign("default", K2_SECRET)));
+    }
+
+    // 切换签名密钥后，签名用新密钥，旧密钥仍可验签
+    @Test
+    public void testActiveKid() {
+        JwtProperties properties = properties();
+        properties.setActiveKid("k2");
+        JwtKeyRing ring = JwtKeyRing.from(properties);
+        assertEquals("k2", ring.getActiveKid());
+        assertEquals(Keys.hmacShaKeyFor(K2_SECRET.getBytes(StandardCharsets.UTF_8)), ring.getActiveKey());
+        assertEquals("alice", ring.getParser().parseClaimsJws(sign(null, DEFAULT_SECRET)).getBody().getSubject());
+    }
+
+    // 配置错误时构建失败，不会带着无效密钥启动
+    @Test
+    public void testInvalidConfiguration() {
+        JwtProperties shortSecret = properties();
+        shortSecret.getKeys().put("short", "too-short");
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.from(shortSecret));
+
+        JwtProperties missingActive = properties();
+        missingActive.setActiveKid("missing");
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.from(missingActive));
+
+        JwtProperties noDefault = properties();
+        noDefault.setSecret(null);
+        assertThrows(IllegalStateException.class, () -> JwtKeyRing.from(noDefault));
+        noDefault.setActiveKid("k2");
+        assertEquals("k2", JwtKeyRing.from(noDefault).getActiveKid());
+    }
+
+    // 解析器在构建时创建并复用；密钥相同的两个密钥环视为一致，不需要切换
+    @Test
+    public void testSameKeys() {
+        JwtKeyRing ring = JwtKeyRing.from(properties());
+        assertSame(ring.getParser(), ring.getParser());
+        assertTrue(ring.sameKeysAs(JwtKeyRing.from(properties())));
+        assertFalse(ring.sameKeysAs(null));
+
+        JwtProperties rotated = properties();
+        rotated.setActiveKid("k2");
+        assertFalse(ring.sameKeysAs(JwtKeyRing.from(rotated)));
+
+        JwtProperties changed = properties();
+        changed.getKeys().put("k2", K2_SECRET + "-changed");
+        assertFalse(ring.sameKeysAs(JwtKeyRing.from(changed)));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.config.JwtProperties;
+import com.sunboat.adminWeb.business.utils.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JwtTokenUtilTest {
+
+    private static final String OTHER_SECRET = "another-secret-key-with-at-least-32-bytes";
+
+    private final UserDetails user = new User("alice", "",
+            AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_VIEWER"));
+
+    private JwtProperties properties;
+    // 实际解析验签的次数
+    private AtomicInteger verifications;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new JwtProperties();
+        verifications = new AtomicInteger();
+    }
+
+    private JwtTokenUtil newUtil() {
+        JwtTokenUtil jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "jwtProperties", properties);
+        jwtTokenUtil.init();
+        jwtTokenUtil.setVerifyListener(nanos -> verifications.incrementAndGet());
+        return jwtTokenUtil;
+    }
+
+    // 生成的令牌带角色、安全版本号、jti，解析后原样还原
+    @Test
+    public void testGenerateAndParse() {
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        String token = jwtTokenUtil.generateToken(user,
+                Collections.singletonMap(JwtTokenUtil.CLAIM_SECURITY_VERSION, 7L));
+
+        Claims claims = jwtTokenUtil.getAllClaimsFromToken(token);
+        assertEquals("alice", claims.getSubject());
+        assertNotNull(claims.getId());
+        assertEquals(7L, jwtTokenUtil.getSecurityVersion(claims));
+        assertFalse(jwtTokenUtil.isTokenExpired(claims));
+        assertTrue(jwtTokenUtil.validateToken(token, user));
+
+        List<GrantedAuthority> authorities = jwtTokenUtil.getAuthoritiesFromClaims(claims);
+        assertEquals(AuthorityUtils.createAuthorityList("ROLE_ADMIN", "ROLE_VIEWER"), authorities);
+    }
+
+    // 同一令牌只验签一次，之后命中缓存
+    @Test
+    public void testClaimsCachedByDigest() {
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        String token = jwtTokenUtil.generateToken(user);
+
+        Claims first = jwtTokenUtil.getAllClaimsFromToken(token);
+        Claims second = jwtTokenUtil.getAllClaimsFromToken(token);
+        assertSame(first, second);
+        assertEquals("alice", jwtTokenUtil.getUsernameFromToken(token));
+        assertEquals(1, verifications.get());
+        assertEquals(1, jwtTokenUtil.getClaimsCache().estimatedSize());
+        // 缓存key是摘要，不是令牌原文
+        assertFalse(jwtTokenUtil.getClaimsCache().asMap().containsKey(token));
+    }
+
+    // 关闭缓存时每次都验签
+    @Test
+    public void testCacheDisabled() {
+        properties.setClaimsCacheMaxSize(0);
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        assertNull(jwtTokenUtil.getClaimsCache());
+
+        String token = jwtTokenUtil.generateToken(user);
+        jwtTokenUtil.getAllClaimsFromToken(token);
+        jwtTokenUtil.getAllClaimsFromToken(token);
+        assertEquals(2, verifications.get());
+    }
+
+    // 验签失败、已过期的令牌抛出异常，不写入缓存
+    @Test
+    public void testInvalidTokensNotCached() {
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        String token = jwtTokenUtil.generateToken(user);
+        // 改签名的第一个字符（最后一个字符含填充位，改动可能不影响解码结果）
+        int signatureStart = token.lastIndexOf('.') + 1;
+        char first = token.charAt(signatureStart);
+        String tampered = token.substring(0, signatureStart) + (first == 'A' ? 'B' : 'A')
+                + token.substring(signatureStart + 1);
+
+        assertThrows(JwtException.class, () -> jwtTokenUtil.getAllClaimsFromToken(tampered));
+        assertThrows(JwtException.class, () -> jwtTokenUtil.getAllClaimsFromToken(tampered));
+        assertEquals(2, verifications.get());
+
+        properties.setExpiration(-60);
+        String expired = jwtTokenUtil.generateToken(user);
+        assertThrows(ExpiredJwtException.class, () -> jwtTokenUtil.getAllClaimsFromToken(expired));
+        assertEquals(0, jwtTokenUtil.getClaimsCache().estimatedSize());
+    }
+
+    // 轮换密钥：旧密钥保留期间旧令牌仍可验签，移除后旧令牌失效且不再命中缓存
+    @Test
+    public void testKeyRotation() {
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        String oldToken = jwtTokenUtil.generateToken(user);
+        jwtTokenUtil.getAllClaimsFromToken(oldToken);
+
+        properties.getKeys().put("k2", OTHER_SECRET);
+        properties.setActiveKid("k2");
+        jwtTokenUtil.reloadKeyRing();
+        String newToken = jwtTokenUtil.generateToken(user);
+        assertEquals("alice", jwtTokenUtil.getUsernameFromToken(oldToken));
+        assertEquals("alice", jwtTokenUtil.getUsernameFromToken(newToken));
+
+        properties.setSecret(null);
+        jwtTokenUtil.reloadKeyRing();
+        assertThrows(SignatureException.class, () -> jwtTokenUtil.getAllClaimsFromToken(oldToken));
+        assertEquals("alice", jwtTokenUtil.getUsernameFromToken(newToken));
+    }
+
+    // 新配置无效时保留当前密钥环
+    @Test
+    public void testInvalidReloadKeepsCurrentRing() {
+        JwtTokenUtil jwtTokenUtil = newUtil();
+        String token = jwtTokenUtil.generateToken(user);
+
+        properties.setActiveKid("missing");
+        jwtTokenUtil.reloadKeyRing();
+        assertEquals("alice", jwtTokenUtil.getUsernameFromToken(token));
+        assertNotNull(jwtTokenUtil.generateToken(user));
+    }
+}
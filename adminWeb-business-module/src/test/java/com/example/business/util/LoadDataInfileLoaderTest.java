@@ -0,0 +1,309 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.InsertStrategy;
+import com.sunboat.adminWeb.business.utils.bulk.LoadDataExecutor;
+import com.sunboat.adminWeb.business.utils.bulk.LoadDataInfileLoader;
+import com.sunboat.adminWeb.business.utils.bulk.LoadDataInfileLoader.PartitionSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LoadDataInfileLoaderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // 数据流按 LOAD DATA 默认格式编码，特殊字符、NULL、中文往返一致；每个分区一条语句
+    @Test
+    public void testStreamPartitionsToStandIn() throws Exception {
+        StandInMySql mysql = new StandInMySql(true);
+        LoadDataInfileLoader<String[]> loader = LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs")
+                .column("action", row -> row[0])
+                .column("detail", row -> row[1])
+                .executor(executor)
+                .loadDataExecutor(mysql)
+                .build();
+
+        List<String[]> p0 = Arrays.asList(
+                new String[]{"login", "tab\there"},
+                new String[]{"logout", null},
+                new String[]{"导入", "back\\slash\nnew line"});
+        List<String[]> p1 = Collections.singletonList(new String[]{"export", "\r\u0000end"});
+
+        BulkResult result = loader.loadPartitions(Arrays.asList(
+                new PartitionSource<>("p0", p0.iterator()),
+                new PartitionSource<>("p1", p1.iterator())));
+
+        assertTrue(result.isSuccess());
+        assertEquals(4, result.getRows());
+        assertEquals(4, result.getWrittenRows());
+        assertEquals(2, result.getBatches());
+        assertEquals(2, mysql.tables.size());
+        assertRows(p0, mysql.tables.get(loader.sql("p0")));
+        assertRows(p1, mysql.tables.get(loader.sql("p1")));
+    }
+
+    // 连接不支持 LOAD DATA 时改用分批插入
+    @Test
+    public void testFallbackWhenUnsupported() throws Exception {
+        List<String[]> written = Collections.synchronizedList(new ArrayList<>());
+        LoadDataInfileLoader<String[]> loader = LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs")
+                .column("action", row -> row[0])
+                .executor(executor)
+                .loadDataExecutor(new StandInMySql(false))
+                .fallback(BulkLoadEngine.builder().batchSize(2).executor(executor).build(), collect(written))
+                .build();
+
+        BulkResult result = loader.load(rows(5).iterator());
+
+        assertTrue(result.isSuccess());
+        assertEquals(5, result.getWrittenRows());
+        assertEquals(5, written.size());
+    }
+
+    // 服务端禁用 local_infile 且数据未被读取时，整体改用分批插入
+    @Test
+    public void testFallbackWhenLocalInfileDisabled() throws Exception {
+        LoadDataExecutor disabled = new LoadDataExecutor() {
+            @Override
+            public boolean supports(Connection connection) {
+                return true;
+            }
+
+            @Override
+            public long execute(Connection connection, String sql, InputStream data) throws SQLException {
+                throw new SQLException("Loading local data is disabled; this must be enabled on both the client and server sides", "42000", 3948);
+            }
+        };
+        List<String[]> written = Collections.synchronizedList(new ArrayList<>());
+        LoadDataInfileLoader<String[]> loader = LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs")
+                .column("action", row -> row[0])
+                .executor(executor)
+                .loadDataExecutor(disabled)
+                .fallback(BulkLoadEngine.builder().batchSize(2).executor(executor).build(), collect(written))
+                .build();
+
+        BulkResult result = loader.load(rows(3).iterator());
+
+        assertEquals(3, result.getWrittenRows());
+        assertEquals(3, written.size());
+    }
+
+    // 服务端忽略的行（LOCAL 模式下重复键只产生警告）按失败统计，不能报告成功
+    @Test
+    public void testIgnoredRowsReportedAsFailed() throws Exception {
+        LoadDataExecutor ignoresDuplicates = new LoadDataExecutor() {
+            @Override
+            public boolean supports(Connection connection) {
+                return true;
+            }
+
+            @Override
+            public long execute(Connection connection, String sql, InputStream data) throws SQLException {
+                try {
+                    while (data.read() != -1) {
+                        // 读完数据流
+                    }
+                } catch (IOException e) {
+                    throw new SQLException(e);
+                }
+                return 3;
+            }
+        };
+        LoadDataInfileLoader<String[]> loader = LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs")
+                .column("action", row -> row[0])
+                .executor(executor)
+                .loadDataExecutor(ignoresDuplicates)
+                .build();
+
+        BulkResult result = loader.load(rows(5).iterator());
+
+        assertFalse(result.isSuccess());
+        assertEquals(5, result.getRows());
+        assertEquals(3, result.getWrittenRows());
+        assertEquals(1, result.getFailedBatches());
+        assertEquals(2, result.getFailedRows());
+        assertTrue(result.getFirstError() instanceof SQLException);
+        assertEquals(1, result.getFailedOutcomes().size());
+    }
+
+    // 表名、分区名、列名加反引号；已带反引号的名称不重复添加；非法名称拒绝
+    @Test
+    public void testIdentifiersQuoted() throws Exception {
+        LoadDataInfileLoader<String[]> loader = LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("logs.user_action_logs")
+                .column("`order`", row -> row[0])
+                .column("detail", row -> row[1])
+                .executor(executor)
+                .build();
+
+        String sql = loader.sql("p0");
+        assertTrue(sql.contains("INTO TABLE `logs`.`user_action_logs` PARTITION (`p0`)"));
+        assertTrue(sql.endsWith("(`order`, `detail`)"));
+        assertThrows(IllegalArgumentException.class, () -> loader.sql("p0) SET x=1 -- "));
+
+        assertThrows(IllegalArgumentException.class, () -> LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs; DROP TABLE users")
+                .column("action", row -> row[0])
+                .executor(executor)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource())
+                .table("user_action_logs")
+                .column("a`b", row -> row[0])
+                .executor(executor)
+                .build());
+    }
+
+    // 必须显式指定线程池，不使用共享的 commonPool
+    @Test
+    public void testExecutorRequired() throws Exception {
+        DataSource dataSource = dataSource();
+        assertThrows(IllegalArgumentException.class, () -> LoadDataInfileLoader.<String[]>builder()
+                .dataSource(dataSource)
+                .table("user_action_logs")
+                .column("action", row -> row[0])
+                .build());
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static List<String[]> rows(int count) {
+        List<String[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new String[]{"action-" + i});
+        }
+        return rows;
+    }
+
+    private static InsertStrategy<String[]> collect(List<String[]> written) {
+        return batch -> {
+            written.addAll(batch);
+            return batch.size();
+        };
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    /**
+     * MySQL替身：像服务端一样读完数据流并按默认格式解析，按语句保存解析出的行
+     */
+    private static class StandInMySql implements LoadDataExecutor {
+        private final boolean supported;
+        private final Map<String, List<String[]>> tables = new ConcurrentHashMap<>();
+
+        private StandInMySql(boolean supported) {
+            this.supported = supported;
+        }
+
+        @Override
+        public boolean supports(Connection connection) {
+            return supported;
+        }
+
+        @Override
+        public long execute(Connection connection, String sql, InputStream data) throws SQLException {
+            List<String[]> rows = new ArrayList<>();
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[7]; // 小缓冲区，覆盖跨缓冲区读取
+                int n;
+                while ((n = data.read(buffer, 0, buffer.length)) != -1) {
+                    bytes.write(buffer, 0, n);
+                }
+                String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+                for (String line : text.split("\n")) {
+                    String[] fields = line.split("\t", -1);
+                    for (int i = 0; i < fields.length; i++) {
+                        fields[i] = unescape(fields[i]);
+                    }
+                    rows.add(fields);
+                }
+            } catch (IOException e) {
+                throw new SQLException(e);
+            }
+            tables.put(sql, rows);
+            return rows.size();
+        }
+
+        private static String unescape(String field) {
+            if ("\\N".equals(field)) {
+                return null;
+            }
+            StringBuilder value = new StringBuilder(field.length());
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = field.charAt(++i);
+                switch (escaped) {
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case '0':
+                        value.append('\u0000');
+                        break;
+                    default:
+                        value.append(escaped);
+                }
+            }
+            return value.toString();
+        }
+    }
+}
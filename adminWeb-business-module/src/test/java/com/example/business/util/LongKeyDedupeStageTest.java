@@ -0,0 +1,195 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.bulk.BatchWriter;
+import com.sunboat.adminWeb.business.utils.bulk.BulkLoadEngine;
+import com.sunboat.adminWeb.business.utils.bulk.BulkResult;
+import com.sunboat.adminWeb.business.utils.bulk.LongKeyDedupeStage;
+import com.sunboat.adminWeb.business.utils.bulk.LongKeyDedupeStage.DuplicatePolicy;
+import com.sunboat.adminWeb.business.utils.bulk.LongOpenHashSet;
+import com.sunboat.adminWeb.business.utils.bulk.RetryPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLTransientException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LongKeyDedupeStageTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLongOpenHashSet() {
+        LongOpenHashSet set = new LongOpenHashSet();
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-1));
+        assertTrue(set.add(Long.MIN_VALUE));
+
+        Random random = new Random(42);
+        long[] keys = new long[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+            set.add(keys[i]);
+        }
+        for (long key : keys) {
+            assertTrue(set.contains(key));
+        }
+        assertFalse(set.contains(1));
+        assertEquals(keys.length + 3, set.size());
+
+        long[] sorted = set.toSortedArray();
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue(sorted[i - 1] < sorted[i]);
+        }
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+    }
+
+    // 重复键走更新，库中已有键直接更新；内存预算很小时溢写到文件，结果不变
+    @Test
+    public void testDuplicatesRoutedToUpsertWithSpill(@TempDir Path dir) throws Exception {
+        Set<Long> inserted = ConcurrentHashMap.newKeySet();
+        AtomicInteger insertedRows = new AtomicInteger();
+        AtomicInteger upsertedRows = new AtomicInteger();
+        AtomicInteger upsertBeforeInsert = new AtomicInteger();
+
+        try (LongKeyDedupeStage<Long> stage = LongKeyDedupeStage.<Long>builder()
+                .keyExtractor(Long::longValue)
+                .partitions(4)
+                .memoryBudgetBytes(4096)
+                .spillDirectory(dir)
+                .insertWriter(batch -> {
+                    for (Long key : batch) {
+                        assertTrue(inserted.add(key), "键被重复插入: " + key);
+                    }
+                    insertedRows.addAndGet(batch.size());
+                    return batch.size();
+                })
+                .upsertWriter(batch -> {
+                    for (Long key : batch) {
+                        if (key < 20_000 && !inserted.contains(key)) {
+                            upsertBeforeInsert.incrementAndGet();
+                        }
+                    }
+                    upsertedRows.addAndGet(batch.size());
+                    return batch.size();
+                })
+                .build()) {
+            stage.markExisting(LongStream.range(20_000, 20_100).iterator());
+
+            // 0~9999，再重复 0~999，再加 50 个库中已有的键
+            Stream<Long> rows = Stream.of(LongStream.range(0, 10_000), LongStream.range(0, 1_000),
+                    LongStream.range(20_000, 20_050)).flatMap(LongStream::boxed);
+            BulkResult result = stage.load(engine(), rows.iterator());
+
+            assertTrue(result.isSuccess());
+            assertEquals(11_050, result.getWrittenRows());
+            assertEquals(10_000, insertedRows.get());
+            assertEquals(1_050, upsertedRows.get());
+            assertEquals(0, upsertBeforeInsert.get());
+            assertEquals(1_050, stage.getDuplicateRows());
+            assertTrue(stage.getSpills() > 0);
+        }
+        // 关闭后溢写文件被删除
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testSkipDuplicates() throws Exception {
+        Set<Long> inserted = ConcurrentHashMap.newKeySet();
+        try (LongKeyDedupeStage<Long> stage = LongKeyDedupeStage.<Long>builder()
+                .keyExtractor(Long::longValue)
+                .partitions(2)
+                .duplicatePolicy(DuplicatePolicy.SKIP)
+                .insertWriter(batch -> {
+                    inserted.addAll(batch);
+                    return batch.size();
+                })
+                .build()) {
+            BulkResult result = stage.load(engine(), Arrays.asList(5L, 1L, 5L, 2L, 1L, 5L).iterator());
+
+            assertEquals(3, result.getWrittenRows());
+            assertEquals(3, stage.getSkippedRows());
+            assertArrayEquals(new Object[]{1L, 2L, 5L}, inserted.stream().sorted().toArray());
+        }
+    }
+
+    // 插入成功而更新失败时整批重试：已插入的行改走更新，不会被再次插入
+    @Test
+    public void testUpsertFailureRetriesWithoutReinsert() throws Exception {
+        Set<Long> inserted = ConcurrentHashMap.newKeySet();
+        List<Integer> upsertBatchSizes = new CopyOnWriteArrayList<>();
+        AtomicInteger upsertCalls = new AtomicInteger();
+
+        try (LongKeyDedupeStage<Long> stage = LongKeyDedupeStage.<Long>builder()
+                .keyExtractor(Long::longValue)
+                .partitions(1)
+                .insertWriter(BatchWriter.retrySafe(batch -> {
+                    for (Long key : batch) {
+                        assertTrue(inserted.add(key), "键被重复插入: " + key);
+                    }
+                    return batch.size();
+                }))
+                .upsertWriter(BatchWriter.retrySafe(batch -> {
+                    if (upsertCalls.getAndIncrement() == 0) {
+                        throw new SQLTransientException("模拟锁等待超时");
+                    }
+                    upsertBatchSizes.add(batch.size());
+                    return batch.size();
+                }))
+                .build()) {
+            // 一个批次：0~89，其中 0~9 重复一次
+            Stream<Long> rows = Stream.of(LongStream.range(0, 90), LongStream.range(0, 10))
+                    .flatMap(LongStream::boxed);
+            BulkLoadEngine engine = BulkLoadEngine.builder()
+                    .batchSize(100)
+                    .maxInFlightBatches(2)
+                    .retryPolicy(new RetryPolicy(3, 1, 1, 1))
+                    .executor(executor)
+                    .build();
+            BulkResult result = stage.load(engine, rows.iterator());
+
+            assertTrue(result.isSuccess());
+            assertEquals(100, result.getWrittenRows());
+            assertEquals(90, inserted.size());
+            assertEquals(90, stage.getInsertedRows());
+            // 重试时整批都是已登记的键，全部走更新
+            assertEquals(2, upsertCalls.get());
+            assertEquals(Arrays.asList(100), upsertBatchSizes);
+        }
+    }
+
+    private BulkLoadEngine engine() {
+        return BulkLoadEngine.builder()
+                .batchSize(100)
+                .maxInFlightBatches(8)
+                .executor(executor)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.MappedBlockFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedBlockFileTest {
+
+    private static final int BLOCK_SIZE = 4096;
+    // 区域上限不是块大小的整数倍，实际区域为3块
+    private static final int MAX_REGION_SIZE = BLOCK_SIZE * 3 + 100;
+    private static final int REGION_SIZE = BLOCK_SIZE * 3;
+
+    private static byte[] write(Path dir, int size) throws IOException {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        Files.write(dir.resolve("data"), data);
+        return data;
+    }
+
+    private static void assertContent(byte[] expected, long position, ByteBuffer view) {
+        assertTrue(view.isReadOnly());
+        assertEquals(0, view.position());
+        for (int i = 0; i < view.remaining(); i++) {
+            assertEquals(expected[(int) position + i], view.get(i));
+        }
+    }
+
+    // 按块切出的视图与文件内容一致，覆盖多个映射区域和较短的最后一块
+    @Test
+    public void testSliceBlocksAcrossRegions(@TempDir Path dir) throws IOException {
+        byte[] data = write(dir, REGION_SIZE * 2 + BLOCK_SIZE + 123);
+        File file = dir.resolve("data").toFile();
+        try (MappedBlockFile mapped = MappedBlockFile.open(file, BLOCK_SIZE, MAX_REGION_SIZE)) {
+            assertEquals(data.length, mapped.size());
+            long blocks = (mapped.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            assertEquals(8, blocks);
+            // 倒序访问，后面的区域先映射
+            for (long block = blocks - 1; block >= 0; block--) {
+                long position = block * BLOCK_SIZE;
+                int length = (int) Math.min(BLOCK_SIZE, mapped.size() - position);
+                ByteBuffer view = mapped.slice(position, length);
+                assertEquals(length, view.remaining());
+                assertContent(data, position, view);
+            }
+            assertEquals(123, mapped.slice(7L * BLOCK_SIZE, 123).remaining());
+        }
+    }
+
+    // 跨映射区域、超出文件、位置为负的切片都拒绝
+    @Test
+    public void testSliceBoundaryChecks(@TempDir Path dir) throws IOException {
+        byte[] data = write(dir, REGION_SIZE * 2 + 10);
+        try (MappedBlockFile mapped = MappedBlockFile.open(dir.resolve("data").toFile(), BLOCK_SIZE, MAX_REGION_SIZE)) {
+            // 正好填满第一个区域可以，多一个字节就跨到第二个区域
+            assertContent(data, 0, mapped.slice(0, REGION_SIZE));
+            assertContent(data, BLOCK_SIZE * 2, mapped.slice(BLOCK_SIZE * 2, BLOCK_SIZE));
+            assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(BLOCK_SIZE * 2, BLOCK_SIZE + 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(REGION_SIZE - 1, 2));
+
+            assertContent(data, REGION_SIZE * 2, mapped.slice(REGION_SIZE * 2, 10));
+            assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(REGION_SIZE * 2, 11));
+            assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(-BLOCK_SIZE, 1));
+            assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(0, -1));
+        }
+    }
+
+    // 关闭通道后已切出的视图仍可读
+    @Test
+    public void testViewsOutliveClose(@TempDir Path dir) throws IOException {
+        byte[] data = write(dir, BLOCK_SIZE * 2);
+        ByteBuffer view;
+        try (MappedBlockFile mapped = MappedBlockFile.open(dir.resolve("data").toFile(), BLOCK_SIZE, MAX_REGION_SIZE)) {
+            view = mapped.slice(BLOCK_SIZE, BLOCK_SIZE);
+        }
+        assertContent(data, BLOCK_SIZE, view);
+    }
+
+    @Test
+    public void testInvalidSizes(@TempDir Path dir) throws IOException {
+        write(dir, 10);
+        File file = dir.resolve("data").toFile();
+        assertThrows(IllegalArgumentException.class, () -> MappedBlockFile.open(file, 0));
+        assertThrows(IllegalArgumentException.class, () -> MappedBlockFile.open(file, BLOCK_SIZE, BLOCK_SIZE - 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> MappedBlockFile.open(file, BLOCK_SIZE, MappedBlockFile.MAX_REGION_SIZE + 1));
+    }
+}
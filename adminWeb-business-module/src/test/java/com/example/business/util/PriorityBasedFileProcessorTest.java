@@ -0,0 +1,79 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.PriorityBasedFileProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+import static com.sunboat.adminWeb.business.utils.PriorityBasedFileProcessor.BLOCK_SIZE;
+import static com.sunboat.adminWeb.business.utils.PriorityBasedFileProcessor.SMALL_FILE_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class PriorityBasedFileProcessorTest {
+
+    private static final byte TARGET = (byte) PriorityBasedFileProcessor.TARGET_BYTE;
+
+    /**
+     * 写入指定大小的文件，只在给定位置放目标字节
+     */
+    private static void write(Path file, int size, int... targets) throws IOException {
+        Files.createDirectories(file.getParent());
+        byte[] data = new byte[size];
+        Arrays.fill(data, (byte) 'x');
+        for (int position : targets) {
+            data[position] = TARGET;
+        }
+        Files.write(file, data);
+    }
+
+    // 各个块、各个文件、各个类文件夹的计数逐层累加；块边界两侧、较短的最后一块都不漏计、不重复计
+    @Test
+    public void testCountsSumAcrossTree(@TempDir Path root) throws Exception {
+        // 大于一块且最后一块较短：按块映射
+        int large = BLOCK_SIZE * 3 + 777;
+        write(root.resolve("Alpha").resolve("Alpha1"), large,
+                0, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE * 3, large - 1);
+        // 正好 SMALL_FILE_SIZE：走映射，正好两整块
+        write(root.resolve("Alpha").resolve("Alpha22"), SMALL_FILE_SIZE,
+                BLOCK_SIZE - 1, BLOCK_SIZE, SMALL_FILE_SIZE - 1);
+        // 大于一块但小于 SMALL_FILE_SIZE：整块读入
+        int small = BLOCK_SIZE + BLOCK_SIZE / 2;
+        write(root.resolve("Beta").resolve("Beta7"), small, 0, BLOCK_SIZE, small - 1);
+        write(root.resolve("Beta").resolve("Beta8"), 0);
+        // 文件名不是“类名+数字”的不处理
+        write(root.resolve("Beta").resolve("Beta.txt"), 10, 1, 2, 3);
+        write(root.resolve("Beta").resolve("Alpha3"), 10, 1, 2, 3);
+
+        assertEquals(5 + 3 + 3, PriorityBasedFileProcessor.processBinaryFiles(root.toString()));
+    }
+
+    // 单个文件出错只跳过该文件，其他文件照常计数
+    @Test
+    public void testFailingFileSkipped(@TempDir Path root) throws Exception {
+        Path unreadable = root.resolve("Gamma").resolve("Gamma1");
+        write(unreadable, 100, 1, 2);
+        write(root.resolve("Gamma").resolve("Gamma2"), BLOCK_SIZE * 2 + 1, 0, BLOCK_SIZE * 2);
+        Files.setPosixFilePermissions(unreadable, PosixFilePermissions.fromString("---------"));
+        try {
+            // root用户不受文件权限限制
+            assumeFalse(Files.isReadable(unreadable), "文件权限不生效");
+            assertEquals(2, PriorityBasedFileProcessor.processBinaryFiles(root.toString()));
+        } finally {
+            Files.setPosixFilePermissions(unreadable, PosixFilePermissions.fromString("rw-------"));
+        }
+    }
+
+    @Test
+    public void testEmptyOrMissingRoot(@TempDir Path root) throws Exception {
+        assertEquals(0, PriorityBasedFileProcessor.processBinaryFiles(root.toString()));
+        assertThrows(IllegalArgumentException.class,
+                () -> PriorityBasedFileProcessor.processBinaryFiles(root.resolve("missing").toString()));
+    }
+}
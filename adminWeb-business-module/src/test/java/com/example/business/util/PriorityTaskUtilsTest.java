@@ -6,8 +6,18 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PriorityTaskUtilsTest {
 
@@ -120,6 +130,76 @@ public class PriorityTaskUtilsTest {
         }
     }
 
+    // 线程全部占满时排队的任务按优先级执行，同优先级先进先出（带返回值的任务同样生效）
+    @Test
+    public void testPriorityOrderUnderLoad() throws Exception {
+        // 线程池先扩容到最大线程数（2×CPU核心数）再排队
+        int threads = Runtime.getRuntime().availableProcessors() * 2;
+        CountDownLatch started = new CountDownLatch(threads);
+        CountDownLatch releaseOne = new CountDownLatch(1);
+        CountDownLatch releaseOthers = new CountDownLatch(1);
+        // 占满全部线程；之后只放开一个线程，由它依次取出排队的任务，执行顺序即出队顺序
+        List<CompletableFuture<Void>> blockers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            CountDownLatch release = i == 0 ? releaseOne : releaseOthers;
+            blockers.add(PriorityTaskUtils.submit(() -> {
+                started.countDown();
+                await(release);
+            }, PriorityTaskUtils.PRIORITY_HIGHEST, "占用线程"));
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        String[] names = {"low-1", "normal-1", "highest-1", "low-2", "high-1", "normal-2", "highest-2"};
+        int[] priorities = {PriorityTaskUtils.PRIORITY_LOW, PriorityTaskUtils.PRIORITY_NORMAL,
+                PriorityTaskUtils.PRIORITY_HIGHEST, PriorityTaskUtils.PRIORITY_LOW, PriorityTaskUtils.PRIORITY_HIGH,
+                PriorityTaskUtils.PRIORITY_NORMAL, PriorityTaskUtils.PRIORITY_HIGHEST};
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            futures.add(PriorityTaskUtils.submit(() -> {
+                order.add(name);
+                return name;
+            }, priorities[i], name));
+        }
+        releaseOne.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        releaseOthers.countDown();
+        CompletableFuture.allOf(blockers.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(Arrays.asList("highest-1", "highest-2", "high-1", "normal-1", "normal-2", "low-1", "low-2"), order);
+        assertEquals("high-1", futures.get(4).get());
+    }
+
+    // 取消返回的Future会中断执行中的任务
+    @Test
+    public void testCancelInterruptsTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Integer> future = PriorityTaskUtils.submit(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 1;
+        }, PriorityTaskUtils.PRIORITY_NORMAL, "可取消任务");
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::join);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // 测试完成后关闭线程池
     @AfterAll
     public static void cleanup() {
@@ -0,0 +1,124 @@
+package com.example.business.util;
+
+import com.sunboat.adminWeb.business.utils.PriorityTaskUtils;
+import com.sunboat.adminWeb.business.utils.PriorityThreadPoolExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PriorityThreadPoolExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PriorityThreadPoolExecutor executor;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // 线程都在忙时先扩容到最大线程数，之后才排队
+    @Test
+    public void testGrowsBeforeQueueing() throws Exception {
+        executor = PriorityThreadPoolExecutor.builder()
+                .corePoolSize(1)
+                .maximumPoolSize(4)
+                .queueCapacity(10)
+                .build();
+        CountDownLatch started = new CountDownLatch(4);
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                started.countDown();
+                await(release);
+            }, PriorityTaskUtils.PRIORITY_NORMAL, "占用线程");
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertEquals(4, executor.getPoolSize());
+        assertEquals(0, executor.getQueue().size());
+
+        executor.submit(() -> { }, PriorityTaskUtils.PRIORITY_NORMAL, "排队任务");
+        executor.submit(() -> { }, PriorityTaskUtils.PRIORITY_LOW, "排队任务");
+        assertEquals(4, executor.getPoolSize());
+        assertEquals(2, executor.getQueue().size());
+        assertEquals(1, executor.getQueuedCount(PriorityTaskUtils.PRIORITY_LOW));
+    }
+
+    // 队列满时挤掉优先级最低的任务；新任务自身最低时被拒绝
+    @Test
+    public void testEvictsLowestPriorityWhenFull() throws Exception {
+        executor = PriorityThreadPoolExecutor.builder()
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .queueCapacity(2)
+                .build();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            await(release);
+        }, PriorityTaskUtils.PRIORITY_HIGHEST, "占用线程");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Boolean> lowA = executor.submit(() -> order.add("low-a"), PriorityTaskUtils.PRIORITY_LOW, "low-a");
+        CompletableFuture<Boolean> lowB = executor.submit(() -> order.add("low-b"), PriorityTaskUtils.PRIORITY_LOW, "low-b");
+        CompletableFuture<Boolean> high = executor.submit(() -> order.add("high"), PriorityTaskUtils.PRIORITY_HIGH, "high");
+        assertThrows(RejectedExecutionException.class, () ->
+                executor.submit(() -> order.add("lowest"), PriorityTaskUtils.PRIORITY_LOWEST, "lowest"));
+
+        CompletionException evicted = assertThrows(CompletionException.class, lowB::join);
+        assertTrue(evicted.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, executor.getEvictedTaskCount());
+        assertEquals(1, executor.getRejectedTaskCount());
+
+        release.countDown();
+        CompletableFuture.allOf(lowA, high).get(10, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("high", "low-a"), order);
+    }
+
+    // 达到某个优先级的排队上限后，只拒绝该优先级的新任务
+    @Test
+    public void testPriorityCapacity() throws Exception {
+        executor = PriorityThreadPoolExecutor.builder()
+                .corePoolSize(1)
+                .maximumPoolSize(1)
+                .priorityCapacity(PriorityTaskUtils.PRIORITY_LOWEST, 1)
+                .build();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            await(release);
+        }, PriorityTaskUtils.PRIORITY_HIGHEST, "占用线程");
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> first = executor.submit(() -> { }, PriorityTaskUtils.PRIORITY_LOWEST, "lowest-1");
+        assertThrows(RejectedExecutionException.class, () ->
+                executor.submit(() -> { }, PriorityTaskUtils.PRIORITY_LOWEST, "lowest-2"));
+        CompletableFuture<Void> normal = executor.submit(() -> { }, PriorityTaskUtils.PRIORITY_NORMAL, "normal");
+
+        release.countDown();
+        CompletableFuture.allOf(first, normal).get(10, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}